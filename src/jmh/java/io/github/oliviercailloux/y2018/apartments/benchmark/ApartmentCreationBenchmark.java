@@ -0,0 +1,59 @@
+package io.github.oliviercailloux.y2018.apartments.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.ApartmentValueFunction;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.ScoreExplanation;
+
+/**
+ * Measures the time to create an apartment and set its attributes, to score it and to explain its score, with the logging configuration of src/main/resources/logback.xml.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ApartmentCreationBenchmark {
+
+	private ApartmentGenerator generator;
+
+	private Apartment apartment;
+
+	private ApartmentValueFunction valueFunction;
+
+	@Setup
+	public void setUp() {
+		generator = new ApartmentGenerator(Benchmarks.SEED);
+		apartment = generator.next();
+		valueFunction = Benchmarks.valueFunction();
+	}
+
+	@Benchmark
+	public Apartment create() {
+		return generator.next();
+	}
+
+	@Benchmark
+	public double score() {
+		return valueFunction.getSubjectiveValue(apartment);
+	}
+
+	@Benchmark
+	public ScoreExplanation explain() {
+		return valueFunction.explainScore(apartment);
+	}
+
+}
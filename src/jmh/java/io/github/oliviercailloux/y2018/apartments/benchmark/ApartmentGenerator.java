@@ -0,0 +1,59 @@
+package io.github.oliviercailloux.y2018.apartments.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+
+/**
+ * This class generates synthetic apartments for the benchmarks.
+ * Two generators created with the same seed generate the same apartments, so that the results of different runs can be compared.
+ */
+public class ApartmentGenerator {
+
+	private final Random random;
+
+	/**
+	 * @param seed the seed of the pseudo-random generator
+	 */
+	public ApartmentGenerator(long seed) {
+		random = new Random(seed);
+	}
+
+	/**
+	 * Generates one apartment with every attribute set to a plausible value.
+	 * @return a new apartment
+	 */
+	public Apartment next() {
+		int number = random.nextInt(1000000);
+		Apartment apartment = new Apartment(10 + random.nextDouble() * 240, number + " rue de la Paix 75002 Paris", "Appartement " + number);
+		apartment.setNbBedrooms(random.nextInt(6));
+		apartment.setNbSleeping(1 + random.nextInt(10));
+		apartment.setNbBathrooms(random.nextInt(4));
+		if (random.nextDouble() < 0.3) {
+			apartment.setTerrace(true);
+			apartment.setFloorAreaTerrace(random.nextDouble() * 40);
+		}
+		apartment.setWifi(random.nextDouble() < 0.7);
+		apartment.setTele(random.nextDouble() < 0.6);
+		apartment.setPricePerNight(20 + random.nextDouble() * 380);
+		apartment.setNbMinNight(random.nextInt(15));
+		apartment.setDescription("Description of the apartment " + number);
+		return apartment;
+	}
+
+	/**
+	 * Generates several apartments.
+	 * @param count the number of apartments to generate
+	 * @return a list of new apartments
+	 */
+	public List<Apartment> generate(int count) {
+		List<Apartment> apartments = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			apartments.add(next());
+		}
+		return apartments;
+	}
+
+}
@@ -0,0 +1,43 @@
+package io.github.oliviercailloux.y2018.apartments.benchmark;
+
+import io.github.oliviercailloux.y2018.apartments.valuefunction.ApartmentValueFunction;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.BooleanValueFunction;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.LinearValueFunction;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.ReversedLinearValueFunction;
+
+/**
+ * Shared configuration of the benchmarks.
+ */
+class Benchmarks {
+
+	/**
+	 * The seed used by every {@link ApartmentGenerator} of the benchmarks.
+	 */
+	static final long SEED = 2018;
+
+	private Benchmarks() {
+	}
+
+	/**
+	 * @return an {@link ApartmentValueFunction} where every attribute has a non constant value function and a distinct weight
+	 */
+	static ApartmentValueFunction valueFunction() {
+		ApartmentValueFunction valueFunction = new ApartmentValueFunction();
+		valueFunction.setFloorAreaValueFunction(new LinearValueFunction(10, 200));
+		valueFunction.setNbBedroomsValueFunction(new LinearValueFunction(0, 4));
+		valueFunction.setNbSleepingValueFunction(new LinearValueFunction(1, 6));
+		valueFunction.setNbBathroomsValueFunction(new LinearValueFunction(0, 2));
+		valueFunction.setTerraceValueFunction(new BooleanValueFunction(true));
+		valueFunction.setFloorAreaTerraceValueFunction(new LinearValueFunction(0, 30));
+		valueFunction.setWifiValueFunction(new BooleanValueFunction(true));
+		valueFunction.setPricePerNightValueFunction(new ReversedLinearValueFunction(20, 400));
+		valueFunction.setNbMinNightValueFunction(new ReversedLinearValueFunction(1, 14));
+		valueFunction.setTeleValueFunction(new BooleanValueFunction(true));
+		valueFunction.setFloorAreaSubjectiveValueWeight(0.3);
+		valueFunction.setPricePerNightSubjectiveValueWeight(0.4);
+		valueFunction.setWifiSubjectiveValueWeight(0.05);
+		valueFunction.setTeleSubjectiveValueWeight(0.02);
+		return valueFunction;
+	}
+
+}
@@ -0,0 +1,46 @@
+package io.github.oliviercailloux.y2018.apartments.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.oliviercailloux.y2018.apartments.valuefunction.DiscreteValueFunction;
+
+/**
+ * Measures the time of one lookup in a {@link DiscreteValueFunction}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DiscreteValueFunctionBenchmark {
+
+	private static final String[] KEYS = { "studio", "flat", "house" };
+
+	private DiscreteValueFunction<String> function;
+
+	private int next;
+
+	@Setup
+	public void setUp() {
+		function = new DiscreteValueFunction<>(KEYS[0], KEYS[1], KEYS[2]);
+	}
+
+	@Benchmark
+	public double getSubjectiveValue() {
+		next = (next + 1) % KEYS.length;
+		return function.getSubjectiveValue(KEYS[next]);
+	}
+
+}
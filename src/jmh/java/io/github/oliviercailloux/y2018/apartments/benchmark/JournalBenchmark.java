@@ -0,0 +1,80 @@
+package io.github.oliviercailloux.y2018.apartments.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.binary.ApartmentJournal;
+
+/**
+ * Measures the time taken by the caller to record a modification of an apartment in an {@link ApartmentJournal}, which does not wait for the disk, and the time until the modification is on disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JournalBenchmark {
+
+	private List<Apartment> apartments;
+
+	private Path directory;
+
+	private ApartmentJournal journal;
+
+	private int next;
+
+	@Setup
+	public void setUp() throws IOException {
+		apartments = new ApartmentGenerator(Benchmarks.SEED).generate(1000);
+		directory = Files.createTempDirectory("journal");
+		journal = ApartmentJournal.open(directory);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		journal.close();
+		try (Stream<Path> walk = Files.walk(directory)) {
+			for (Path file : walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+				Files.delete(file);
+			}
+		}
+	}
+
+	private Apartment nextApartment() {
+		next = (next + 1) % apartments.size();
+		return apartments.get(next);
+	}
+
+	@Benchmark
+	public CompletableFuture<Void> put() {
+		return journal.put("apartment", nextApartment());
+	}
+
+	@Benchmark
+	public Void putAndWait() throws InterruptedException, ExecutionException {
+		return journal.put("apartment", nextApartment()).get();
+	}
+
+}
@@ -0,0 +1,64 @@
+package io.github.oliviercailloux.y2018.apartments.benchmark;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.ApartmentScorer;
+
+/**
+ * Measures how the time to score a million apartments with {@link ApartmentScorer#scoreParallel(List, ForkJoinPool)} decreases with the number of threads.
+ * The speedup for n threads is the time with one thread divided by the time with n threads; it should be close to n up to the number of cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ParallelScoringBenchmark {
+
+	@Param({ "1", "2", "4", "8", "16" })
+	private int threads;
+
+	@Param({ "1000000" })
+	private int size;
+
+	private List<Apartment> apartments;
+
+	private ApartmentScorer scorer;
+
+	private ForkJoinPool pool;
+
+	@Setup
+	public void setUp() {
+		apartments = new ApartmentGenerator(Benchmarks.SEED).generate(size);
+		scorer = Benchmarks.valueFunction().snapshot();
+		pool = new ForkJoinPool(threads);
+	}
+
+	@TearDown
+	public void tearDown() {
+		pool.shutdown();
+	}
+
+	@Benchmark
+	public double[] scoreParallel() {
+		return scorer.scoreParallel(apartments, pool);
+	}
+
+}
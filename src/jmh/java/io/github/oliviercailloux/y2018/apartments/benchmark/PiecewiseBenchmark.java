@@ -0,0 +1,72 @@
+package io.github.oliviercailloux.y2018.apartments.benchmark;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.oliviercailloux.y2018.apartments.piecewise.CompiledPiecewiseLinearValueFunction;
+import io.github.oliviercailloux.y2018.apartments.piecewise.PiecewiseLinearValueFunction;
+
+/**
+ * Measures the time of one interpolation by a {@link PiecewiseLinearValueFunction} and by its compiled form, depending on the number of breakpoints.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PiecewiseBenchmark {
+
+	private static final int QUERIES = 1024;
+
+	@Param({ "10", "1000", "100000" })
+	private int breakpoints;
+
+	private PiecewiseLinearValueFunction function;
+
+	private CompiledPiecewiseLinearValueFunction compiled;
+
+	private int[] keys;
+
+	private int next;
+
+	@Setup
+	public void setUp() {
+		function = new PiecewiseLinearValueFunction("Price");
+		for (int i = 0; i < breakpoints; i++) {
+			function.setUtility(i * 10, (double) i / breakpoints);
+		}
+		compiled = function.compile();
+		Random random = new Random(Benchmarks.SEED);
+		keys = new int[QUERIES];
+		for (int i = 0; i < QUERIES; i++) {
+			keys[i] = random.nextInt((breakpoints - 1) * 10);
+		}
+	}
+
+	@Benchmark
+	public double getUtility() throws IOException {
+		next = (next + 1) % QUERIES;
+		return function.getUtility(keys[next]);
+	}
+
+	@Benchmark
+	public double getCompiledUtility() {
+		next = (next + 1) % QUERIES;
+		return compiled.getUtility(keys[next]);
+	}
+
+}
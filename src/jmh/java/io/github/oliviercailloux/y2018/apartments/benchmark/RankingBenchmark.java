@@ -0,0 +1,76 @@
+package io.github.oliviercailloux.y2018.apartments.benchmark;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.ranking.ApartmentRanker;
+import io.github.oliviercailloux.y2018.apartments.ranking.ScoredApartment;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.ApartmentValueFunction;
+
+/**
+ * Measures the time to find the 20 best apartments of a catalogue, by sorting all of them and with an {@link ApartmentRanker}, with and without pruning.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RankingBenchmark {
+
+	private static final int K = 20;
+
+	@Param({ "1000", "200000" })
+	private int size;
+
+	private List<Apartment> apartments;
+
+	private ApartmentValueFunction valueFunction;
+
+	private ApartmentRanker ranker;
+
+	@Setup
+	public void setUp() {
+		apartments = new ApartmentGenerator(Benchmarks.SEED).generate(size);
+		valueFunction = Benchmarks.valueFunction();
+		ranker = new ApartmentRanker(valueFunction);
+	}
+
+	@Benchmark
+	public List<Apartment> sortAll() {
+		List<Apartment> sorted = new ArrayList<>(apartments);
+		sorted.sort(Comparator.comparingDouble((Apartment apartment) -> valueFunction.getSubjectiveValue(apartment)).reversed());
+		return sorted.subList(0, K);
+	}
+
+	@Benchmark
+	public List<ScoredApartment> topK() {
+		return ranker.topK(apartments, K);
+	}
+
+	@Benchmark
+	public List<ScoredApartment> topKPruned() {
+		return ranker.topKPruned(apartments, K);
+	}
+
+	@Benchmark
+	public List<ScoredApartment> topKParallel() {
+		return ranker.topKParallel(apartments, K);
+	}
+
+}
@@ -0,0 +1,79 @@
+package io.github.oliviercailloux.y2018.apartments.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.ranking.ApartmentRanker;
+import io.github.oliviercailloux.y2018.apartments.ranking.ScoredApartment;
+import io.github.oliviercailloux.y2018.apartments.ranking.ScoredCatalogue;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.ApartmentValueFunction;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.Criterion;
+
+/**
+ * Measures the time to rank a catalogue again after the user has moved the slider of one weight, by scoring everything again and with a {@link ScoredCatalogue}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ReRankingBenchmark {
+
+	private static final int K = 20;
+
+	@Param({ "500000" })
+	private int size;
+
+	private List<Apartment> apartments;
+
+	private ApartmentValueFunction valueFunction;
+
+	private ScoredCatalogue catalogue;
+
+	private int step;
+
+	@Setup
+	public void setUp() {
+		apartments = new ApartmentGenerator(Benchmarks.SEED).generate(size);
+		valueFunction = Benchmarks.valueFunction();
+		catalogue = new ScoredCatalogue(apartments, Benchmarks.valueFunction());
+	}
+
+	@TearDown
+	public void tearDown() {
+		catalogue.close();
+	}
+
+	private double nextWeight() {
+		step = (step + 1) % 10;
+		return 0.1 + step * 0.05;
+	}
+
+	@Benchmark
+	public List<ScoredApartment> rescoreAll() {
+		valueFunction.setWeight(Criterion.PRICE_PER_NIGHT, nextWeight());
+		return new ApartmentRanker(valueFunction).topK(apartments, K);
+	}
+
+	@Benchmark
+	public List<ScoredApartment> updateCatalogue() {
+		catalogue.setWeight(Criterion.PRICE_PER_NIGHT, nextWeight());
+		return catalogue.topK(K);
+	}
+
+}
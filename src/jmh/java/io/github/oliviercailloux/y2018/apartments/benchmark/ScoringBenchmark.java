@@ -0,0 +1,96 @@
+package io.github.oliviercailloux.y2018.apartments.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentStore;
+import io.github.oliviercailloux.y2018.apartments.apartment.MappedCatalogue;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.ApartmentScorer;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.ApartmentValueFunction;
+
+/**
+ * Measures the time to score a whole catalogue of apartments, one apartment at a time and in batch, from a list of apartments, from an {@link ApartmentStore} or from a {@link MappedCatalogue}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ScoringBenchmark {
+
+	@Param({ "1000", "100000" })
+	private int size;
+
+	private List<Apartment> apartments;
+
+	private ApartmentStore store;
+
+	private Path catalogueFile;
+
+	private MappedCatalogue catalogue;
+
+	private ApartmentValueFunction valueFunction;
+
+	private ApartmentScorer scorer;
+
+	@Setup
+	public void setUp() throws IOException {
+		apartments = new ApartmentGenerator(Benchmarks.SEED).generate(size);
+		store = new ApartmentStore(size);
+		for (Apartment apartment : apartments) {
+			store.add(apartment);
+		}
+		catalogueFile = Files.createTempFile("catalogue", ".bin");
+		MappedCatalogue.write(apartments, catalogueFile);
+		catalogue = MappedCatalogue.open(catalogueFile);
+		valueFunction = Benchmarks.valueFunction();
+		scorer = valueFunction.snapshot();
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(catalogueFile);
+	}
+
+	@Benchmark
+	public void scoreOneByOne(Blackhole blackhole) {
+		for (Apartment apartment : apartments) {
+			blackhole.consume(valueFunction.getSubjectiveValue(apartment));
+		}
+	}
+
+	@Benchmark
+	public double[] scoreAll() {
+		return valueFunction.scoreAll(apartments);
+	}
+
+	@Benchmark
+	public double[] scoreStore() {
+		return scorer.score(store);
+	}
+
+	@Benchmark
+	public double[] scoreMapped() {
+		return scorer.score(catalogue);
+	}
+
+}
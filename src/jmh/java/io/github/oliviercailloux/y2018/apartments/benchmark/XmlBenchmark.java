@@ -0,0 +1,117 @@
+package io.github.oliviercailloux.y2018.apartments.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.binary.ApartmentBinaryReader;
+import io.github.oliviercailloux.y2018.apartments.binary.ApartmentBinaryWriter;
+import io.github.oliviercailloux.y2018.apartments.readapartments.ApartmentXMLStreamReader;
+import io.github.oliviercailloux.y2018.apartments.readapartments.ReadApartmentsXMLFormat;
+import io.github.oliviercailloux.y2018.apartments.toxmlproperties.XMLProperties;
+
+/**
+ * Measures the time to write an apartment in the XML properties format, to read it back, with {@link ReadApartmentsXMLFormat} or with {@link ApartmentXMLStreamReader}, and both, and to write {@value #BULK} apartments in one document, or in the binary format and to read them back.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class XmlBenchmark {
+
+	private static final int BULK = 10_000;
+
+	private Apartment apartment;
+
+	private List<Apartment> apartments;
+
+	private byte[] binary;
+
+	private byte[] xml;
+
+	@Setup
+	public void setUp() throws Exception {
+		apartment = new ApartmentGenerator(Benchmarks.SEED).next();
+		xml = write(apartment);
+		apartments = new ApartmentGenerator(Benchmarks.SEED).generate(BULK);
+		binary = writeBinary(apartments);
+	}
+
+	@Benchmark
+	public byte[] write() throws IOException {
+		return write(apartment);
+	}
+
+	@Benchmark
+	public int writeBulk() throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream(BULK * 700);
+		new XMLProperties().toXML(apartments, output);
+		return output.size();
+	}
+
+	@Benchmark
+	public byte[] writeBinaryBulk() throws IOException {
+		return writeBinary(apartments);
+	}
+
+	@Benchmark
+	public int readBinaryBulk() throws IOException {
+		try (ApartmentBinaryReader reader = new ApartmentBinaryReader(Channels.newChannel(new ByteArrayInputStream(binary)))) {
+			while (reader.hasNext()) {
+				reader.next();
+			}
+			return reader.getCount();
+		}
+	}
+
+	@Benchmark
+	public Apartment read() throws IOException {
+		return new ReadApartmentsXMLFormat().readApartment(new ByteArrayInputStream(xml));
+	}
+
+	@Benchmark
+	public Apartment readStreaming() throws IOException {
+		try (ApartmentXMLStreamReader reader = new ApartmentXMLStreamReader(new ByteArrayInputStream(xml))) {
+			return reader.next();
+		}
+	}
+
+	@Benchmark
+	public Apartment roundTrip() throws IOException {
+		return new ReadApartmentsXMLFormat().readApartment(new ByteArrayInputStream(write(apartment)));
+	}
+
+	private static byte[] write(Apartment apartment) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		new XMLProperties().toXML(apartment, output);
+		return output.toByteArray();
+	}
+
+	private static byte[] writeBinary(List<Apartment> apartments) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream(apartments.size() * 100);
+		try (ApartmentBinaryWriter writer = new ApartmentBinaryWriter(Channels.newChannel(output))) {
+			for (Apartment apartment : apartments) {
+				writer.write(apartment);
+			}
+		}
+		return output.toByteArray();
+	}
+
+}
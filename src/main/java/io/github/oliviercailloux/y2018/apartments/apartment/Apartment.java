@@ -1,6 +1,8 @@
 package io.github.oliviercailloux.y2018.apartments.apartment;
 
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -8,9 +10,9 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 
 
-public class Apartment extends Object {
+public class Apartment extends Object implements ApartmentView {
 	
-	private static Logger LOGGER = LoggerFactory.getLogger(Apartment.class);
+	private final static Logger LOGGER = LoggerFactory.getLogger(Apartment.class);
 
 	/**
 	 * @param floorArea a real number it represents the floor area of the apartment in square meters.
@@ -90,6 +92,10 @@ public class Apartment extends Object {
 	 */
 	private boolean tele; 
 
+	/**
+	 * The objects told when an attribute is modified, <code>null</code> until the first one is added. This is not an attribute of the apartment, so it is neither compared nor serialized.
+	 */
+	private transient volatile List<ApartmentChangeListener> listeners;
 
 
 	/**
@@ -114,7 +120,7 @@ public class Apartment extends Object {
 		checkArgument(floorArea>=0,"The floor area of the apartment cannot be negative");
 		checkArgument(address !="","The address of the apartment must be specified");
 		checkArgument(title !="","The title of the apartment must be specified");
-		LOGGER.info("the apartment has been created with success");
+		LOGGER.trace("The apartment {} has been created", title);
 	}
 
 	@Override
@@ -284,8 +290,11 @@ public class Apartment extends Object {
 	 */
 	public void setFloorArea(double floorArea) {
 		checkArgument(floorArea >= 0,"The floor area should not be negative");
+		double old = this.floorArea;
 		this.floorArea = floorArea;
-		LOGGER.info("The floor area has been set to "+ floorArea);
+		LOGGER.trace("The floor area has been set to {}", floorArea);
+		if (old != floorArea)
+			fireChanged(ApartmentAttribute.FLOOR_AREA);
 	}
 
 
@@ -294,8 +303,11 @@ public class Apartment extends Object {
 	 */
 	public void setAddress(String address) {
 		checkArgument(address !="","The address should not be empty");
+		String old = this.address;
 		this.address = address;
-		LOGGER.info("The address has been set to "+ address);
+		LOGGER.trace("The address has been set to {}", address);
+		if (!Objects.equals(old, address))
+			fireChanged(ApartmentAttribute.ADDRESS);
 	}
 
 	/**
@@ -303,8 +315,11 @@ public class Apartment extends Object {
 	 */
 	public void setNbBedrooms(int nbBedrooms) {
 		checkArgument(nbBedrooms >= 0,"The number of Bedrooms can not be negative");
+		int old = this.nbBedrooms;
 		this.nbBedrooms = nbBedrooms;
-		LOGGER.info("The number of bathrooms has been set to "+ nbBedrooms);
+		LOGGER.trace("The number of bedrooms has been set to {}", nbBedrooms);
+		if (old != nbBedrooms)
+			fireChanged(ApartmentAttribute.NB_BEDROOMS);
 	}
 
 	/**
@@ -312,8 +327,11 @@ public class Apartment extends Object {
 	 */
 	public void setNbSleeping(int nbSleeping) {
 		checkArgument(nbSleeping >= 0,"The accomodation capacity can not be negative");
+		int old = this.nbSleeping;
 		this.nbSleeping = nbSleeping ;
-		LOGGER.info("The number of sleepings has been set to "+ nbSleeping);
+		LOGGER.trace("The number of sleepings has been set to {}", nbSleeping);
+		if (old != nbSleeping)
+			fireChanged(ApartmentAttribute.NB_SLEEPING);
 	}
 
 	/**
@@ -321,16 +339,22 @@ public class Apartment extends Object {
 	 */
 	public void setNbBathrooms(int nbBathrooms) {
 		checkArgument(nbBathrooms >= 0,"The number of bathrooms can not be negative");
+		int old = this.nbBathrooms;
 		this.nbBathrooms = nbBathrooms ;
-		LOGGER.info("The number of bathrooms has been set to "+ nbBathrooms);
+		LOGGER.trace("The number of bathrooms has been set to {}", nbBathrooms);
+		if (old != nbBathrooms)
+			fireChanged(ApartmentAttribute.NB_BATHROOMS);
 	}
 
 	/**
 	 * @param terrace is a boolean (true/false)
 	 */
 	public void setTerrace(boolean terrace) {
+		boolean old = this.terrace;
 		this.terrace = terrace ;
-		LOGGER.info("terrace has been set to "+ terrace);
+		LOGGER.trace("The terrace has been set to {}", terrace);
+		if (old != terrace)
+			fireChanged(ApartmentAttribute.TERRACE);
 	}
 
 	/**
@@ -339,16 +363,22 @@ public class Apartment extends Object {
 	public void setFloorAreaTerrace(double floorAreaTerrace) {
 		checkArgument((this.terrace == false && floorAreaTerrace == 0) ||( this.terrace == true),"The terrace can not have a floor area if it doesn't exists");
 		checkArgument(floorAreaTerrace >= 0,"The floor area of the terrace can not be negative");
+		double old = this.floorAreaTerrace;
 		this.floorAreaTerrace = floorAreaTerrace ;
-		LOGGER.info("The floor area of the terrace has been set to "+ floorAreaTerrace);
+		LOGGER.trace("The floor area of the terrace has been set to {}", floorAreaTerrace);
+		if (old != floorAreaTerrace)
+			fireChanged(ApartmentAttribute.FLOOR_AREA_TERRACE);
 	}
 
 	/**
 	 * @param description is a string of characters
 	 */
 	public void setDescription(String description) {
+		String old = this.description;
 		this.description = description ;
-		LOGGER.info("The description has been set to " + description);
+		LOGGER.trace("The description has been set to {}", description);
+		if (!Objects.equals(old, description))
+			fireChanged(ApartmentAttribute.DESCRIPTION);
 	}
 
 	/**
@@ -356,16 +386,22 @@ public class Apartment extends Object {
 	 */
 	public void setTitle(String title) {
 		checkArgument(title !="","The title should not be empty");
+		String old = this.title;
 		this.title = title ;
-		LOGGER.info("The title has been set to "+ floorArea);
+		LOGGER.trace("The title has been set to {}", title);
+		if (!Objects.equals(old, title))
+			fireChanged(ApartmentAttribute.TITLE);
 	}
 
 	/**
 	 * @param wifi is a boolean (true/false)
 	 */
 	public void setWifi(boolean wifi) {
+		boolean old = this.wifi;
 		this.wifi = wifi ;
-		LOGGER.info("The wifi has been set to "+ wifi);
+		LOGGER.trace("The wifi has been set to {}", wifi);
+		if (old != wifi)
+			fireChanged(ApartmentAttribute.WIFI);
 	}
 
 	/**
@@ -373,8 +409,11 @@ public class Apartment extends Object {
 	 */
 	public void setPricePerNight(double pricePerNight) {
 		checkArgument(pricePerNight >= 0,"The price per night can not be negative");
+		double old = this.pricePerNight;
 		this.pricePerNight = pricePerNight ;
-		LOGGER.info("The price per night has been set to "+ pricePerNight);
+		LOGGER.trace("The price per night has been set to {}", pricePerNight);
+		if (old != pricePerNight)
+			fireChanged(ApartmentAttribute.PRICE_PER_NIGHT);
 	}
 
 	/**
@@ -382,16 +421,50 @@ public class Apartment extends Object {
 	 */
 	public void setNbMinNight(int nbMinNight) {
 		checkArgument(nbMinNight >= 0,"The minimum number of nights can not be negative");
+		int old = this.nbMinNight;
 		this.nbMinNight = nbMinNight ;
-		LOGGER.info("The number minimum of night has been set to "+ nbMinNight);
+		LOGGER.trace("The number minimum of night has been set to {}", nbMinNight);
+		if (old != nbMinNight)
+			fireChanged(ApartmentAttribute.NB_MIN_NIGHT);
 	}
 
 	/**
 	 * @param tele is a boolean (true/false)
 	 */
 	public void setTele(boolean tele) {
+		boolean old = this.tele;
 		this.tele = tele ;
-		LOGGER.info("The tele has been set to "+ tele);
+		LOGGER.trace("The tele has been set to {}", tele);
+		if (old != tele)
+			fireChanged(ApartmentAttribute.TELE);
+	}
+
+	/**
+	 * Registers an object which will be told each time an attribute of this apartment is modified.
+	 * @param listener the object to tell
+	 */
+	public synchronized void addChangeListener(ApartmentChangeListener listener) {
+		checkArgument(listener != null, "The listener cannot be null");
+		if (listeners == null)
+			listeners = new CopyOnWriteArrayList<>();
+		listeners.add(listener);
+	}
+
+	/**
+	 * @param listener an object registered with {@link #addChangeListener(ApartmentChangeListener)}, which will not be told anymore
+	 */
+	public synchronized void removeChangeListener(ApartmentChangeListener listener) {
+		if (listeners != null)
+			listeners.remove(listener);
+	}
+
+	private void fireChanged(ApartmentAttribute attribute) {
+		List<ApartmentChangeListener> current = listeners;
+		if (current == null)
+			return;
+		for (ApartmentChangeListener listener : current) {
+			listener.attributeChanged(this, attribute);
+		}
 	}
 
 	@Override
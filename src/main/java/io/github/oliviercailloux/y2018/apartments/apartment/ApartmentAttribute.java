@@ -0,0 +1,20 @@
+package io.github.oliviercailloux.y2018.apartments.apartment;
+
+/**
+ * The attributes of an {@link Apartment} which can be modified by its setters.
+ */
+public enum ApartmentAttribute {
+	FLOOR_AREA,
+	ADDRESS,
+	NB_BEDROOMS,
+	NB_SLEEPING,
+	NB_BATHROOMS,
+	TERRACE,
+	FLOOR_AREA_TERRACE,
+	DESCRIPTION,
+	TITLE,
+	WIFI,
+	PRICE_PER_NIGHT,
+	NB_MIN_NIGHT,
+	TELE
+}
@@ -0,0 +1,16 @@
+package io.github.oliviercailloux.y2018.apartments.apartment;
+
+/**
+ * An object which is told when an attribute of an {@link Apartment} is modified, registered with {@link Apartment#addChangeListener(ApartmentChangeListener)}.
+ */
+@FunctionalInterface
+public interface ApartmentChangeListener {
+
+	/**
+	 * Called by a setter of the apartment after the attribute has been modified, only if its new value is different from the old one.
+	 * @param apartment the apartment modified
+	 * @param attribute the attribute modified
+	 */
+	void attributeChanged(Apartment apartment, ApartmentAttribute attribute);
+
+}
@@ -0,0 +1,372 @@
+package io.github.oliviercailloux.y2018.apartments.apartment;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A compact collection of apartments, which keeps each attribute in a column: the numbers in arrays of primitives, the booleans in bitsets, and the strings in a dictionary of UTF-8 bytes where a string shared by several apartments, such as an empty description, is stored once.
+ * An apartment of the store is not an object: it is identified by its index, from 0 to {@link #size()} excluded, and read through a lightweight {@link ApartmentView}. It costs a few dozen bytes plus the bytes of its strings, several times less than an {@link Apartment} in a list.
+ * The apartments can be appended and modified in place, with the same checks as the setters of {@link Apartment}, but not removed. The strings replaced by a modification stay in the dictionary.
+ * This class is not thread-safe.
+ */
+public class ApartmentStore {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private int size;
+
+	private double[] floorArea;
+	private double[] floorAreaTerrace;
+	private double[] pricePerNight;
+	private int[] nbBedrooms;
+	private int[] nbSleeping;
+	private int[] nbBathrooms;
+	private int[] nbMinNight;
+	private long[] terrace;
+	private long[] wifi;
+	private long[] tele;
+	private int[] address;
+	private int[] description;
+	private int[] title;
+
+	private final StringDictionary strings;
+
+	public ApartmentStore() {
+		this(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * @param capacity the number of apartments which can be stored before the columns grow, positive or zero
+	 */
+	public ApartmentStore(int capacity) {
+		checkArgument(capacity >= 0, "The capacity cannot be negative");
+		floorArea = new double[capacity];
+		floorAreaTerrace = new double[capacity];
+		pricePerNight = new double[capacity];
+		nbBedrooms = new int[capacity];
+		nbSleeping = new int[capacity];
+		nbBathrooms = new int[capacity];
+		nbMinNight = new int[capacity];
+		terrace = new long[(capacity + 63) / 64];
+		wifi = new long[(capacity + 63) / 64];
+		tele = new long[(capacity + 63) / 64];
+		address = new int[capacity];
+		description = new int[capacity];
+		title = new int[capacity];
+		strings = new StringDictionary();
+	}
+
+	/**
+	 * @return the number of apartments stored
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Appends a copy of the attributes of an apartment.
+	 * @param apart the apartment to copy, for example an {@link Apartment} or a view of another store
+	 * @return the index of the new apartment
+	 */
+	public int add(ApartmentView apart) {
+		check(apart);
+		if (size == floorArea.length)
+			grow();
+		int index = size++;
+		write(index, apart);
+		return index;
+	}
+
+	/**
+	 * Replaces all the attributes of an apartment of the store.
+	 * @param index the index of the apartment to modify
+	 * @param apart the apartment whose attributes are copied
+	 */
+	public void set(int index, ApartmentView apart) {
+		checkElementIndex(index, size);
+		check(apart);
+		write(index, apart);
+	}
+
+	private static void check(ApartmentView apart) {
+		checkArgument(apart != null, "The apartment cannot be null");
+		checkArgument(apart.getFloorArea() >= 0, "The floor area of the apartment cannot be negative");
+		checkArgument(!apart.getAddress().isEmpty(), "The address of the apartment must be specified");
+		checkArgument(!apart.getTitle().isEmpty(), "The title of the apartment must be specified");
+		checkArgument(apart.getNbBedrooms() >= 0 && apart.getNbSleeping() >= 0 && apart.getNbBathrooms() >= 0 && apart.getNbMinNight() >= 0, "The numbers of rooms and nights can not be negative");
+		checkArgument(apart.getFloorAreaTerrace() >= 0 && (apart.getTerrace() || apart.getFloorAreaTerrace() == 0), "The floor area of the terrace can not be negative, nor positive without a terrace");
+		checkArgument(apart.getPricePerNight() >= 0, "The price per night can not be negative");
+	}
+
+	private void write(int index, ApartmentView apart) {
+		floorArea[index] = apart.getFloorArea();
+		floorAreaTerrace[index] = apart.getFloorAreaTerrace();
+		pricePerNight[index] = apart.getPricePerNight();
+		nbBedrooms[index] = apart.getNbBedrooms();
+		nbSleeping[index] = apart.getNbSleeping();
+		nbBathrooms[index] = apart.getNbBathrooms();
+		nbMinNight[index] = apart.getNbMinNight();
+		setBit(terrace, index, apart.getTerrace());
+		setBit(wifi, index, apart.getWifi());
+		setBit(tele, index, apart.getTele());
+		address[index] = strings.add(apart.getAddress());
+		description[index] = strings.add(apart.getDescription());
+		title[index] = strings.add(apart.getTitle());
+	}
+
+	private void grow() {
+		int capacity = Math.max(INITIAL_CAPACITY, floorArea.length * 2);
+		floorArea = Arrays.copyOf(floorArea, capacity);
+		floorAreaTerrace = Arrays.copyOf(floorAreaTerrace, capacity);
+		pricePerNight = Arrays.copyOf(pricePerNight, capacity);
+		nbBedrooms = Arrays.copyOf(nbBedrooms, capacity);
+		nbSleeping = Arrays.copyOf(nbSleeping, capacity);
+		nbBathrooms = Arrays.copyOf(nbBathrooms, capacity);
+		nbMinNight = Arrays.copyOf(nbMinNight, capacity);
+		terrace = Arrays.copyOf(terrace, (capacity + 63) / 64);
+		wifi = Arrays.copyOf(wifi, (capacity + 63) / 64);
+		tele = Arrays.copyOf(tele, (capacity + 63) / 64);
+		address = Arrays.copyOf(address, capacity);
+		description = Arrays.copyOf(description, capacity);
+		title = Arrays.copyOf(title, capacity);
+	}
+
+	private static void setBit(long[] bits, int index, boolean value) {
+		if (value)
+			bits[index >>> 6] |= 1L << index;
+		else
+			bits[index >>> 6] &= ~(1L << index);
+	}
+
+	private static boolean getBit(long[] bits, int index) {
+		return (bits[index >>> 6] & (1L << index)) != 0;
+	}
+
+	/**
+	 * @param index the index of an apartment of the store
+	 * @return a view of the apartment, which reflects the later modifications of the apartment
+	 */
+	public View get(int index) {
+		checkElementIndex(index, size);
+		return new View(index);
+	}
+
+	/**
+	 * @return the views of the apartments of the store, in the order of their indices, a list with fast random access which reflects the later additions and modifications
+	 */
+	public List<View> asList() {
+		return new ViewList();
+	}
+
+	/**
+	 * @param index the index of an apartment of the store
+	 * @return a new {@link Apartment} with the attributes of the apartment
+	 */
+	public Apartment toApartment(int index) {
+		checkElementIndex(index, size);
+		Apartment apart = new Apartment(floorArea[index], strings.get(address[index]), strings.get(title[index]));
+		apart.setNbBedrooms(nbBedrooms[index]);
+		apart.setNbSleeping(nbSleeping[index]);
+		apart.setNbBathrooms(nbBathrooms[index]);
+		apart.setTerrace(getBit(terrace, index));
+		apart.setFloorAreaTerrace(floorAreaTerrace[index]);
+		apart.setDescription(strings.get(description[index]));
+		apart.setWifi(getBit(wifi, index));
+		apart.setPricePerNight(pricePerNight[index]);
+		apart.setNbMinNight(nbMinNight[index]);
+		apart.setTele(getBit(tele, index));
+		return apart;
+	}
+
+	/**
+	 * @return the number of bytes of the columns and of the dictionary of strings, without the headers of the arrays
+	 */
+	public long sizeInBytes() {
+		long numbers = 8L * (floorArea.length + floorAreaTerrace.length + pricePerNight.length) + 4L * (nbBedrooms.length + nbSleeping.length + nbBathrooms.length + nbMinNight.length);
+		long booleans = 8L * (terrace.length + wifi.length + tele.length);
+		long stringIds = 4L * (address.length + description.length + title.length);
+		return numbers + booleans + stringIds + strings.sizeInBytes();
+	}
+
+	public void setFloorArea(int index, double value) {
+		checkElementIndex(index, size);
+		checkArgument(value >= 0, "The floor area should not be negative");
+		floorArea[index] = value;
+	}
+
+	public void setAddress(int index, String value) {
+		checkElementIndex(index, size);
+		checkArgument(!value.isEmpty(), "The address should not be empty");
+		address[index] = strings.add(value);
+	}
+
+	public void setNbBedrooms(int index, int value) {
+		checkElementIndex(index, size);
+		checkArgument(value >= 0, "The number of Bedrooms can not be negative");
+		nbBedrooms[index] = value;
+	}
+
+	public void setNbSleeping(int index, int value) {
+		checkElementIndex(index, size);
+		checkArgument(value >= 0, "The accomodation capacity can not be negative");
+		nbSleeping[index] = value;
+	}
+
+	public void setNbBathrooms(int index, int value) {
+		checkElementIndex(index, size);
+		checkArgument(value >= 0, "The number of bathrooms can not be negative");
+		nbBathrooms[index] = value;
+	}
+
+	public void setTerrace(int index, boolean value) {
+		checkElementIndex(index, size);
+		setBit(terrace, index, value);
+	}
+
+	public void setFloorAreaTerrace(int index, double value) {
+		checkElementIndex(index, size);
+		checkArgument(getBit(terrace, index) || value == 0, "The terrace can not have a floor area if it doesn't exists");
+		checkArgument(value >= 0, "The floor area of the terrace can not be negative");
+		floorAreaTerrace[index] = value;
+	}
+
+	public void setDescription(int index, String value) {
+		checkElementIndex(index, size);
+		description[index] = strings.add(value);
+	}
+
+	public void setTitle(int index, String value) {
+		checkElementIndex(index, size);
+		checkArgument(!value.isEmpty(), "The title should not be empty");
+		title[index] = strings.add(value);
+	}
+
+	public void setWifi(int index, boolean value) {
+		checkElementIndex(index, size);
+		setBit(wifi, index, value);
+	}
+
+	public void setPricePerNight(int index, double value) {
+		checkElementIndex(index, size);
+		checkArgument(value >= 0, "The price per night can not be negative");
+		pricePerNight[index] = value;
+	}
+
+	public void setNbMinNight(int index, int value) {
+		checkElementIndex(index, size);
+		checkArgument(value >= 0, "The minimum number of nights can not be negative");
+		nbMinNight[index] = value;
+	}
+
+	public void setTele(int index, boolean value) {
+		checkElementIndex(index, size);
+		setBit(tele, index, value);
+	}
+
+	/**
+	 * An apartment of the store, read through the columns of the store. A view holds only its index, so that it is cheap to create and to throw away.
+	 */
+	public class View implements ApartmentView {
+
+		private final int index;
+
+		private View(int index) {
+			this.index = index;
+		}
+
+		/**
+		 * @return the index of the apartment in the store
+		 */
+		public int getIndex() {
+			return index;
+		}
+
+		@Override
+		public double getFloorArea() {
+			return floorArea[index];
+		}
+
+		@Override
+		public String getAddress() {
+			return strings.get(address[index]);
+		}
+
+		@Override
+		public int getNbBedrooms() {
+			return nbBedrooms[index];
+		}
+
+		@Override
+		public int getNbSleeping() {
+			return nbSleeping[index];
+		}
+
+		@Override
+		public int getNbBathrooms() {
+			return nbBathrooms[index];
+		}
+
+		@Override
+		public boolean getTerrace() {
+			return getBit(terrace, index);
+		}
+
+		@Override
+		public double getFloorAreaTerrace() {
+			return floorAreaTerrace[index];
+		}
+
+		@Override
+		public String getDescription() {
+			return strings.get(description[index]);
+		}
+
+		@Override
+		public String getTitle() {
+			return strings.get(title[index]);
+		}
+
+		@Override
+		public boolean getWifi() {
+			return getBit(wifi, index);
+		}
+
+		@Override
+		public double getPricePerNight() {
+			return pricePerNight[index];
+		}
+
+		@Override
+		public int getNbMinNight() {
+			return nbMinNight[index];
+		}
+
+		@Override
+		public boolean getTele() {
+			return getBit(tele, index);
+		}
+
+		@Override
+		public String toString() {
+			return "#" + index + ": " + getTitle();
+		}
+	}
+
+	private class ViewList extends AbstractList<View> implements RandomAccess {
+		@Override
+		public View get(int index) {
+			return ApartmentStore.this.get(index);
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+
+}
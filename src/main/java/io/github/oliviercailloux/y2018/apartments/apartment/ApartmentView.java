@@ -0,0 +1,73 @@
+package io.github.oliviercailloux.y2018.apartments.apartment;
+
+/**
+ * The attributes of an apartment, read-only. An {@link Apartment} is a view of itself, and an {@link ApartmentStore} hands out views of the apartments it stores, so that the apartments can be scored without being copied into {@link Apartment} objects.
+ */
+public interface ApartmentView {
+
+	/**
+	 * @return the floor area of the apartment in square meters, positive or equal to zero
+	 */
+	public double getFloorArea();
+
+	/**
+	 * @return the full location of the apartment
+	 */
+	public String getAddress();
+
+	/**
+	 * @return the number of bedrooms, 0 if missing
+	 */
+	public int getNbBedrooms();
+
+	/**
+	 * @return the accommodation capacity, 0 if missing
+	 */
+	public int getNbSleeping();
+
+	/**
+	 * @return the number of bathrooms, 0 if missing
+	 */
+	public int getNbBathrooms();
+
+	/**
+	 * @return the presence (or absence) of a terrace
+	 */
+	public boolean getTerrace();
+
+	/**
+	 * @return the floor area of the terrace in square meters, 0 if there is no terrace
+	 */
+	public double getFloorAreaTerrace();
+
+	/**
+	 * @return the description of the apartment, "" if missing
+	 */
+	public String getDescription();
+
+	/**
+	 * @return the title of the announcement
+	 */
+	public String getTitle();
+
+	/**
+	 * @return the presence (or absence) of WiFi
+	 */
+	public boolean getWifi();
+
+	/**
+	 * @return the price for one night, 0 if missing
+	 */
+	public double getPricePerNight();
+
+	/**
+	 * @return the minimum number of nights, 0 if missing
+	 */
+	public int getNbMinNight();
+
+	/**
+	 * @return the presence (or absence) of a TV
+	 */
+	public boolean getTele();
+
+}
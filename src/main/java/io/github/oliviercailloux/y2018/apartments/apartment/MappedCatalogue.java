@@ -0,0 +1,311 @@
+package io.github.oliviercailloux.y2018.apartments.apartment;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A catalogue of apartments read from a binary file mapped in memory, so that opening it costs the same whatever the number of apartments, and that the apartments are neither parsed nor copied on the Java heap.
+ * The file starts with a header of {@value #HEADER_SIZE} bytes: a magic number, the version of the format, the number of apartments, the size of a record, then the offset and the length of the string section.
+ * Then comes one record of {@value #RECORD_SIZE} bytes per apartment, with the numbers, the booleans packed in a set of flags, and the offsets of the title, address and description in the string section.
+ * The string section holds each distinct string once, as its length in bytes followed by its UTF-8 bytes. All the numbers are big-endian.
+ * The apartments are read through views, which read the mapped file each time an attribute is asked for. A catalogue is immutable and can be shared by several threads.
+ */
+public class MappedCatalogue {
+
+	/**
+	 * "APTS" in ASCII.
+	 */
+	static final int MAGIC = 0x41505453;
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 32;
+	static final int RECORD_SIZE = 56;
+
+	private static final int FLOOR_AREA = 0;
+	private static final int FLOOR_AREA_TERRACE = 8;
+	private static final int PRICE_PER_NIGHT = 16;
+	private static final int NB_BEDROOMS = 24;
+	private static final int NB_SLEEPING = 28;
+	private static final int NB_BATHROOMS = 32;
+	private static final int NB_MIN_NIGHT = 36;
+	private static final int ADDRESS = 40;
+	private static final int DESCRIPTION = 44;
+	private static final int TITLE = 48;
+	private static final int FLAGS = 52;
+
+	private static final int TERRACE_FLAG = 1;
+	private static final int WIFI_FLAG = 2;
+	private static final int TELE_FLAG = 4;
+
+	private final int size;
+	private final ByteBuffer records;
+	private final ByteBuffer strings;
+
+	private final static Logger LOGGER = LoggerFactory.getLogger(MappedCatalogue.class);
+
+	private MappedCatalogue(int size, ByteBuffer records, ByteBuffer strings) {
+		this.size = size;
+		this.records = records;
+		this.strings = strings;
+	}
+
+	/**
+	 * Maps a catalogue file in memory. Only the header is read: the records are read when the apartments are.
+	 * The file stays mapped until the catalogue is garbage collected, even though no file is kept open.
+	 * @param file a file written by {@link #write(Iterable, Path)}
+	 * @return the catalogue of the apartments of the file
+	 * @throws IOException if the file cannot be read or is not a valid catalogue
+	 */
+	public static MappedCatalogue open(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			while (header.hasRemaining()) {
+				if (channel.read(header) < 0)
+					throw new IOException("The file " + file + " is too short to be a catalogue");
+			}
+			header.flip();
+			if (header.getInt() != MAGIC)
+				throw new IOException("The file " + file + " is not a catalogue");
+			int version = header.getInt();
+			if (version != VERSION)
+				throw new IOException("The version " + version + " of the catalogue " + file + " is not supported");
+			int size = header.getInt();
+			int recordSize = header.getInt();
+			long stringsOffset = header.getLong();
+			long stringsLength = header.getLong();
+			if (size < 0 || recordSize != RECORD_SIZE || stringsOffset != HEADER_SIZE + (long) size * RECORD_SIZE || stringsLength < 0 || stringsOffset + stringsLength > channel.size())
+				throw new IOException("The header of the catalogue " + file + " is not valid");
+			if ((long) size * RECORD_SIZE > Integer.MAX_VALUE || stringsLength > Integer.MAX_VALUE)
+				throw new IOException("The catalogue " + file + " is too large to be mapped");
+
+			MappedByteBuffer records = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, (long) size * RECORD_SIZE);
+			MappedByteBuffer strings = channel.map(FileChannel.MapMode.READ_ONLY, stringsOffset, stringsLength);
+			LOGGER.info("The catalogue {} of {} apartments has been mapped", file, size);
+			return new MappedCatalogue(size, records.order(ByteOrder.BIG_ENDIAN), strings.order(ByteOrder.BIG_ENDIAN));
+		}
+	}
+
+	/**
+	 * Writes a catalogue file, replacing the file if it exists.
+	 * The records are written as the apartments are read, while the distinct strings are kept in memory to be written at the end.
+	 * @param apartments the apartments of the catalogue, for example a list of {@link Apartment} or the views of an {@link ApartmentStore}
+	 * @param file the path of the catalogue file
+	 * @return the number of apartments written
+	 * @throws IOException if the file cannot be written
+	 */
+	public static int write(Iterable<? extends ApartmentView> apartments, Path file) throws IOException {
+		checkArgument(apartments != null, "The apartments cannot be null");
+		Map<String, Integer> offsets = new HashMap<>();
+		ByteArrayOutputStream stringSection = new ByteArrayOutputStream();
+		int size = 0;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			channel.position(HEADER_SIZE);
+			ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 1024);
+			for (ApartmentView apart : apartments) {
+				checkArgument(size < (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE, "Too many apartments for a catalogue");
+				if (!buffer.hasRemaining())
+					flush(buffer, channel);
+				buffer.putDouble(apart.getFloorArea());
+				buffer.putDouble(apart.getFloorAreaTerrace());
+				buffer.putDouble(apart.getPricePerNight());
+				buffer.putInt(apart.getNbBedrooms());
+				buffer.putInt(apart.getNbSleeping());
+				buffer.putInt(apart.getNbBathrooms());
+				buffer.putInt(apart.getNbMinNight());
+				buffer.putInt(stringOffset(apart.getAddress(), offsets, stringSection));
+				buffer.putInt(stringOffset(apart.getDescription(), offsets, stringSection));
+				buffer.putInt(stringOffset(apart.getTitle(), offsets, stringSection));
+				buffer.putInt((apart.getTerrace() ? TERRACE_FLAG : 0) | (apart.getWifi() ? WIFI_FLAG : 0) | (apart.getTele() ? TELE_FLAG : 0));
+				size++;
+			}
+			flush(buffer, channel);
+			byte[] stringBytes = stringSection.toByteArray();
+			channel.write(ByteBuffer.wrap(stringBytes));
+
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(RECORD_SIZE).putLong(HEADER_SIZE + (long) size * RECORD_SIZE).putLong(stringBytes.length);
+			header.flip();
+			channel.position(0);
+			while (header.hasRemaining()) {
+				channel.write(header);
+			}
+		}
+		LOGGER.info("{} apartments have been written to the catalogue {}", size, file);
+		return size;
+	}
+
+	private static void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	private static int stringOffset(String string, Map<String, Integer> offsets, ByteArrayOutputStream stringSection) {
+		Integer offset = offsets.get(string);
+		if (offset != null)
+			return offset;
+		byte[] encoded = string.getBytes(StandardCharsets.UTF_8);
+		checkArgument(stringSection.size() <= Integer.MAX_VALUE - 4 - encoded.length, "The strings of the catalogue are too large");
+		int newOffset = stringSection.size();
+		stringSection.write(encoded.length >>> 24);
+		stringSection.write(encoded.length >>> 16);
+		stringSection.write(encoded.length >>> 8);
+		stringSection.write(encoded.length);
+		stringSection.write(encoded, 0, encoded.length);
+		offsets.put(string, newOffset);
+		return newOffset;
+	}
+
+	/**
+	 * @return the number of apartments of the catalogue
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @param index the index of an apartment, from 0 to {@link #size()} excluded
+	 * @return a view of the apartment
+	 */
+	public View get(int index) {
+		checkElementIndex(index, size);
+		return new View(index * RECORD_SIZE);
+	}
+
+	/**
+	 * @return the views of the apartments of the catalogue, in the order of the file, a list with fast random access
+	 */
+	public List<View> asList() {
+		return new ViewList();
+	}
+
+	private String readString(int offset) {
+		int length = strings.getInt(offset);
+		byte[] bytes = new byte[length];
+		ByteBuffer source = strings.duplicate();
+		source.position(offset + 4);
+		source.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * An apartment of the catalogue, which holds only the position of its record in the mapped file.
+	 */
+	public class View implements ApartmentView {
+
+		private final int record;
+
+		private View(int record) {
+			this.record = record;
+		}
+
+		/**
+		 * @return the index of the apartment in the catalogue
+		 */
+		public int getIndex() {
+			return record / RECORD_SIZE;
+		}
+
+		@Override
+		public double getFloorArea() {
+			return records.getDouble(record + FLOOR_AREA);
+		}
+
+		@Override
+		public String getAddress() {
+			return readString(records.getInt(record + ADDRESS));
+		}
+
+		@Override
+		public int getNbBedrooms() {
+			return records.getInt(record + NB_BEDROOMS);
+		}
+
+		@Override
+		public int getNbSleeping() {
+			return records.getInt(record + NB_SLEEPING);
+		}
+
+		@Override
+		public int getNbBathrooms() {
+			return records.getInt(record + NB_BATHROOMS);
+		}
+
+		@Override
+		public boolean getTerrace() {
+			return (records.getInt(record + FLAGS) & TERRACE_FLAG) != 0;
+		}
+
+		@Override
+		public double getFloorAreaTerrace() {
+			return records.getDouble(record + FLOOR_AREA_TERRACE);
+		}
+
+		@Override
+		public String getDescription() {
+			return readString(records.getInt(record + DESCRIPTION));
+		}
+
+		@Override
+		public String getTitle() {
+			return readString(records.getInt(record + TITLE));
+		}
+
+		@Override
+		public boolean getWifi() {
+			return (records.getInt(record + FLAGS) & WIFI_FLAG) != 0;
+		}
+
+		@Override
+		public double getPricePerNight() {
+			return records.getDouble(record + PRICE_PER_NIGHT);
+		}
+
+		@Override
+		public int getNbMinNight() {
+			return records.getInt(record + NB_MIN_NIGHT);
+		}
+
+		@Override
+		public boolean getTele() {
+			return (records.getInt(record + FLAGS) & TELE_FLAG) != 0;
+		}
+
+		@Override
+		public String toString() {
+			return "#" + getIndex() + ": " + getTitle();
+		}
+	}
+
+	private class ViewList extends AbstractList<View> implements RandomAccess {
+		@Override
+		public View get(int index) {
+			return MappedCatalogue.this.get(index);
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+
+}
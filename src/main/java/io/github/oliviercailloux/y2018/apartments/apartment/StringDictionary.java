@@ -0,0 +1,119 @@
+package io.github.oliviercailloux.y2018.apartments.apartment;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A set of strings, each one stored once as UTF-8 bytes in a single array and identified by its position in the set.
+ * Unlike a list of {@link String} objects, a string costs its bytes and an offset, without any object header, and a string added twice is stored once.
+ * The strings are found again by an open addressing hash table of their identifiers.
+ */
+class StringDictionary {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private byte[] bytes;
+	private int length;
+
+	/**
+	 * The offset in {@link #bytes} where each string starts, the string of identifier i ending where the string i + 1 starts.
+	 */
+	private int[] offsets;
+	private int size;
+
+	/**
+	 * The identifiers of the strings plus one, at the position given by their hash, 0 meaning an empty slot.
+	 */
+	private int[] table;
+
+	StringDictionary() {
+		bytes = new byte[INITIAL_CAPACITY * 16];
+		offsets = new int[INITIAL_CAPACITY + 1];
+		table = new int[INITIAL_CAPACITY * 2];
+	}
+
+	/**
+	 * @param string the string to add
+	 * @return the identifier of the string, the same as the one returned when it was added before if it was
+	 */
+	int add(String string) {
+		byte[] encoded = string.getBytes(StandardCharsets.UTF_8);
+		int hash = hash(encoded, 0, encoded.length);
+		int mask = table.length - 1;
+		int slot = hash & mask;
+		while (table[slot] != 0) {
+			int id = table[slot] - 1;
+			if (equals(id, encoded))
+				return id;
+			slot = (slot + 1) & mask;
+		}
+		if (length + encoded.length > bytes.length)
+			bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + encoded.length));
+		if (size + 2 > offsets.length)
+			offsets = Arrays.copyOf(offsets, offsets.length * 2);
+		System.arraycopy(encoded, 0, bytes, length, encoded.length);
+		length += encoded.length;
+		int id = size++;
+		offsets[size] = length;
+		table[slot] = id + 1;
+		if (size * 2 > table.length)
+			rehash();
+		return id;
+	}
+
+	/**
+	 * @param id the identifier of a string of this dictionary
+	 * @return a new string equal to the one added with this identifier
+	 */
+	String get(int id) {
+		return new String(bytes, offsets[id], offsets[id + 1] - offsets[id], StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @return the number of different strings
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * @return the number of bytes of the arrays of this dictionary
+	 */
+	long sizeInBytes() {
+		return bytes.length + 4L * offsets.length + 4L * table.length;
+	}
+
+	private boolean equals(int id, byte[] encoded) {
+		int start = offsets[id];
+		int end = offsets[id + 1];
+		if (end - start != encoded.length)
+			return false;
+		for (int i = 0; i < encoded.length; i++) {
+			if (bytes[start + i] != encoded[i])
+				return false;
+		}
+		return true;
+	}
+
+	private void rehash() {
+		int[] newTable = new int[table.length * 2];
+		int mask = newTable.length - 1;
+		for (int id = 0; id < size; id++) {
+			int slot = hash(bytes, offsets[id], offsets[id + 1]) & mask;
+			while (newTable[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			newTable[slot] = id + 1;
+		}
+		table = newTable;
+	}
+
+	private static int hash(byte[] array, int from, int to) {
+		int hash = 1;
+		for (int i = from; i < to; i++) {
+			hash = 31 * hash + array[i];
+		}
+		return hash ^ (hash >>> 16);
+	}
+
+}
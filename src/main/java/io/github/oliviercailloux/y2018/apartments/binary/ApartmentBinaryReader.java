@@ -0,0 +1,171 @@
+package io.github.oliviercailloux.y2018.apartments.binary;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+
+/**
+ * This class reads the apartments written by an {@link ApartmentBinaryWriter}, one after the other, through a buffer, so that the memory used does not depend on their number.
+ * The fields that a later version of the format adds at the end of the records are skipped.
+ * A reader is not thread-safe, but several readers can be used by several threads.
+ */
+public class ApartmentBinaryReader implements Iterator<Apartment>, Closeable {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final ReadableByteChannel channel;
+	private ByteBuffer buffer;
+	private boolean endOfChannel;
+	private Apartment next;
+	private boolean ended;
+	private int count;
+
+	/**
+	 * Reads the header of the format from the channel.
+	 * @param channel the channel from which the apartments will be read, closed when the reader is closed
+	 * @throws IOException if the channel cannot be read, or does not start with the header of a supported version of the format
+	 */
+	public ApartmentBinaryReader(ReadableByteChannel channel) throws IOException {
+		checkArgument(channel != null, "The channel cannot be null");
+		this.channel = channel;
+		this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		buffer.flip();
+		try {
+			if (!fill(4) || buffer.getInt() != BinaryFormat.MAGIC)
+				throw new IOException("The data are not apartments in the binary format");
+			fill(BinaryFormat.MAX_VARINT_SIZE);
+			int version = getVarint();
+			if (version != BinaryFormat.VERSION)
+				throw new IOException("The version " + version + " of the binary format is not supported");
+		}
+		catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @param file a file written by an {@link ApartmentBinaryWriter}
+	 * @return a reader of the file
+	 * @throws IOException if the file cannot be read, or is not in a supported version of the format
+	 */
+	public static ApartmentBinaryReader open(Path file) throws IOException {
+		return new ApartmentBinaryReader(FileChannel.open(file, StandardOpenOption.READ));
+	}
+
+	/**
+	 * Reads from the channel until the buffer holds at least the given number of bytes, or the channel ends.
+	 * @return <code>false</code> if the channel has ended before
+	 */
+	private boolean fill(int needed) throws IOException {
+		if (buffer.remaining() >= needed)
+			return true;
+		if (buffer.capacity() < needed) {
+			ByteBuffer larger = ByteBuffer.allocate(needed);
+			larger.put(buffer);
+			buffer = larger;
+		}
+		else {
+			buffer.compact();
+		}
+		while (buffer.position() < needed && !endOfChannel) {
+			if (channel.read(buffer) < 0)
+				endOfChannel = true;
+		}
+		buffer.flip();
+		return buffer.remaining() >= needed;
+	}
+
+	private int getVarint() throws IOException {
+		try {
+			return BinaryFormat.getVarint(buffer);
+		}
+		catch (BufferUnderflowException e) {
+			throw new IOException("The data end in the middle of a number", e);
+		}
+	}
+
+	/**
+	 * @throws UncheckedIOException if the channel cannot be read, or if the next record is truncated or invalid
+	 */
+	@Override
+	public boolean hasNext() {
+		if (next == null && !ended) {
+			try {
+				next = readNext();
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			ended = next == null;
+		}
+		return next != null;
+	}
+
+	/**
+	 * @throws UncheckedIOException if the channel cannot be read, or if the record is truncated or invalid
+	 */
+	@Override
+	public Apartment next() {
+		if (!hasNext())
+			throw new NoSuchElementException();
+		Apartment apartment = next;
+		next = null;
+		count++;
+		return apartment;
+	}
+
+	private Apartment readNext() throws IOException {
+		if (!fill(1))
+			return null;
+		fill(BinaryFormat.MAX_VARINT_SIZE);
+		int length = getVarint();
+		if (length < 0 || !fill(length))
+			throw new IOException("The record of the apartment " + (count + 1) + " is truncated");
+
+		int end = buffer.position() + length;
+		int limit = buffer.limit();
+		buffer.limit(end);
+		try {
+			return BinaryFormat.decode(buffer);
+		}
+		catch (BufferUnderflowException e) {
+			throw new IOException("The record of the apartment " + (count + 1) + " is too short", e);
+		}
+		catch (IllegalArgumentException e) {
+			throw new IOException("The record of the apartment " + (count + 1) + " is not valid", e);
+		}
+		finally {
+			buffer.limit(limit);
+			buffer.position(end);
+		}
+	}
+
+	/**
+	 * @return the number of apartments returned so far
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Closes the channel.
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+}
@@ -0,0 +1,130 @@
+package io.github.oliviercailloux.y2018.apartments.binary;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentView;
+
+/**
+ * This class writes apartments to a channel in the compact binary format described in {@link BinaryFormat}, to be read by {@link ApartmentBinaryReader}.
+ * The apartments are written one after the other through a buffer, so that the memory used does not depend on their number. A writer is not thread-safe.
+ */
+public class ApartmentBinaryWriter implements Closeable, Flushable {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final WritableByteChannel channel;
+	private ByteBuffer buffer;
+	private int count;
+	private boolean closed;
+
+	private final static Logger LOGGER = LoggerFactory.getLogger(ApartmentBinaryWriter.class);
+
+	/**
+	 * Writes the header of the format to the channel, when the writer is flushed.
+	 * @param channel the channel where the apartments will be written, closed when the writer is closed
+	 */
+	public ApartmentBinaryWriter(WritableByteChannel channel) {
+		checkArgument(channel != null, "The channel cannot be null");
+		this.channel = channel;
+		this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		buffer.putInt(BinaryFormat.MAGIC);
+		BinaryFormat.putVarint(buffer, BinaryFormat.VERSION);
+	}
+
+	/**
+	 * Creates a file, replacing it if it exists, and returns a writer to this file.
+	 * @param file the path of the file
+	 * @return a writer to the file
+	 * @throws IOException if the file cannot be created
+	 */
+	public static ApartmentBinaryWriter create(Path file) throws IOException {
+		return new ApartmentBinaryWriter(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+	}
+
+	/**
+	 * Writes the apartments in a file, replacing it if it exists.
+	 * @param apartments the apartments to write, for example a list of {@link io.github.oliviercailloux.y2018.apartments.apartment.Apartment} or the views of an {@link io.github.oliviercailloux.y2018.apartments.apartment.ApartmentStore}
+	 * @param file the path of the file
+	 * @return the number of apartments written
+	 * @throws IOException if the file cannot be written
+	 */
+	public static int write(Iterable<? extends ApartmentView> apartments, Path file) throws IOException {
+		checkArgument(apartments != null, "The apartments cannot be null");
+		try (ApartmentBinaryWriter writer = create(file)) {
+			for (ApartmentView apartment : apartments) {
+				writer.write(apartment);
+			}
+			LOGGER.info("{} apartments have been written to {}", writer.getCount(), file);
+			return writer.getCount();
+		}
+	}
+
+	/**
+	 * Writes an apartment in the buffer, which is written to the channel when it is full.
+	 * @param apartment the apartment to write
+	 * @throws IOException if the channel cannot be written
+	 */
+	public void write(ApartmentView apartment) throws IOException {
+		checkArgument(apartment != null, "The apartment cannot be null");
+		checkState(!closed, "The writer is closed");
+		byte[] record = BinaryFormat.encode(apartment);
+		int recordSize = BinaryFormat.varintSize(record.length) + record.length;
+		if (buffer.remaining() < recordSize) {
+			flush();
+			if (buffer.capacity() < recordSize)
+				buffer = ByteBuffer.allocate(recordSize);
+		}
+		BinaryFormat.putVarint(buffer, record.length);
+		buffer.put(record);
+		count++;
+	}
+
+	/**
+	 * @return the number of apartments written so far
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Writes the buffer to the channel.
+	 */
+	@Override
+	public void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Writes the buffer to the channel and closes the channel.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed)
+			return;
+		closed = true;
+		try {
+			flush();
+		}
+		finally {
+			channel.close();
+		}
+	}
+
+}
@@ -0,0 +1,491 @@
+package io.github.oliviercailloux.y2018.apartments.binary;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentView;
+
+/**
+ * This class keeps the latest state of apartments, each one under a key such as the name of its file, in a directory, so that it survives a crash of the application.
+ * Each modification is appended to a journal as a record checked by a CRC-32, holding the whole new state of the apartment, encoded as in {@link BinaryFormat}, or its removal.
+ * The modifications are appended by a thread of the journal: the calling thread only encodes them and queues them, and is told through the returned future when they are on disk. The thread writes all the modifications queued while it was writing the previous ones at once, and synchronizes the file to the disk once for all of them.
+ * When the journal is larger than a threshold, the thread writes the current state in a snapshot, under a temporary name which replaces the previous snapshot once complete, then empties the journal.
+ * When opened, the state is recovered from the snapshot then from the journal, whose records after the last complete and valid one, written when the application crashed, are discarded.
+ * A journal can be used by several threads. The directory must not be opened by two journals at a time.
+ */
+public class ApartmentJournal implements Closeable {
+
+	/**
+	 * "APTJ" in ASCII.
+	 */
+	static final int MAGIC = 0x4150544A;
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 8;
+
+	static final String JOURNAL = "journal.log";
+	static final String SNAPSHOT = "snapshot.bin";
+	static final String SNAPSHOT_TEMP = "snapshot.tmp";
+
+	/**
+	 * The length of the type and of the content of a record, and its CRC-32.
+	 */
+	private static final int RECORD_HEADER_SIZE = 8;
+	private static final byte PUT = 1;
+	private static final byte REMOVE = 2;
+
+	public static final long DEFAULT_COMPACTION_THRESHOLD = 1 << 20;
+
+	/**
+	 * A modification waiting to be written by the thread of the journal.
+	 */
+	private static class Modification {
+		private final String key;
+		/**
+		 * The encoded apartment, <code>null</code> for a removal.
+		 */
+		private final byte[] apartment;
+		private final byte[] record;
+		private final CompletableFuture<Void> written = new CompletableFuture<>();
+
+		private Modification(String key, byte[] apartment, byte[] record) {
+			this.key = key;
+			this.apartment = apartment;
+			this.record = record;
+		}
+	}
+
+	/**
+	 * Tells the thread of the journal that the journal is closed.
+	 */
+	private static final Modification CLOSE = new Modification(null, null, new byte[0]);
+
+	private final Path directory;
+	private final long compactionThreshold;
+	/**
+	 * The state with all the modifications queued, read and modified under the lock of the journal.
+	 */
+	private final Map<String, byte[]> state;
+	/**
+	 * The state with the modifications written, that is, the state of the snapshot and the journal, used by the thread of the journal only.
+	 */
+	private final Map<String, byte[]> written;
+	private final BlockingQueue<Modification> queue = new LinkedBlockingQueue<>();
+	private final FileChannel journal;
+	/**
+	 * Released when the thread of the journal stops.
+	 */
+	private final CountDownLatch stopped = new CountDownLatch(1);
+	private long journalSize;
+	private volatile long commitCount;
+	private volatile IOException failure;
+	private boolean closed;
+
+	private final static Logger LOGGER = LoggerFactory.getLogger(ApartmentJournal.class);
+
+	private ApartmentJournal(Path directory, long compactionThreshold, Map<String, byte[]> recovered, FileChannel journal, long journalSize, Executor writer) {
+		this.directory = directory;
+		this.compactionThreshold = compactionThreshold;
+		this.state = recovered;
+		this.written = new LinkedHashMap<>(recovered);
+		this.journal = journal;
+		this.journalSize = journalSize;
+		writer.execute(this::writeQueued);
+	}
+
+	/**
+	 * Opens a journal with a compaction threshold of {@value #DEFAULT_COMPACTION_THRESHOLD} bytes.
+	 * @see #open(Path, long)
+	 */
+	public static ApartmentJournal open(Path directory) throws IOException {
+		return open(directory, DEFAULT_COMPACTION_THRESHOLD);
+	}
+
+	/**
+	 * Opens the journal of a directory, creating the directory if it does not exist, and recovers its state.
+	 * @param directory the directory of the snapshot and of the journal
+	 * @param compactionThreshold the size in bytes of the journal above which it is compacted in a snapshot, strictly positive
+	 * @return the journal of the directory
+	 * @throws IOException if the directory cannot be read or written, or if its snapshot or its journal has not been written by this class
+	 */
+	public static ApartmentJournal open(Path directory, long compactionThreshold) throws IOException {
+		return open(directory, compactionThreshold, (runnable) -> {
+			Thread thread = new Thread(runnable, "Journal " + directory);
+			thread.setDaemon(true);
+			thread.start();
+		});
+	}
+
+	/**
+	 * Opens the journal of a directory, whose modifications are written by a task run by an executor instead of a thread of the journal.
+	 * @param writer the executor which runs the task writing the modifications until the journal is closed
+	 * @see #open(Path, long)
+	 */
+	static ApartmentJournal open(Path directory, long compactionThreshold, Executor writer) throws IOException {
+		checkArgument(compactionThreshold > 0, "The compaction threshold must be strictly positive");
+		Files.createDirectories(directory);
+		Files.deleteIfExists(directory.resolve(SNAPSHOT_TEMP));
+
+		Map<String, byte[]> state = new LinkedHashMap<>();
+		Path snapshot = directory.resolve(SNAPSHOT);
+		if (Files.exists(snapshot)) {
+			ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(snapshot));
+			if (replay(bytes, state) != bytes.capacity())
+				throw new IOException("The snapshot " + snapshot + " is corrupted");
+		}
+
+		Path journalFile = directory.resolve(JOURNAL);
+		FileChannel journal = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			long size = journal.size();
+			if (size > Integer.MAX_VALUE)
+				throw new IOException("The journal " + journalFile + " is too large");
+			ByteBuffer bytes = ByteBuffer.allocate((int) size);
+			while (bytes.hasRemaining()) {
+				if (journal.read(bytes, bytes.position()) < 0)
+					throw new IOException("The journal " + journalFile + " has been truncated while being read");
+			}
+			bytes.flip();
+			int valid = replay(bytes, state);
+			if (valid == 0) {
+				ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION);
+				header.flip();
+				journal.truncate(0);
+				while (header.hasRemaining()) {
+					journal.write(header, header.position());
+				}
+				journal.force(true);
+				valid = HEADER_SIZE;
+			}
+			else if (valid < size) {
+				LOGGER.warn("The last {} bytes of the journal {} are incomplete or corrupted, they have been discarded", size - valid, journalFile);
+				journal.truncate(valid);
+				journal.force(true);
+			}
+			journal.position(valid);
+			LOGGER.info("The journal {} has been opened with {} apartments", directory, state.size());
+			return new ApartmentJournal(directory, compactionThreshold, state, journal, valid, writer);
+		}
+		catch (IOException | RuntimeException e) {
+			journal.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Applies the valid records of a snapshot or of a journal to a state.
+	 * @return the position after the last valid record, or 0 if the header is incomplete
+	 * @throws IOException if the data have not been written by this class
+	 */
+	private static int replay(ByteBuffer bytes, Map<String, byte[]> state) throws IOException {
+		if (bytes.remaining() < HEADER_SIZE)
+			return 0;
+		if (bytes.getInt() != MAGIC)
+			throw new IOException("The data are not a journal of apartments");
+		int version = bytes.getInt();
+		if (version != VERSION)
+			throw new IOException("The version " + version + " of the journal is not supported");
+
+		CRC32 crc = new CRC32();
+		while (bytes.remaining() >= RECORD_HEADER_SIZE) {
+			int start = bytes.position();
+			int length = bytes.getInt();
+			int checksum = bytes.getInt();
+			if (length < 1 || length > bytes.remaining())
+				return start;
+			crc.reset();
+			crc.update(bytes.array(), bytes.arrayOffset() + bytes.position(), length);
+			if ((int) crc.getValue() != checksum)
+				return start;
+
+			ByteBuffer record = bytes.slice();
+			record.limit(length);
+			try {
+				byte type = record.get();
+				String key = BinaryFormat.getString(record);
+				if (type == PUT) {
+					byte[] apartment = new byte[record.remaining()];
+					record.get(apartment);
+					BinaryFormat.decode(ByteBuffer.wrap(apartment));
+					state.put(key, apartment);
+				}
+				else if (type == REMOVE) {
+					state.remove(key);
+				}
+				else {
+					return start;
+				}
+			}
+			catch (BufferUnderflowException | IllegalArgumentException e) {
+				return start;
+			}
+			bytes.position(bytes.position() + length);
+		}
+		return bytes.position();
+	}
+
+	private static byte[] record(byte type, String key, byte[] apartment) {
+		byte[] encodedKey = key.getBytes(StandardCharsets.UTF_8);
+		int apartmentLength = apartment == null ? 0 : apartment.length;
+		int length = 1 + BinaryFormat.varintSize(encodedKey.length) + encodedKey.length + apartmentLength;
+		ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + length);
+		buffer.putInt(length);
+		buffer.putInt(0);
+		buffer.put(type);
+		BinaryFormat.putVarint(buffer, encodedKey.length);
+		buffer.put(encodedKey);
+		if (apartment != null)
+			buffer.put(apartment);
+		CRC32 crc = new CRC32();
+		crc.update(buffer.array(), RECORD_HEADER_SIZE, length);
+		buffer.putInt(4, (int) crc.getValue());
+		return buffer.array();
+	}
+
+	/**
+	 * Records the new state of an apartment. The state is copied, so that the apartment may be modified afterwards.
+	 * @param key the key of the apartment, for example the name of its file
+	 * @param apartment the new state of the apartment
+	 * @return a future completed when the state is on disk, or completed exceptionally if it cannot be written
+	 * @throws IllegalStateException if the journal is closed
+	 */
+	public CompletableFuture<Void> put(String key, ApartmentView apartment) {
+		checkArgument(key != null, "The key cannot be null");
+		checkArgument(apartment != null, "The apartment cannot be null");
+		byte[] encoded = BinaryFormat.encode(apartment);
+		Modification modification = new Modification(key, encoded, record(PUT, key, encoded));
+		return queue(modification);
+	}
+
+	/**
+	 * Records the removal of an apartment.
+	 * @param key the key of the apartment
+	 * @return a future completed when the removal is on disk, or completed exceptionally if it cannot be written
+	 * @throws IllegalStateException if the journal is closed
+	 */
+	public CompletableFuture<Void> remove(String key) {
+		checkArgument(key != null, "The key cannot be null");
+		Modification modification = new Modification(key, null, record(REMOVE, key, null));
+		return queue(modification);
+	}
+
+	private synchronized CompletableFuture<Void> queue(Modification modification) {
+		checkState(!closed, "The journal is closed");
+		IOException currentFailure = failure;
+		if (currentFailure != null) {
+			modification.written.completeExceptionally(currentFailure);
+			return modification.written;
+		}
+		if (modification.apartment == null)
+			state.remove(modification.key);
+		else
+			state.put(modification.key, modification.apartment);
+		queue.add(modification);
+		return modification.written;
+	}
+
+	/**
+	 * @param key the key of an apartment
+	 * @return a copy of the latest state recorded for this key, written or not yet, or an empty optional if there is none
+	 */
+	public Optional<Apartment> get(String key) {
+		byte[] encoded;
+		synchronized (this) {
+			encoded = state.get(key);
+		}
+		if (encoded == null)
+			return Optional.empty();
+		try {
+			return Optional.of(BinaryFormat.decode(ByteBuffer.wrap(encoded)));
+		}
+		catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * @return the keys of the apartments, in the order in which they have been first recorded
+	 */
+	public synchronized Set<String> keys() {
+		return Collections.unmodifiableSet(new LinkedHashSet<>(state.keySet()));
+	}
+
+	/**
+	 * @return the number of times the journal has been synchronized to the disk, each time for one or more modifications
+	 */
+	public long getCommitCount() {
+		return commitCount;
+	}
+
+	/**
+	 * Run by the thread of the journal until it is closed.
+	 */
+	private void writeQueued() {
+		List<Modification> batch = new ArrayList<>();
+		boolean closing = false;
+		try {
+			while (!closing) {
+				try {
+					batch.add(queue.take());
+				}
+				catch (InterruptedException e) {
+					LOGGER.error("The thread of the journal {} has been interrupted", directory);
+					failure = new InterruptedIOException("The thread of the journal has been interrupted");
+					closing = true;
+				}
+				queue.drainTo(batch);
+				if (!batch.isEmpty() && batch.get(batch.size() - 1) == CLOSE) {
+					batch.remove(batch.size() - 1);
+					closing = true;
+				}
+				commit(batch);
+				batch.clear();
+			}
+		}
+		finally {
+			stopped.countDown();
+		}
+	}
+
+	private void commit(List<Modification> batch) {
+		if (batch.isEmpty())
+			return;
+		try {
+			IOException currentFailure = failure;
+			if (currentFailure != null)
+				throw currentFailure;
+			int size = 0;
+			for (Modification modification : batch) {
+				size += modification.record.length;
+			}
+			ByteBuffer buffer = ByteBuffer.allocate(size);
+			for (Modification modification : batch) {
+				buffer.put(modification.record);
+			}
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				journal.write(buffer);
+			}
+			journal.force(false);
+			journalSize += size;
+			commitCount++;
+		}
+		catch (IOException e) {
+			LOGGER.error("The journal {} cannot be written: {}", directory, e.getMessage());
+			if (failure == null)
+				failure = e;
+			for (Modification modification : batch) {
+				modification.written.completeExceptionally(e);
+			}
+			return;
+		}
+
+		for (Modification modification : batch) {
+			if (modification.apartment == null)
+				written.remove(modification.key);
+			else
+				written.put(modification.key, modification.apartment);
+			modification.written.complete(null);
+		}
+		LOGGER.debug("{} modifications have been written to the journal {}", batch.size(), directory);
+		if (journalSize > compactionThreshold) {
+			try {
+				compact();
+			}
+			catch (IOException e) {
+				LOGGER.error("The journal {} cannot be compacted: {}", directory, e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Writes the state written in a new snapshot, then empties the journal. If the application crashes before the journal is emptied, it is replayed on the new snapshot when opened, which gives the same state.
+	 */
+	private void compact() throws IOException {
+		Path temp = directory.resolve(SNAPSHOT_TEMP);
+		try (FileChannel snapshot = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+			buffer.putInt(MAGIC).putInt(VERSION);
+			for (Map.Entry<String, byte[]> entry : written.entrySet()) {
+				byte[] record = record(PUT, entry.getKey(), entry.getValue());
+				if (buffer.remaining() < record.length) {
+					write(buffer, snapshot);
+					if (buffer.capacity() < record.length)
+						buffer = ByteBuffer.allocate(record.length);
+				}
+				buffer.put(record);
+			}
+			write(buffer, snapshot);
+			snapshot.force(true);
+		}
+		Files.move(temp, directory.resolve(SNAPSHOT), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		journal.truncate(HEADER_SIZE);
+		journal.position(HEADER_SIZE);
+		journal.force(true);
+		LOGGER.info("The journal {} has been compacted in a snapshot of {} apartments", directory, written.size());
+		journalSize = HEADER_SIZE;
+	}
+
+	private static void write(ByteBuffer buffer, FileChannel channel) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Waits until the modifications queued are written, then closes the journal.
+	 * @throws IOException if the calling thread is interrupted while waiting
+	 */
+	@Override
+	public void close() throws IOException {
+		synchronized (this) {
+			if (closed)
+				return;
+			closed = true;
+			queue.add(CLOSE);
+		}
+		try {
+			stopped.await();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while closing the journal " + directory);
+		}
+		finally {
+			journal.close();
+		}
+		LOGGER.info("The journal {} has been closed", directory);
+	}
+
+}
@@ -0,0 +1,152 @@
+package io.github.oliviercailloux.y2018.apartments.binary;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentView;
+
+/**
+ * The constants of the binary format of the apartments, and the encoding of its records and of its variable-length integers, shared by {@link ApartmentBinaryWriter}, {@link ApartmentBinaryReader} and {@link ApartmentJournal}.
+ * A file starts with the magic number, as four bytes, then the version as a variable-length integer, then comes one record per apartment until the end of the file.
+ * A record is its length in bytes, as a variable-length integer, followed by its fields: a byte of flags for the booleans, the floor area, the floor area of the terrace and the price per night as big-endian doubles, the numbers of bedrooms, of sleepings, of bathrooms and the minimum number of nights as variable-length integers, and the address, the title and the description as their length in bytes followed by their UTF-8 bytes.
+ * A variable-length integer is written seven bits at a time, the lowest first, the highest bit of each byte telling whether another byte follows.
+ * The fields added in future versions will be written at the end of the records, so that the readers of this version, which know the length of each record, skip them. The version changes only if the fields already defined change.
+ */
+final class BinaryFormat {
+
+	/**
+	 * "APTB" in ASCII.
+	 */
+	static final int MAGIC = 0x41505442;
+	static final int VERSION = 1;
+
+	static final int TERRACE_FLAG = 1;
+	static final int WIFI_FLAG = 2;
+	static final int TELE_FLAG = 4;
+
+	/**
+	 * The maximal length of a variable-length integer, in bytes.
+	 */
+	static final int MAX_VARINT_SIZE = 5;
+
+	private BinaryFormat() {
+	}
+
+	/**
+	 * Writes an int as an unsigned variable-length integer, so that a negative int takes {@value #MAX_VARINT_SIZE} bytes.
+	 */
+	static void putVarint(ByteBuffer buffer, int value) {
+		while ((value & ~0x7F) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	static int varintSize(int value) {
+		int size = 1;
+		while ((value & ~0x7F) != 0) {
+			value >>>= 7;
+			size++;
+		}
+		return size;
+	}
+
+	/**
+	 * @throws IOException if the integer is longer than {@value #MAX_VARINT_SIZE} bytes
+	 * @throws BufferUnderflowException if the buffer ends before the integer
+	 */
+	static int getVarint(ByteBuffer buffer) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 7 * MAX_VARINT_SIZE; shift += 7) {
+			byte b = buffer.get();
+			value |= (b & 0x7F) << shift;
+			if (b >= 0)
+				return value;
+		}
+		throw new IOException("A variable-length integer is too long");
+	}
+
+	/**
+	 * @return the fields of the record of the apartment, without its length
+	 * @throws IllegalArgumentException if the apartment is too large to be encoded
+	 */
+	static byte[] encode(ApartmentView apartment) {
+		byte[] address = apartment.getAddress().getBytes(StandardCharsets.UTF_8);
+		byte[] title = apartment.getTitle().getBytes(StandardCharsets.UTF_8);
+		byte[] description = apartment.getDescription().getBytes(StandardCharsets.UTF_8);
+		long length = 1 + 3 * 8L + varintSize(apartment.getNbBedrooms()) + varintSize(apartment.getNbSleeping()) + varintSize(apartment.getNbBathrooms()) + varintSize(apartment.getNbMinNight())
+				+ varintSize(address.length) + address.length + varintSize(title.length) + title.length + varintSize(description.length) + description.length;
+		checkArgument(length <= Integer.MAX_VALUE - 2 * MAX_VARINT_SIZE, "The apartment %s is too large to be encoded", apartment.getTitle());
+
+		ByteBuffer buffer = ByteBuffer.allocate((int) length);
+		buffer.put((byte) ((apartment.getTerrace() ? TERRACE_FLAG : 0) | (apartment.getWifi() ? WIFI_FLAG : 0) | (apartment.getTele() ? TELE_FLAG : 0)));
+		buffer.putDouble(apartment.getFloorArea());
+		buffer.putDouble(apartment.getFloorAreaTerrace());
+		buffer.putDouble(apartment.getPricePerNight());
+		putVarint(buffer, apartment.getNbBedrooms());
+		putVarint(buffer, apartment.getNbSleeping());
+		putVarint(buffer, apartment.getNbBathrooms());
+		putVarint(buffer, apartment.getNbMinNight());
+		putString(buffer, address);
+		putString(buffer, title);
+		putString(buffer, description);
+		return buffer.array();
+	}
+
+	private static void putString(ByteBuffer buffer, byte[] string) {
+		putVarint(buffer, string.length);
+		buffer.put(string);
+	}
+
+	/**
+	 * Reads the fields of a record, the buffer being limited to the record: the bytes which remain at the end are fields of a later version.
+	 * @throws IOException if a variable-length integer is too long
+	 * @throws BufferUnderflowException if the record is too short
+	 * @throws IllegalArgumentException if a field is not valid for an apartment
+	 */
+	static Apartment decode(ByteBuffer buffer) throws IOException {
+		int flags = buffer.get();
+		double floorArea = buffer.getDouble();
+		double floorAreaTerrace = buffer.getDouble();
+		double pricePerNight = buffer.getDouble();
+		int nbBedrooms = getVarint(buffer);
+		int nbSleeping = getVarint(buffer);
+		int nbBathrooms = getVarint(buffer);
+		int nbMinNight = getVarint(buffer);
+		String address = getString(buffer);
+		String title = getString(buffer);
+		String description = getString(buffer);
+
+		Apartment apartment = new Apartment(floorArea, address, title);
+		apartment.setNbBedrooms(nbBedrooms);
+		apartment.setNbSleeping(nbSleeping);
+		apartment.setNbBathrooms(nbBathrooms);
+		apartment.setTerrace((flags & TERRACE_FLAG) != 0);
+		apartment.setFloorAreaTerrace(floorAreaTerrace);
+		apartment.setDescription(description);
+		apartment.setWifi((flags & WIFI_FLAG) != 0);
+		apartment.setPricePerNight(pricePerNight);
+		apartment.setNbMinNight(nbMinNight);
+		apartment.setTele((flags & TELE_FLAG) != 0);
+		return apartment;
+	}
+
+	/**
+	 * @throws BufferUnderflowException if the buffer ends before the string
+	 */
+	static String getString(ByteBuffer buffer) throws IOException {
+		int length = getVarint(buffer);
+		if (length < 0 || length > buffer.remaining())
+			throw new BufferUnderflowException();
+		String string = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+		buffer.position(buffer.position() + length);
+		return string;
+	}
+
+}
@@ -0,0 +1,67 @@
+package io.github.oliviercailloux.y2018.apartments.binary;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.readapartments.ApartmentXMLStreamReader;
+import io.github.oliviercailloux.y2018.apartments.toxmlproperties.XMLProperties;
+
+/**
+ * This class converts apartments between the XML properties format and the binary format of {@link ApartmentBinaryWriter}.
+ * Both conversions stream the apartments one after the other, and a conversion followed by the other gives back the same apartments.
+ */
+public class BinaryXMLConverter {
+
+	private final static Logger LOGGER = LoggerFactory.getLogger(BinaryXMLConverter.class);
+
+	private BinaryXMLConverter() {
+	}
+
+	/**
+	 * Converts an XML file, or all the XML files of a directory, as read by {@link ApartmentXMLStreamReader#stream(Path)}, into a binary file.
+	 * @param xml an XML file, or a directory of XML files
+	 * @param binary the binary file, replaced if it exists
+	 * @return the number of apartments converted
+	 * @throws IOException if a file cannot be read or written, or if an XML file is not valid
+	 */
+	public static int toBinary(Path xml, Path binary) throws IOException {
+		try (Stream<Apartment> apartments = ApartmentXMLStreamReader.stream(xml)) {
+			Iterable<Apartment> iterable = apartments::iterator;
+			int count = ApartmentBinaryWriter.write(iterable, binary);
+			LOGGER.info("{} apartments have been converted from {} to {}", count, xml, binary);
+			return count;
+		}
+		catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Converts a binary file into one XML document, with one {@code properties} element per apartment, as written by {@link XMLProperties#toXML(Iterable, OutputStream)}.
+	 * @param binary a file written by an {@link ApartmentBinaryWriter}
+	 * @param xml the XML file, replaced if it exists
+	 * @return the number of apartments converted
+	 * @throws IOException if a file cannot be read or written, or if the binary file is not valid
+	 */
+	public static int toXML(Path binary, Path xml) throws IOException {
+		try (ApartmentBinaryReader reader = ApartmentBinaryReader.open(binary); OutputStream output = new BufferedOutputStream(Files.newOutputStream(xml))) {
+			Iterable<Apartment> iterable = () -> reader;
+			int count = new XMLProperties().toXML(iterable, output);
+			LOGGER.info("{} apartments have been converted from {} to {}", count, binary, xml);
+			return count;
+		}
+		catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+}
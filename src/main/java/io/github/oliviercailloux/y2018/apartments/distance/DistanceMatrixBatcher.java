@@ -0,0 +1,171 @@
+package io.github.oliviercailloux.y2018.apartments.distance;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.maps.errors.ApiException;
+import com.google.maps.model.TravelMode;
+
+/**
+ * This class computes the travel times from N origins to M destinations with as few requests as possible to a {@link TravelTimeMatrixProvider}.
+ * The N×M matrix is split into tiles as large as a request allows, and the requests of the tiles are sent concurrently, without exceeding a given rate.
+ */
+public class DistanceMatrixBatcher {
+
+	/**
+	 * The maximum number of origins in a request to the Distance Matrix service of Google Maps.
+	 */
+	public static final int MAX_ORIGINS = 25;
+
+	/**
+	 * The maximum number of destinations in a request to the Distance Matrix service of Google Maps.
+	 */
+	public static final int MAX_DESTINATIONS = 25;
+
+	/**
+	 * The maximum number of elements (origins × destinations) in a request to the Distance Matrix service of Google Maps.
+	 */
+	public static final int MAX_ELEMENTS = 100;
+
+	private final TravelTimeMatrixProvider provider;
+	private final ExecutorService executor;
+	private final RateLimiter rateLimiter;
+	private final int maxOrigins;
+	private final int maxDestinations;
+	private final int maxElements;
+
+	private final static Logger LOGGER = LoggerFactory.getLogger(DistanceMatrixBatcher.class);
+
+	/**
+	 * Creates a batcher with the limits of the Distance Matrix service of Google Maps.
+	 * @param provider the provider which computes each tile
+	 * @param executor the executor which sends the requests, its number of threads bounds the number of concurrent requests
+	 * @param requestsPerSecond the maximum number of requests sent per second, strictly positive
+	 */
+	public DistanceMatrixBatcher(TravelTimeMatrixProvider provider, ExecutorService executor, double requestsPerSecond) {
+		this(provider, executor, requestsPerSecond, MAX_ORIGINS, MAX_DESTINATIONS, MAX_ELEMENTS);
+	}
+
+	/**
+	 * @param provider the provider which computes each tile
+	 * @param executor the executor which sends the requests, its number of threads bounds the number of concurrent requests
+	 * @param requestsPerSecond the maximum number of requests sent per second, strictly positive
+	 * @param maxOrigins the maximum number of origins in a request, strictly positive
+	 * @param maxDestinations the maximum number of destinations in a request, strictly positive
+	 * @param maxElements the maximum number of elements (origins × destinations) in a request, strictly positive
+	 */
+	public DistanceMatrixBatcher(TravelTimeMatrixProvider provider, ExecutorService executor, double requestsPerSecond, int maxOrigins, int maxDestinations, int maxElements) {
+		checkArgument(provider != null && executor != null, "The provider and the executor cannot be null");
+		checkArgument(requestsPerSecond > 0, "The rate of requests must be strictly positive");
+		checkArgument(maxOrigins > 0 && maxDestinations > 0 && maxElements > 0, "The limits of a request must be strictly positive");
+		this.provider = provider;
+		this.executor = executor;
+		this.rateLimiter = RateLimiter.create(requestsPerSecond);
+		this.maxOrigins = maxOrigins;
+		this.maxDestinations = maxDestinations;
+		this.maxElements = maxElements;
+	}
+
+	/**
+	 * Computes the travel time from each origin to each destination.
+	 * @param origins the start points of the paths
+	 * @param destinations the end points of the paths
+	 * @param mode the means of transport
+	 * @return a matrix with one row per origin and one column per destination, containing the duration of each path in seconds, or {@link Double#NaN} when there is no path
+	 * @throws ApiException if the service computing the durations returns an error for a tile
+	 * @throws InterruptedException if the thread is interrupted while waiting for the durations
+	 * @throws IOException if the service computing the durations cannot be reached
+	 */
+	public double[][] getTravelTimes(List<String> origins, List<String> destinations, TravelMode mode) throws ApiException, InterruptedException, IOException {
+		double[][] travelTimes = new double[origins.size()][destinations.size()];
+		if (origins.isEmpty() || destinations.isEmpty())
+			return travelTimes;
+
+		int[] tile = getTileSize(origins.size(), destinations.size());
+		int tileOrigins = tile[0];
+		int tileDestinations = tile[1];
+
+		List<Future<?>> requests = new ArrayList<>();
+		for (int row = 0; row < origins.size(); row += tileOrigins) {
+			for (int column = 0; column < destinations.size(); column += tileDestinations) {
+				int firstRow = row;
+				int firstColumn = column;
+				List<String> tileOriginList = origins.subList(row, Math.min(row + tileOrigins, origins.size()));
+				List<String> tileDestinationList = destinations.subList(column, Math.min(column + tileDestinations, destinations.size()));
+				requests.add(executor.submit(() -> {
+					rateLimiter.acquire();
+					double[][] result = provider.getTravelTimes(tileOriginList, tileDestinationList, mode);
+					for (int i = 0; i < result.length; i++) {
+						System.arraycopy(result[i], 0, travelTimes[firstRow + i], firstColumn, result[i].length);
+					}
+					return null;
+				}));
+			}
+		}
+		LOGGER.info("{} requests of at most {}×{} elements have been sent for {} origins and {} destinations", requests.size(), tileOrigins, tileDestinations, origins.size(), destinations.size());
+
+		try {
+			for (Future<?> request : requests) {
+				request.get();
+			}
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof ApiException)
+				throw (ApiException) cause;
+			if (cause instanceof IOException)
+				throw (IOException) cause;
+			if (cause instanceof InterruptedException)
+				throw (InterruptedException) cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			throw new IllegalStateException(cause);
+		}
+		finally {
+			for (Future<?> request : requests) {
+				request.cancel(true);
+			}
+		}
+		return travelTimes;
+	}
+
+	/**
+	 * Chooses the number of origins and destinations of the tiles so that the number of requests is minimal.
+	 * Every number of origins allowed is tried, each with the largest number of destinations allowed with it; when several shapes need as many requests, the one with the fewest origins is kept.
+	 * @param nbOrigins the total number of origins, strictly positive
+	 * @param nbDestinations the total number of destinations, strictly positive
+	 * @return the number of origins and the number of destinations of a tile
+	 */
+	int[] getTileSize(int nbOrigins, int nbDestinations) {
+		int[] best = null;
+		long bestNbTiles = Long.MAX_VALUE;
+		for (int tileOrigins = 1; tileOrigins <= Math.min(maxOrigins, nbOrigins); tileOrigins++) {
+			int tileDestinations = Math.min(nbDestinations, Math.min(maxDestinations, maxElements / tileOrigins));
+			if (tileDestinations == 0)
+				break;
+			long nbTiles = getNbTiles(nbOrigins, nbDestinations, tileOrigins, tileDestinations);
+			if (nbTiles < bestNbTiles) {
+				best = new int[] { tileOrigins, tileDestinations };
+				bestNbTiles = nbTiles;
+			}
+		}
+		return best;
+	}
+
+	private static long getNbTiles(int nbOrigins, int nbDestinations, int tileOrigins, int tileDestinations) {
+		long rows = (nbOrigins + tileOrigins - 1) / tileOrigins;
+		long columns = (nbDestinations + tileDestinations - 1) / tileDestinations;
+		return rows * columns;
+	}
+
+}
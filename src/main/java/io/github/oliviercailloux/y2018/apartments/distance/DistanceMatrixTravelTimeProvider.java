@@ -0,0 +1,86 @@
+package io.github.oliviercailloux.y2018.apartments.distance;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.maps.DistanceMatrixApi;
+import com.google.maps.DistanceMatrixApiRequest;
+import com.google.maps.GeoApiContext;
+import com.google.maps.errors.ApiException;
+import com.google.maps.model.DistanceMatrix;
+import com.google.maps.model.DistanceMatrixElement;
+import com.google.maps.model.DistanceMatrixElementStatus;
+import com.google.maps.model.TransitMode;
+import com.google.maps.model.TravelMode;
+
+import io.github.oliviercailloux.y2018.apartments.utils.GeoApiClient;
+
+/**
+ * A {@link TravelTimeProvider} and {@link TravelTimeMatrixProvider} which asks the Distance Matrix service of Google Maps. The transit mode is restricted to the subway, as in {@link DistanceSubway}.
+ * A request to the service accepts at most 25 origins, 25 destinations and 100 elements: larger matrices must be split, for example by a {@link DistanceMatrixBatcher}.
+ */
+public class DistanceMatrixTravelTimeProvider implements TravelTimeProvider, TravelTimeMatrixProvider {
+
+	private final GeoApiClient client;
+
+	private final static Logger LOGGER = LoggerFactory.getLogger(DistanceMatrixTravelTimeProvider.class);
+
+	/**
+	 * Creates a provider using the {@link GeoApiClient} shared by the users of the same API key.
+	 * @param apiKey String which corresponds to the API Key
+	 */
+	public DistanceMatrixTravelTimeProvider(String apiKey) {
+		try {
+			this.client = GeoApiClient.shared(apiKey);
+		}
+		catch (IllegalStateException e) {
+			LOGGER.error("The api key is not valid"+e.getMessage());
+			throw new IllegalStateException("ERROR : The api key is not valid, please be sure you have a valid key" + e.getMessage());
+		}
+	}
+
+	/**
+	 * @param client the client which sends the requests, not closed by this provider
+	 */
+	public DistanceMatrixTravelTimeProvider(GeoApiClient client) {
+		this.client = checkNotNull(client);
+	}
+
+	@Override
+	public double getTravelTime(String origin, String destination, TravelMode mode) throws ApiException, InterruptedException, IOException {
+		DistanceMatrix result = client.execute((context) -> newRequest(context, mode).origins(origin).destinations(destination));
+		return getDuration(result.rows[0].elements[0]);
+	}
+
+	@Override
+	public double[][] getTravelTimes(List<String> origins, List<String> destinations, TravelMode mode) throws ApiException, InterruptedException, IOException {
+		DistanceMatrix result = client.execute((context) -> newRequest(context, mode).origins(origins.toArray(new String[0])).destinations(destinations.toArray(new String[0])));
+		double[][] travelTimes = new double[origins.size()][destinations.size()];
+		for (int i = 0; i < travelTimes.length; i++) {
+			for (int j = 0; j < travelTimes[i].length; j++) {
+				travelTimes[i][j] = getDuration(result.rows[i].elements[j]);
+			}
+		}
+		return travelTimes;
+	}
+
+	/**
+	 * @return the duration of the path in seconds, or {@link Double#NaN} if the service found no path, for example because a place is not found
+	 */
+	private static double getDuration(DistanceMatrixElement element) {
+		return element.status == DistanceMatrixElementStatus.OK ? element.duration.inSeconds : Double.NaN;
+	}
+
+	private static DistanceMatrixApiRequest newRequest(GeoApiContext context, TravelMode mode) {
+		DistanceMatrixApiRequest request = DistanceMatrixApi.newRequest(context).mode(mode).language("fr-FR");
+		if (mode == TravelMode.TRANSIT)
+			request.transitModes(TransitMode.SUBWAY);
+		return request;
+	}
+
+}
@@ -15,6 +15,7 @@ import com.google.maps.model.TransitMode;
 import com.google.maps.model.TravelMode;
 
 
+import io.github.oliviercailloux.y2018.apartments.utils.GeoApiClient;
 import io.github.oliviercailloux.y2018.apartments.valuefunction.DistanceMode;
 
 /**
@@ -22,13 +23,15 @@ import io.github.oliviercailloux.y2018.apartments.valuefunction.DistanceMode;
  * points using the subway transport. This class uses Google Maps API.
  * Inspiration from
  * https://www.programcreek.com/java-api-examples/index.php?api=com.google.maps.model.DistanceMatrix
+ * The requests go through the {@link GeoApiClient} shared by the users of the same API key.
  *
  */
 public class DistanceSubway {
 
 	private String startPoint;
 	private String endPoint;
-	private GeoApiContext dist;
+	private GeoApiClient client;
+	private TravelTimeEstimator estimator;
 	private LatLng startCoordinate;
 	private LatLng endCoordinate;
 
@@ -57,7 +60,7 @@ public class DistanceSubway {
 		this.startPoint = startPoint;
 
 		try {
-			this.dist = new GeoApiContext.Builder().apiKey(apiKey).build();
+			this.client = GeoApiClient.shared(apiKey);
 		}
 		catch (IllegalStateException e) {
 			
@@ -78,7 +81,7 @@ public class DistanceSubway {
 		this.startCoordinate = startCoordinate;
 		this.endCoordinate = endCoordinate;
 		try {
-			this.dist = new GeoApiContext.Builder().apiKey(apiKey).build();
+			this.client = GeoApiClient.shared(apiKey);
 		}
 		catch (IllegalStateException e) {
 			LOGGER.error("The api key is not valid"+e.getMessage());
@@ -97,25 +100,28 @@ public class DistanceSubway {
 	 * properties distance and duration, and both have the properties Text (human reading) and value (double).
 	 * @param distanceMode
 	 *            is a enum type, allow the user to choose between address mode (by
-	 *            the name) or by coordinate mode.
+	 *            the name) or by coordinate mode. In estimation mode, the duration is estimated locally
+	 *            from the coordinates by a {@link TravelTimeEstimator} with its default speed models, without any request.
 	 * @return distance in hours between the two points given in the constructor.
 	 * @throws Exception 
 	 */
 	public double calculateDistanceAddress(DistanceMode distancemode) throws Exception{
 
-		DistanceMatrixApiRequest request = DistanceMatrixApi.newRequest(dist);
-
 		DistanceMatrix result = null;
 
 		switch (distancemode) {
 		case ADDRESS:
-			result = request.origins(startPoint).destinations(endPoint).mode(TravelMode.TRANSIT)
-			.transitModes(TransitMode.SUBWAY).language("fr-FR").await();
+			result = client.execute((context) -> newRequest(context).origins(startPoint).destinations(endPoint));
 			break;
 		case COORDINATE:
-			result = request.origins(startCoordinate).destinations(endCoordinate).mode(TravelMode.TRANSIT)
-			.transitModes(TransitMode.SUBWAY).language("fr-FR").await();
+			result = client.execute((context) -> newRequest(context).origins(startCoordinate).destinations(endCoordinate));
 			break;
+		case ESTIMATION:
+			if (startCoordinate == null || endCoordinate == null)
+				throw new IllegalStateException("The estimation mode needs the coordinates of the points.");
+			if (estimator == null)
+				estimator = new TravelTimeEstimator();
+			return estimator.getTravelTime(startCoordinate, endCoordinate, TravelMode.TRANSIT);
 		default:
 			throw new Exception("The distance mode specified is not correct.");
 		}
@@ -125,4 +131,8 @@ public class DistanceSubway {
 
 	}
 
+	private static DistanceMatrixApiRequest newRequest(GeoApiContext context) {
+		return DistanceMatrixApi.newRequest(context).mode(TravelMode.TRANSIT).transitModes(TransitMode.SUBWAY).language("fr-FR");
+	}
+
 }
@@ -0,0 +1,202 @@
+package io.github.oliviercailloux.y2018.apartments.distance;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalCause;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.maps.errors.ApiException;
+import com.google.maps.model.TravelMode;
+
+import io.github.oliviercailloux.y2018.apartments.utils.PersistentCacheFile;
+
+/**
+ * A {@link TravelTimeProvider} which remembers the travel times computed by another provider, so that asking again for the same origin, destination and mode costs a hash lookup instead of a network round trip.
+ * The travel times are kept for a limited time and the least recently used ones are evicted from memory when there are too many of them. They are also written to a local file, which is consulted before the other provider when a travel time is not in memory, and from which the most recent ones are read again when a new cache is created on the same file.
+ */
+public class TravelTimeCache implements TravelTimeProvider, Closeable {
+
+	private final TravelTimeProvider delegate;
+	private final Cache<List<String>, CachedTravelTime> cache;
+	private final PersistentCacheFile file;
+	private final long timeToLiveMillis;
+	private final Clock clock;
+
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+	private final LongAdder loadSuccessCount = new LongAdder();
+	private final LongAdder loadExceptionCount = new LongAdder();
+	private final LongAdder totalLoadTime = new LongAdder();
+	private final LongAdder evictionCount = new LongAdder();
+
+	private final static Logger LOGGER = LoggerFactory.getLogger(TravelTimeCache.class);
+
+	private static class CachedTravelTime {
+		private final double seconds;
+		private final long expirationMillis;
+
+		private CachedTravelTime(double seconds, long expirationMillis) {
+			this.seconds = seconds;
+			this.expirationMillis = expirationMillis;
+		}
+	}
+
+	/**
+	 * Creates a cache in front of a provider and reads the most recent travel times stored in the file which have not expired, up to the maximum size.
+	 * @param delegate the provider which computes the travel times which are not in the cache
+	 * @param file the path of the file where the travel times are stored, created if it does not exist
+	 * @param timeToLive the duration during which a travel time is kept, strictly positive
+	 * @param unit the unit of the duration
+	 * @param maximumSize the maximum number of travel times kept in memory, strictly positive
+	 * @throws IOException if the file cannot be read
+	 */
+	public TravelTimeCache(TravelTimeProvider delegate, Path file, long timeToLive, TimeUnit unit, long maximumSize) throws IOException {
+		this(delegate, file, timeToLive, unit, maximumSize, Clock.systemUTC());
+	}
+
+	TravelTimeCache(TravelTimeProvider delegate, Path file, long timeToLive, TimeUnit unit, long maximumSize, Clock clock) throws IOException {
+		checkArgument(delegate != null, "The travel time provider cannot be null");
+		checkArgument(timeToLive > 0, "The time to live must be strictly positive");
+		checkArgument(maximumSize > 0, "The maximum size must be strictly positive");
+		this.delegate = delegate;
+		this.timeToLiveMillis = unit.toMillis(timeToLive);
+		this.clock = clock;
+		this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).removalListener((notification) -> {
+			if (notification.getCause() == RemovalCause.SIZE)
+				evictionCount.increment();
+		}).build();
+		this.file = new PersistentCacheFile(file, clock.millis());
+		List<List<String>> keys = this.file.getKeys();
+		for (List<String> key : keys.subList((int) Math.max(0, keys.size() - maximumSize), keys.size())) {
+			CachedTravelTime stored = read(key);
+			if (stored != null)
+				cache.put(key, stored);
+		}
+		evictionCount.reset();
+		LOGGER.info("{} travel times have been read from {}", cache.size(), file);
+	}
+
+	@Override
+	public double getTravelTime(String origin, String destination, TravelMode mode) throws ApiException, InterruptedException, IOException {
+		List<String> key = ImmutableList.of(mode.name(), origin, destination);
+		CachedTravelTime cached = cache.getIfPresent(key);
+		if (cached != null) {
+			if (cached.expirationMillis > clock.millis()) {
+				hitCount.increment();
+				return cached.seconds;
+			}
+			cache.invalidate(key);
+			evictionCount.increment();
+		}
+		CachedTravelTime stored = read(key);
+		if (stored != null) {
+			cache.put(key, stored);
+			hitCount.increment();
+			return stored.seconds;
+		}
+		missCount.increment();
+		try {
+			return cache.get(key, () -> load(origin, destination, mode, key)).seconds;
+		}
+		catch (ExecutionException | UncheckedExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof ApiException)
+				throw (ApiException) cause;
+			if (cause instanceof InterruptedException)
+				throw (InterruptedException) cause;
+			if (cause instanceof IOException)
+				throw (IOException) cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	/**
+	 * @return the travel time stored in the file for the key, or <code>null</code> if there is none, it has expired or it cannot be read
+	 */
+	private CachedTravelTime read(List<String> key) {
+		PersistentCacheFile.Entry stored;
+		try {
+			stored = file.get(key, clock.millis());
+		}
+		catch (IOException e) {
+			LOGGER.error("The travel time stored for {} could not be read: {}", key, e.getMessage());
+			return null;
+		}
+		if (stored == null)
+			return null;
+		try {
+			return new CachedTravelTime(Double.parseDouble(stored.getValue()), stored.getExpirationMillis());
+		}
+		catch (NumberFormatException e) {
+			LOGGER.error("The travel time {} stored for {} is not valid, it is ignored", stored.getValue(), key);
+			return null;
+		}
+	}
+
+	private CachedTravelTime load(String origin, String destination, TravelMode mode, List<String> key) throws ApiException, InterruptedException, IOException {
+		long start = System.nanoTime();
+		double seconds;
+		try {
+			seconds = delegate.getTravelTime(origin, destination, mode);
+		}
+		catch (ApiException | InterruptedException | IOException | RuntimeException e) {
+			loadExceptionCount.increment();
+			throw e;
+		}
+		finally {
+			totalLoadTime.add(System.nanoTime() - start);
+		}
+		loadSuccessCount.increment();
+		CachedTravelTime travelTime = new CachedTravelTime(seconds, clock.millis() + timeToLiveMillis);
+		try {
+			file.append(key, new PersistentCacheFile.Entry(Double.toString(seconds), travelTime.expirationMillis));
+		}
+		catch (IOException e) {
+			LOGGER.error("The travel time from {} to {} could not be stored: {}", origin, destination, e.getMessage());
+		}
+		return travelTime;
+	}
+
+	/**
+	 * Returns the counters of the cache since its creation: the number of hits, misses, travel times computed by the delegate provider and evictions.
+	 * A travel time read from the file counts as a hit.
+	 * The evictions include the travel times removed because they expired.
+	 * @return a snapshot of the statistics of the cache
+	 */
+	public CacheStats stats() {
+		return new CacheStats(hitCount.sum(), missCount.sum(), loadSuccessCount.sum(), loadExceptionCount.sum(), totalLoadTime.sum(), evictionCount.sum());
+	}
+
+	/**
+	 * @return the number of travel times currently kept in memory
+	 */
+	public long size() {
+		return cache.size();
+	}
+
+	/**
+	 * Closes the file where the travel times are stored. The cache must not be used afterwards.
+	 */
+	@Override
+	public void close() throws IOException {
+		file.close();
+	}
+
+}
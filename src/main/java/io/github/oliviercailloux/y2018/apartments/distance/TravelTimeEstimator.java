@@ -0,0 +1,153 @@
+package io.github.oliviercailloux.y2018.apartments.distance;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.google.maps.model.LatLng;
+import com.google.maps.model.TravelMode;
+
+/**
+ * A {@link TravelTimeProvider} which estimates travel times locally, without any request, from the coordinates of the places.
+ * The duration of a path is a fixed time (for example to reach a station and wait) plus the straight-line (haversine) distance, lengthened by a detour factor, divided by a speed, these parameters depending on the means of transport.
+ * For the transit mode, the estimation can be refined by a {@link TravelTimeGrid} of precomputed travel times, the time to walk from a place to the center of its cell being added.
+ * <p>
+ * An estimation costs a few arithmetic operations, so that thousands of apartments can be ranked offline, and only the best ones asked to a remote service.
+ * Only coordinates can be estimated: the places given as strings must have the format <code>latitude,longitude</code>.
+ * </p>
+ */
+public class TravelTimeEstimator implements TravelTimeProvider {
+
+	/**
+	 * The mean radius of the Earth in meters.
+	 */
+	public static final double EARTH_RADIUS = 6371008.8;
+
+	/**
+	 * The parameters of the estimation for a means of transport.
+	 */
+	public static class SpeedModel {
+		private final double fixedSeconds;
+		private final double metersPerSecond;
+		private final double detourFactor;
+
+		/**
+		 * @param fixedSeconds the time added to every path in seconds, positive
+		 * @param metersPerSecond the mean speed along the path, strictly positive
+		 * @param detourFactor the ratio between the length of the path and the straight-line distance, at least 1
+		 */
+		public SpeedModel(double fixedSeconds, double metersPerSecond, double detourFactor) {
+			checkArgument(fixedSeconds >= 0, "The fixed time must be positive");
+			checkArgument(metersPerSecond > 0, "The speed must be strictly positive");
+			checkArgument(detourFactor >= 1, "The detour factor must be at least 1");
+			this.fixedSeconds = fixedSeconds;
+			this.metersPerSecond = metersPerSecond;
+			this.detourFactor = detourFactor;
+		}
+
+		/**
+		 * @param meters a straight-line distance in meters
+		 * @return the estimated duration in seconds to travel this distance
+		 */
+		public double getTravelTime(double meters) {
+			return fixedSeconds + meters * detourFactor / metersPerSecond;
+		}
+	}
+
+	private final Map<TravelMode, SpeedModel> speedModels;
+	private final TravelTimeGrid grid;
+
+	/**
+	 * Creates an estimator with default speed models, meant for a dense city: 5 km/h walking, 15 km/h cycling, 25 km/h driving after 2 minutes of parking and 25 km/h by transit after 5 minutes of access and waiting.
+	 */
+	public TravelTimeEstimator() {
+		this(getDefaultSpeedModels(), null);
+	}
+
+	/**
+	 * @param speedModels the speed model of each means of transport, the modes absent from the map cannot be estimated
+	 * @param grid the precomputed transit times, or <code>null</code> to use only the speed models
+	 */
+	public TravelTimeEstimator(Map<TravelMode, SpeedModel> speedModels, TravelTimeGrid grid) {
+		checkArgument(speedModels != null, "The speed models cannot be null");
+		checkArgument(grid == null || speedModels.containsKey(TravelMode.WALKING), "A grid needs a walking speed model");
+		this.speedModels = new EnumMap<>(speedModels);
+		this.grid = grid;
+	}
+
+	/**
+	 * @return a new modifiable map containing the default speed models
+	 */
+	public static Map<TravelMode, SpeedModel> getDefaultSpeedModels() {
+		Map<TravelMode, SpeedModel> models = new EnumMap<>(TravelMode.class);
+		models.put(TravelMode.WALKING, new SpeedModel(0, 5 / 3.6, 1.3));
+		models.put(TravelMode.BICYCLING, new SpeedModel(0, 15 / 3.6, 1.3));
+		models.put(TravelMode.DRIVING, new SpeedModel(120, 25 / 3.6, 1.4));
+		models.put(TravelMode.TRANSIT, new SpeedModel(300, 25 / 3.6, 1.3));
+		return models;
+	}
+
+	/**
+	 * @return the great-circle distance in meters between the two points, whose coordinates are in degrees
+	 */
+	public static double haversine(double latitude1, double longitude1, double latitude2, double longitude2) {
+		double phi1 = Math.toRadians(latitude1);
+		double phi2 = Math.toRadians(latitude2);
+		double sinHalfDeltaPhi = Math.sin((phi2 - phi1) / 2);
+		double sinHalfDeltaLambda = Math.sin(Math.toRadians(longitude2 - longitude1) / 2);
+		double a = sinHalfDeltaPhi * sinHalfDeltaPhi + Math.cos(phi1) * Math.cos(phi2) * sinHalfDeltaLambda * sinHalfDeltaLambda;
+		return 2 * EARTH_RADIUS * Math.asin(Math.min(1, Math.sqrt(a)));
+	}
+
+	/**
+	 * Estimates the duration of a path between two points given by their coordinates in degrees.
+	 * @param mode the means of transport, which must have a speed model
+	 * @return the estimated duration in seconds
+	 */
+	public double estimate(double originLatitude, double originLongitude, double destinationLatitude, double destinationLongitude, TravelMode mode) {
+		SpeedModel model = speedModels.get(mode);
+		checkArgument(model != null, "The travel mode %s cannot be estimated", mode);
+		if (grid != null && mode == TravelMode.TRANSIT) {
+			int origin = grid.getCell(originLatitude, originLongitude);
+			int destination = grid.getCell(destinationLatitude, destinationLongitude);
+			if (origin >= 0 && destination >= 0) {
+				double between = grid.getTravelTime(origin, destination);
+				if (!Double.isNaN(between)) {
+					SpeedModel walking = speedModels.get(TravelMode.WALKING);
+					double access = walking.getTravelTime(haversine(originLatitude, originLongitude, grid.getCenterLatitude(origin), grid.getCenterLongitude(origin)));
+					double egress = walking.getTravelTime(haversine(grid.getCenterLatitude(destination), grid.getCenterLongitude(destination), destinationLatitude, destinationLongitude));
+					return Math.min(access + between + egress, model.getTravelTime(haversine(originLatitude, originLongitude, destinationLatitude, destinationLongitude)));
+				}
+			}
+		}
+		return model.getTravelTime(haversine(originLatitude, originLongitude, destinationLatitude, destinationLongitude));
+	}
+
+	@Override
+	public double getTravelTime(LatLng origin, LatLng destination, TravelMode mode) {
+		return estimate(origin.lat, origin.lng, destination.lat, destination.lng, mode);
+	}
+
+	/**
+	 * @param origin the coordinates of the start point of the path, in the format <code>latitude,longitude</code>
+	 * @param destination the coordinates of the end point of the path, in the format <code>latitude,longitude</code>
+	 * @throws IllegalArgumentException if a place is not given by its coordinates
+	 */
+	@Override
+	public double getTravelTime(String origin, String destination, TravelMode mode) {
+		return getTravelTime(parse(origin), parse(destination), mode);
+	}
+
+	private static LatLng parse(String place) {
+		String[] coordinates = place.split(",");
+		checkArgument(coordinates.length == 2, "The place %s should be given by its coordinates", place);
+		try {
+			return new LatLng(Double.parseDouble(coordinates[0].trim()), Double.parseDouble(coordinates[1].trim()));
+		}
+		catch (NumberFormatException e) {
+			throw new IllegalArgumentException("The place " + place + " should be given by its coordinates", e);
+		}
+	}
+
+}
@@ -0,0 +1,203 @@
+package io.github.oliviercailloux.y2018.apartments.distance;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A grid of precomputed travel times. The area covered is split into cells of the same size in degrees, and the grid gives the travel time from the center of a cell to the center of another cell, when it is known.
+ * The grid keeps only the travel times known, so that its memory depends on their number and not on the number of pairs of cells.
+ * <p>
+ * The grid is read from a text file. The first line contains, separated by spaces, the latitude and the longitude of the south-west corner of the grid, the size of a cell in degrees, the number of rows and the number of columns. Each following line contains the index of the origin cell, the index of the destination cell and the travel time in seconds, the index of the cell at a given row and column being <code>row * columns + column</code>. Empty lines and lines starting with <code>#</code> are ignored.
+ * </p>
+ */
+public class TravelTimeGrid {
+
+	private final double minLatitude;
+	private final double minLongitude;
+	private final double cellSize;
+	private final int rows;
+	private final int columns;
+	/**
+	 * The known travel times, in an open-addressing hash table with linear probing: the travel time from the cell o to the cell d has the key <code>o * rows * columns + d</code>, an empty slot has the key -1.
+	 */
+	private long[] keys;
+	private double[] travelTimes;
+	private int size;
+
+	private final static Logger LOGGER = LoggerFactory.getLogger(TravelTimeGrid.class);
+
+	/**
+	 * Creates a grid where no travel time is known.
+	 * @param minLatitude the latitude of the south-west corner of the grid
+	 * @param minLongitude the longitude of the south-west corner of the grid
+	 * @param cellSize the size of a cell in degrees, strictly positive
+	 * @param rows the number of rows, strictly positive
+	 * @param columns the number of columns, strictly positive
+	 */
+	public TravelTimeGrid(double minLatitude, double minLongitude, double cellSize, int rows, int columns) {
+		checkArgument(cellSize > 0, "The size of a cell must be strictly positive");
+		checkArgument(rows > 0 && columns > 0, "The numbers of rows and columns must be strictly positive");
+		checkArgument((long) rows * columns <= Integer.MAX_VALUE, "The grid has too many cells");
+		this.minLatitude = minLatitude;
+		this.minLongitude = minLongitude;
+		this.cellSize = cellSize;
+		this.rows = rows;
+		this.columns = columns;
+		this.keys = new long[16];
+		Arrays.fill(keys, -1);
+		this.travelTimes = new double[16];
+	}
+
+	/**
+	 * Reads a grid from a file in the format described in the documentation of this class.
+	 * @param file the path of the file
+	 * @return the grid read
+	 * @throws IOException if the file cannot be read
+	 * @throws IllegalArgumentException if the file is not valid
+	 */
+	public static TravelTimeGrid load(Path file) throws IOException {
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			TravelTimeGrid grid = null;
+			int lineNumber = 0;
+			int nbTravelTimes = 0;
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#"))
+					continue;
+				String[] fields = line.split("\\s+");
+				try {
+					if (grid == null) {
+						checkArgument(fields.length == 5, "The line %s of %s should describe the grid", lineNumber, file);
+						grid = new TravelTimeGrid(Double.parseDouble(fields[0]), Double.parseDouble(fields[1]), Double.parseDouble(fields[2]), Integer.parseInt(fields[3]), Integer.parseInt(fields[4]));
+					}
+					else {
+						checkArgument(fields.length == 3, "The line %s of %s should contain two cells and a travel time", lineNumber, file);
+						grid.setTravelTime(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]), Double.parseDouble(fields[2]));
+						nbTravelTimes++;
+					}
+				}
+				catch (NumberFormatException e) {
+					throw new IllegalArgumentException("The line " + lineNumber + " of " + file + " contains an invalid number", e);
+				}
+			}
+			checkArgument(grid != null, "The file %s does not describe a grid", file);
+			LOGGER.info("{} travel times have been read from {}", nbTravelTimes, file);
+			return grid;
+		}
+	}
+
+	/**
+	 * @param origin the index of the origin cell
+	 * @param destination the index of the destination cell
+	 * @param seconds the travel time from the center of the origin cell to the center of the destination cell, positive
+	 */
+	public void setTravelTime(int origin, int destination, double seconds) {
+		int nbCells = rows * columns;
+		checkArgument(origin >= 0 && origin < nbCells && destination >= 0 && destination < nbCells, "The cells %s and %s should be in the grid", origin, destination);
+		checkArgument(seconds >= 0, "The travel time should be positive");
+		long key = (long) origin * nbCells + destination;
+		int slot = slot(keys, key);
+		if (keys[slot] == -1) {
+			if (2 * (size + 1) > keys.length) {
+				grow();
+				slot = slot(keys, key);
+			}
+			keys[slot] = key;
+			size++;
+		}
+		travelTimes[slot] = seconds;
+	}
+
+	/**
+	 * @return the slot of the key, or the empty slot where it would be put
+	 */
+	private static int slot(long[] keys, long key) {
+		int mask = keys.length - 1;
+		long hash = key * 0x9E3779B97F4A7C15L;
+		int slot = (int) (hash ^ (hash >>> 32)) & mask;
+		while (keys[slot] != -1 && keys[slot] != key) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	/**
+	 * Doubles the capacity of the table, so that it stays at most half full.
+	 */
+	private void grow() {
+		checkArgument(keys.length <= 1 << 29, "The grid has too many travel times");
+		long[] newKeys = new long[keys.length * 2];
+		Arrays.fill(newKeys, -1);
+		double[] newTravelTimes = new double[newKeys.length];
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != -1) {
+				int slot = slot(newKeys, keys[i]);
+				newKeys[slot] = keys[i];
+				newTravelTimes[slot] = travelTimes[i];
+			}
+		}
+		keys = newKeys;
+		travelTimes = newTravelTimes;
+	}
+
+	/**
+	 * @return the number of travel times known
+	 */
+	public int getNbTravelTimes() {
+		return size;
+	}
+
+	/**
+	 * @param latitude the latitude of a point
+	 * @param longitude the longitude of a point
+	 * @return the index of the cell which contains the point, or -1 if the point is not in the grid
+	 */
+	public int getCell(double latitude, double longitude) {
+		double row = Math.floor((latitude - minLatitude) / cellSize);
+		double column = Math.floor((longitude - minLongitude) / cellSize);
+		if (row < 0 || row >= rows || column < 0 || column >= columns)
+			return -1;
+		return (int) row * columns + (int) column;
+	}
+
+	/**
+	 * @param origin the index of the origin cell
+	 * @param destination the index of the destination cell
+	 * @return the travel time in seconds from the center of the origin cell to the center of the destination cell, or {@link Double#NaN} if it is not known or if a cell is not in the grid
+	 */
+	public double getTravelTime(int origin, int destination) {
+		int nbCells = rows * columns;
+		if (origin < 0 || origin >= nbCells || destination < 0 || destination >= nbCells)
+			return Double.NaN;
+		int slot = slot(keys, (long) origin * nbCells + destination);
+		return keys[slot] == -1 ? Double.NaN : travelTimes[slot];
+	}
+
+	/**
+	 * @param cell the index of a cell
+	 * @return the latitude of the center of the cell
+	 */
+	public double getCenterLatitude(int cell) {
+		return minLatitude + (cell / columns + 0.5) * cellSize;
+	}
+
+	/**
+	 * @param cell the index of a cell
+	 * @return the longitude of the center of the cell
+	 */
+	public double getCenterLongitude(int cell) {
+		return minLongitude + (cell % columns + 0.5) * cellSize;
+	}
+
+}
@@ -0,0 +1,26 @@
+package io.github.oliviercailloux.y2018.apartments.distance;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.google.maps.errors.ApiException;
+import com.google.maps.model.TravelMode;
+
+/**
+ * A <code>TravelTimeMatrixProvider</code> computes in one request the times needed to go from each of several origins to each of several destinations.
+ * As for a {@link TravelTimeProvider}, a place is given either as an address or as coordinates in the format <code>latitude,longitude</code>.
+ */
+public interface TravelTimeMatrixProvider {
+
+	/**
+	 * @param origins the start points of the paths
+	 * @param destinations the end points of the paths
+	 * @param mode the means of transport
+	 * @return a matrix with one row per origin and one column per destination, containing the duration of each path in seconds, or {@link Double#NaN} when there is no path
+	 * @throws ApiException if the service computing the durations returns an error
+	 * @throws InterruptedException if the thread is interrupted while waiting for the durations
+	 * @throws IOException if the service computing the durations cannot be reached
+	 */
+	public double[][] getTravelTimes(List<String> origins, List<String> destinations, TravelMode mode) throws ApiException, InterruptedException, IOException;
+
+}
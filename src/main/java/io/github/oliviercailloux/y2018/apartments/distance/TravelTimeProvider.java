@@ -0,0 +1,39 @@
+package io.github.oliviercailloux.y2018.apartments.distance;
+
+import java.io.IOException;
+
+import com.google.maps.errors.ApiException;
+import com.google.maps.model.LatLng;
+import com.google.maps.model.TravelMode;
+
+/**
+ * A <code>TravelTimeProvider</code> computes the time needed to go from one place to another.
+ * A place is given either as an address or as coordinates in the format <code>latitude,longitude</code>, as returned by {@link LatLng#toUrlValue()}.
+ */
+public interface TravelTimeProvider {
+
+	/**
+	 * @param origin the start point of the path
+	 * @param destination the end point of the path
+	 * @param mode the means of transport
+	 * @return the duration of the path in seconds, or {@link Double#NaN} when there is no path
+	 * @throws ApiException if the service computing the duration returns an error
+	 * @throws InterruptedException if the thread is interrupted while waiting for the duration
+	 * @throws IOException if the service computing the duration cannot be reached
+	 */
+	public double getTravelTime(String origin, String destination, TravelMode mode) throws ApiException, InterruptedException, IOException;
+
+	/**
+	 * @param origin the coordinates of the start point of the path
+	 * @param destination the coordinates of the end point of the path
+	 * @param mode the means of transport
+	 * @return the duration of the path in seconds, or {@link Double#NaN} when there is no path
+	 * @throws ApiException if the service computing the duration returns an error
+	 * @throws InterruptedException if the thread is interrupted while waiting for the duration
+	 * @throws IOException if the service computing the duration cannot be reached
+	 */
+	public default double getTravelTime(LatLng origin, LatLng destination, TravelMode mode) throws ApiException, InterruptedException, IOException {
+		return getTravelTime(origin.toUrlValue(), destination.toUrlValue(), mode);
+	}
+
+}
@@ -77,6 +77,7 @@ public class CreateApartmentGUI extends FormApartmentGUI {
 				if(!display.readAndDispatch( ))
 					display.sleep( );
 			}
+			closeJournal();
 			i.dispose();
 			display.dispose();
 			LOGGER.info("The screen was closed with success.");
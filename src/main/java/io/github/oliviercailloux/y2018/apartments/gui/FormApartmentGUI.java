@@ -1,7 +1,17 @@
 package io.github.oliviercailloux.y2018.apartments.gui;
 
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 import org.eclipse.jface.dialogs.MessageDialog;
 import org.eclipse.swt.SWT;
@@ -20,6 +30,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.binary.ApartmentJournal;
 import io.github.oliviercailloux.y2018.apartments.toxmlproperties.XMLProperties;
 
 /**
@@ -45,6 +56,14 @@ public class FormApartmentGUI {
 	protected File file;
 	protected Composite information;
 	protected Apartment apart;
+	/**
+	 * Runs the operations on the journal one after the other, in the order in which they are submitted, so that the display thread does not wait for the disk.
+	 */
+	private ExecutorService journalExecutor;
+	/**
+	 * The journal where the apartment is saved at each modification, used by the thread of the journalExecutor only, <code>null</code> if it cannot be opened.
+	 */
+	private ApartmentJournal journal;
 
 	public Color okColor = new Color(display, 119, 197, 110);
 	public Color alertColor = new Color(display, 255, 200, 200);
@@ -90,6 +109,7 @@ public class FormApartmentGUI {
 
 		});
 		validationField();
+		openJournal();
 	}
 
 	/**
@@ -342,22 +362,134 @@ public class FormApartmentGUI {
 	}
 
 	/**
-	 * Insert Apartment data inserted in the GUI, in a XML File. The name of the
-	 * file is in the parameters of the class.
+	 * Opens the journal of the XML File in the background, so that it is ready when the first modification is saved.
+	 */
+	private void openJournal() {
+		String name = "Journal of " + file.getName();
+		journalExecutor = Executors.newSingleThreadExecutor(r -> {
+			Thread thread = new Thread(r, name);
+			thread.setDaemon(true);
+			return thread;
+		});
+		journalExecutor.execute(() -> {
+			try {
+				journal = ApartmentJournal.open(journalDirectory());
+			} catch (IOException e) {
+				LOGGER.error("Error while opening the journal of the XML File: {}", e.getMessage());
+				showInsertionError();
+			}
+		});
+	}
+
+	private void showInsertionError() {
+		if (!display.isDisposed())
+			display.asyncExec(() -> MessageDialog.openError(shell, "Error", "Insertion Problem in the XML File\n\nTry to restart the app"));
+	}
+
+	/**
+	 * Saves the Apartment data inserted in the GUI in the journal of the XML File, without waiting for the disk, so that the GUI is not blocked.
+	 * The XML File itself is written by {@link #closeJournal()}, when the GUI is closed.
 	 * 
 	 * @param a
 	 *            Object Apartment
 	 */
 	private void write(Apartment a) {
-		XMLProperties xmlFile = new XMLProperties();
-		try (FileOutputStream s = new FileOutputStream(file.getAbsolutePath())) {
-			xmlFile.toXML(a, s);
-		} catch (Exception e) {
-			MessageDialog.openError(shell, "Error", "Insertion Problem in the XML File\n\nTry to restart the app");
-			LOGGER.error("Error while inserting data into XML File" + e.getMessage());
-			throw new IllegalStateException(e);
+		String key = file.getName();
+		journalExecutor.execute(() -> {
+			if (journal == null)
+				return;
+			journal.put(key, a).whenComplete((written, e) -> {
+				if (e == null)
+					return;
+				LOGGER.error("Error while inserting data into the journal of the XML File: {}", e.getMessage());
+				showInsertionError();
+			});
+		});
+	}
+
+	/**
+	 * @return the directory of the journal of the XML File, next to it
+	 */
+	protected Path journalDirectory() {
+		return new File(file.getAbsolutePath() + ".journal").toPath();
+	}
+
+	/**
+	 * Reads in the background the apartment held by the journal, once it is opened, then gives it to the display thread. As the journal is cleared once the apartment is written to the XML File, it holds one only if the application has been stopped before writing it.
+	 * The display thread does not wait for the journal: the consumer is run later by the event loop, and not at all if the shell has been disposed meanwhile.
+	 * 
+	 * @param onRead run by the display thread with the apartment saved in the journal and not written to the XML File, if any
+	 */
+	protected void readUnwrittenApartment(Consumer<Optional<Apartment>> onRead) {
+		String key = file.getName();
+		journalExecutor.execute(() -> {
+			Optional<Apartment> saved;
+			try {
+				saved = journal == null ? Optional.empty() : journal.get(key);
+			} catch (IllegalStateException e) {
+				LOGGER.error("Error while reading the journal of the XML File: {}", e.getMessage());
+				return;
+			}
+			if (!display.isDisposed())
+				display.asyncExec(() -> {
+					if (!shell.isDisposed())
+						onRead.accept(saved);
+				});
+		});
+	}
+
+	/**
+	 * Writes the last apartment saved in the journal to the XML File, through a temporary file which replaces it once complete, clears the journal, then closes it.
+	 * Waits until this is done.
+	 */
+	protected void closeJournal() {
+		if (journalExecutor == null)
+			return;
+		Future<?> closed = journalExecutor.submit(this::writeAndCloseJournal);
+		journalExecutor.shutdown();
+		try {
+			closed.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			LOGGER.error("Interrupted while writing the XML File, the apartment is kept in its journal");
+		} catch (ExecutionException e) {
+			LOGGER.error("Error while writing the XML File, the apartment is kept in its journal: {}", e.getCause().getMessage());
 		}
+	}
 
+	/**
+	 * Run by the thread of the journalExecutor. The apartment is removed from the journal only once the XML File has been replaced, so that a crash in between loses nothing.
+	 */
+	private void writeAndCloseJournal() {
+		if (journal == null)
+			return;
+		String key = file.getName();
+		try {
+			Optional<Apartment> saved = journal.get(key);
+			if (saved.isPresent()) {
+				Path xml = file.getAbsoluteFile().toPath();
+				Path temp = xml.resolveSibling(file.getName() + ".tmp");
+				try (OutputStream s = Files.newOutputStream(temp)) {
+					new XMLProperties().toXML(saved.get(), s);
+				}
+				Files.move(temp, xml, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				LOGGER.info("The apartment has been written in the XML File {}", xml);
+				journal.remove(key).get();
+			}
+		} catch (IOException e) {
+			LOGGER.error("Error while writing the XML File, the apartment is kept in its journal: {}", e.getMessage());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			LOGGER.error("Interrupted while clearing the journal of the XML File");
+		} catch (ExecutionException e) {
+			LOGGER.error("Error while clearing the journal of the XML File: {}", e.getCause().getMessage());
+		} finally {
+			try {
+				journal.close();
+			} catch (IOException e) {
+				LOGGER.error("Error while closing the journal of the XML File: {}", e.getMessage());
+			}
+		}
 	}
 
 	/**
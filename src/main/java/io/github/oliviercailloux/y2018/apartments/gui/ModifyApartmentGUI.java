@@ -45,43 +45,42 @@ public class ModifyApartmentGUI extends FormApartmentGUI{
 		
 	}
 	/**
-	 * This method initialize every element of the form with the data present 
-	 * in the Apartment apart field.
-	 * It used getApartment() in order to get the apartment from the xml file 
-	 * transmit in the main method
+	 * This method initialize every element of the form with the apartment of the xml file 
+	 * transmit in the main method, read by getApartment().
+	 * If the journal holds an apartment not written to the xml file, the form is filled again 
+	 * with it once it is read, without blocking the display thread meanwhile.
 	 * @throws IOException
 	 */
 	private void initializeField() throws IOException {
+		readUnwrittenApartment(saved -> {
+			if (saved.isPresent()) {
+				apart = saved.get();
+				fillFields();
+				LOGGER.info("The apartment not written to the XML File has been restored from its journal.");
+			}
+		});
 		getApartment();
-		if(!apart.getTitle().equals("") && !apart.getTitle().isEmpty())
-			title.setText(apart.getTitle());
-		if(apart.getTele())
-			tele.setSelection(true);
-		if(apart.getTerrace())
-			terrace.setSelection(true);
-		if(apart.getWifi())
-			wifi.setSelection(true);
-		if(!apart.getAddress().equals("") && !apart.getAddress().isEmpty())
-			address.setText(apart.getAddress());
-		if(!apart.getDescription().equals("") && !apart.getDescription().isEmpty())
-			description.setText(apart.getDescription());
-		if(apart.getFloorArea() != 0)
-			floorArea.setText(Double.toString(apart.getFloorArea()));
-		if(apart.getFloorAreaTerrace() != 0)
-		{
-			floorAreaTerrace.setText(Double.toString(apart.getFloorAreaTerrace()));
-			floorAreaTerrace.setEditable(true);
-		}
-		if(apart.getNbBathrooms() != 0)
-			nbBathrooms.setText(Integer.toString(apart.getNbBathrooms()));
-		if(apart.getNbBedrooms() != 0)
-			nbBedrooms.setText(Integer.toString(apart.getNbBedrooms()));
-		if(apart.getNbMinNight() != 0)
-			nbMinNight.setText(Integer.toString(apart.getNbMinNight()));
-		if(apart.getNbSleeping() != 0)
-			nbSleeping.setText(Integer.toString(apart.getNbSleeping()));
-		if(apart.getPricePerNight() != 0)
-			pricePerNight.setText(Double.toString(apart.getPricePerNight()));
+		fillFields();
+	}
+
+	/**
+	 * Sets every element of the form with the data present in the Apartment apart field, an attribute equal to zero leaving its field empty.
+	 */
+	private void fillFields() {
+		title.setText(apart.getTitle());
+		tele.setSelection(apart.getTele());
+		terrace.setSelection(apart.getTerrace());
+		wifi.setSelection(apart.getWifi());
+		address.setText(apart.getAddress());
+		description.setText(apart.getDescription());
+		floorArea.setText(apart.getFloorArea() != 0 ? Double.toString(apart.getFloorArea()) : "");
+		floorAreaTerrace.setText(apart.getFloorAreaTerrace() != 0 ? Double.toString(apart.getFloorAreaTerrace()) : "");
+		floorAreaTerrace.setEditable(apart.getTerrace() || apart.getFloorAreaTerrace() != 0);
+		nbBathrooms.setText(apart.getNbBathrooms() != 0 ? Integer.toString(apart.getNbBathrooms()) : "");
+		nbBedrooms.setText(apart.getNbBedrooms() != 0 ? Integer.toString(apart.getNbBedrooms()) : "");
+		nbMinNight.setText(apart.getNbMinNight() != 0 ? Integer.toString(apart.getNbMinNight()) : "");
+		nbSleeping.setText(apart.getNbSleeping() != 0 ? Integer.toString(apart.getNbSleeping()) : "");
+		pricePerNight.setText(apart.getPricePerNight() != 0 ? Double.toString(apart.getPricePerNight()) : "");
 	}
 	
 	/**
@@ -130,6 +129,7 @@ public class ModifyApartmentGUI extends FormApartmentGUI{
 				if(!display.readAndDispatch( ))
 					display.sleep( );
 			}
+			closeJournal();
 			i.dispose();
 			display.dispose();
 			LOGGER.info("The screen was closed with success.");
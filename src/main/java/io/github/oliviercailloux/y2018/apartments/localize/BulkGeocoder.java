@@ -0,0 +1,289 @@
+package io.github.oliviercailloux.y2018.apartments.localize;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
+import com.google.common.math.Stats;
+import com.google.common.math.StatsAccumulator;
+import com.google.maps.errors.ApiException;
+import com.google.maps.model.LatLng;
+
+import io.github.oliviercailloux.y2018.apartments.utils.PersistentCacheFile;
+
+/**
+ * This class geocodes many addresses at once, asking another {@link Geocoder} only for the addresses it has never seen.
+ * The addresses are normalized (case, accents, spaces) so that two spellings of the same address are geocoded once; the normalized address is only a key, the delegate geocoder receives the address as it was first written. The locations found are kept in a bounded in-memory cache, which evicts the least recently used ones, and in a local file, which is consulted before the delegate geocoder when an address is not in memory.
+ * The addresses which are not known are geocoded concurrently, without exceeding a given number of simultaneous requests.
+ */
+public class BulkGeocoder implements Geocoder, Closeable {
+
+	private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+	private static final Pattern SPACES = Pattern.compile("\\s+");
+	private static final Pattern SPACES_AROUND_COMMA = Pattern.compile(" ?, ?");
+
+	private final Geocoder delegate;
+	private final ExecutorService executor;
+	private final int parallelism;
+	private final Cache<String, LatLng> cache;
+	private final PersistentCacheFile file;
+
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+	private final LongAdder loadSuccessCount = new LongAdder();
+	private final LongAdder loadExceptionCount = new LongAdder();
+	private final LongAdder totalLoadTime = new LongAdder();
+	private final LongAdder evictionCount = new LongAdder();
+	private final StatsAccumulator latencies = new StatsAccumulator();
+
+	private final static Logger LOGGER = LoggerFactory.getLogger(BulkGeocoder.class);
+
+	/**
+	 * Creates a geocoder in front of another one and reads the locations stored in the file.
+	 * @param delegate the geocoder which finds the locations which are not known
+	 * @param file the path of the file where the locations are stored, created if it does not exist
+	 * @param maximumSize the maximum number of locations kept in memory, strictly positive
+	 * @param executor the executor which runs the requests to the delegate geocoder, not shut down by this geocoder
+	 * @param parallelism the maximum number of simultaneous requests to the delegate geocoder during a call, strictly positive
+	 * @throws IOException if the file cannot be read
+	 */
+	public BulkGeocoder(Geocoder delegate, Path file, long maximumSize, ExecutorService executor, int parallelism) throws IOException {
+		checkArgument(delegate != null && executor != null, "The geocoder and the executor cannot be null");
+		checkArgument(maximumSize > 0, "The maximum size must be strictly positive");
+		checkArgument(parallelism > 0, "The parallelism must be strictly positive");
+		this.delegate = delegate;
+		this.executor = executor;
+		this.parallelism = parallelism;
+		this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).removalListener((notification) -> {
+			if (notification.wasEvicted())
+				evictionCount.increment();
+		}).build();
+		this.file = new PersistentCacheFile(file, System.currentTimeMillis());
+		List<List<String>> keys = this.file.getKeys();
+		for (List<String> key : keys.subList((int) Math.max(0, keys.size() - maximumSize), keys.size())) {
+			PersistentCacheFile.Entry stored = this.file.get(key, Long.MIN_VALUE);
+			LatLng location = stored == null ? null : parse(stored.getValue());
+			if (location == null)
+				LOGGER.error("The location stored for {} is not valid, it is ignored", key);
+			else
+				cache.put(key.get(0), location);
+		}
+		evictionCount.reset();
+		LOGGER.info("{} locations have been read from {}", cache.size(), file);
+	}
+
+	/**
+	 * Normalizes an address so that different spellings of the same address give the same string: the letters are lower-cased and their accents removed, and consecutive spaces are merged.
+	 * @param address an address
+	 * @return the normalized address
+	 */
+	public static String normalize(String address) {
+		String decomposed = Normalizer.normalize(address, Normalizer.Form.NFKD);
+		String withoutAccents = DIACRITICS.matcher(decomposed).replaceAll("");
+		String spaces = SPACES.matcher(withoutAccents.trim()).replaceAll(" ");
+		return SPACES_AROUND_COMMA.matcher(spaces).replaceAll(", ").toLowerCase(Locale.ROOT);
+	}
+
+	@Override
+	public LatLng geocode(String address) throws ApiException, InterruptedException, IOException {
+		return geocodeAll(Collections.singletonList(address)).get(0);
+	}
+
+	/**
+	 * Finds the location of each address. Each distinct address (once normalized) is looked up once, and only the addresses which are not known are sent to the delegate geocoder, with the spelling of their first occurrence.
+	 * @param addresses the full addresses of the locations
+	 * @return the locations, in the order of the addresses
+	 * @throws ApiException if the delegate geocoder returns an error for an address
+	 * @throws InterruptedException if the thread is interrupted while waiting for the locations
+	 * @throws IOException if the delegate geocoder cannot be reached
+	 */
+	public List<LatLng> geocodeAll(List<String> addresses) throws ApiException, InterruptedException, IOException {
+		Map<String, LatLng> locations = new LinkedHashMap<>();
+		String[] keys = new String[addresses.size()];
+		ConcurrentLinkedQueue<String> misses = new ConcurrentLinkedQueue<>();
+		Map<String, String> originals = new HashMap<>();
+		for (int i = 0; i < keys.length; i++) {
+			checkArgument(addresses.get(i) != null, "The addresses cannot be null");
+			keys[i] = normalize(addresses.get(i));
+			if (locations.containsKey(keys[i])) {
+				hitCount.increment();
+				continue;
+			}
+			LatLng location = cache.getIfPresent(keys[i]);
+			if (location == null) {
+				location = read(keys[i]);
+				if (location != null)
+					cache.put(keys[i], location);
+			}
+			locations.put(keys[i], location);
+			if (location == null) {
+				missCount.increment();
+				misses.add(keys[i]);
+				originals.put(keys[i], addresses.get(i));
+			}
+			else {
+				hitCount.increment();
+			}
+		}
+
+		if (!misses.isEmpty()) {
+			int nbMisses = misses.size();
+			Map<String, LatLng> loaded = new ConcurrentHashMap<>();
+			List<Future<?>> workers = new ArrayList<>();
+			for (int i = 0; i < Math.min(parallelism, nbMisses); i++) {
+				workers.add(executor.submit(() -> {
+					String key;
+					while ((key = misses.poll()) != null) {
+						loaded.put(key, load(key, originals.get(key)));
+					}
+					return null;
+				}));
+			}
+			try {
+				for (Future<?> worker : workers) {
+					worker.get();
+				}
+			}
+			catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof ApiException)
+					throw (ApiException) cause;
+				if (cause instanceof IOException)
+					throw (IOException) cause;
+				if (cause instanceof InterruptedException)
+					throw (InterruptedException) cause;
+				if (cause instanceof RuntimeException)
+					throw (RuntimeException) cause;
+				throw new IllegalStateException(cause);
+			}
+			finally {
+				misses.clear();
+				for (Future<?> worker : workers) {
+					worker.cancel(true);
+				}
+			}
+			locations.putAll(loaded);
+			LOGGER.info("{} addresses have been geocoded with {} requests", addresses.size(), nbMisses);
+		}
+
+		List<LatLng> result = new ArrayList<>(keys.length);
+		for (String key : keys) {
+			result.add(locations.get(key));
+		}
+		return result;
+	}
+
+	/**
+	 * Asks the delegate geocoder for the location of an address, and keeps it under the normalized address.
+	 */
+	private LatLng load(String key, String address) throws ApiException, InterruptedException, IOException {
+		long start = System.nanoTime();
+		LatLng location;
+		try {
+			location = delegate.geocode(address);
+		}
+		catch (ApiException | InterruptedException | IOException | RuntimeException e) {
+			loadExceptionCount.increment();
+			throw e;
+		}
+		finally {
+			long elapsed = System.nanoTime() - start;
+			totalLoadTime.add(elapsed);
+			synchronized (latencies) {
+				latencies.add(elapsed / 1e6);
+			}
+		}
+		loadSuccessCount.increment();
+		cache.put(key, location);
+		try {
+			file.append(ImmutableList.of(key), new PersistentCacheFile.Entry(location.toUrlValue(), Long.MAX_VALUE));
+		}
+		catch (IOException e) {
+			LOGGER.error("The location of {} could not be stored: {}", key, e.getMessage());
+		}
+		return location;
+	}
+
+	/**
+	 * @return the location stored in the file for the normalized address, or <code>null</code> if there is none or it cannot be read
+	 */
+	private LatLng read(String key) {
+		try {
+			PersistentCacheFile.Entry stored = file.get(ImmutableList.of(key), Long.MIN_VALUE);
+			return stored == null ? null : parse(stored.getValue());
+		}
+		catch (IOException e) {
+			LOGGER.error("The location stored for {} could not be read: {}", key, e.getMessage());
+			return null;
+		}
+	}
+
+	private static LatLng parse(String value) {
+		String[] coordinates = value.split(",");
+		if (coordinates.length != 2)
+			return null;
+		try {
+			return new LatLng(Double.parseDouble(coordinates[0]), Double.parseDouble(coordinates[1]));
+		}
+		catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the counters since the creation of the geocoder. An address found in memory or in the file, or met earlier in the same call, is a hit; {@link CacheStats#hitRate()} gives the hit ratio.
+	 * @return a snapshot of the statistics of the geocoder
+	 */
+	public CacheStats stats() {
+		return new CacheStats(hitCount.sum(), missCount.sum(), loadSuccessCount.sum(), loadExceptionCount.sum(), totalLoadTime.sum(), evictionCount.sum());
+	}
+
+	/**
+	 * @return the count, mean, minimum, maximum and standard deviation of the durations, in milliseconds, of the requests to the delegate geocoder since the creation of this geocoder
+	 */
+	public Stats latencyStats() {
+		synchronized (latencies) {
+			return latencies.snapshot();
+		}
+	}
+
+	/**
+	 * @return the number of locations currently kept in memory
+	 */
+	public long size() {
+		return cache.size();
+	}
+
+	/**
+	 * Closes the file where the locations are stored. The geocoder must not be used afterwards.
+	 */
+	@Override
+	public void close() throws IOException {
+		file.close();
+	}
+
+}
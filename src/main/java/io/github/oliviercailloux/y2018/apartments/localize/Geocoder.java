@@ -0,0 +1,23 @@
+package io.github.oliviercailloux.y2018.apartments.localize;
+
+import java.io.IOException;
+
+import com.google.maps.errors.ApiException;
+import com.google.maps.model.LatLng;
+
+/**
+ * A service which finds the coordinates of an address.
+ */
+@FunctionalInterface
+public interface Geocoder {
+
+	/**
+	 * @param address the full address of the location
+	 * @return the latitude and longitude of the location
+	 * @throws ApiException if the service returns an error or does not find the address
+	 * @throws InterruptedException if the thread is interrupted while waiting for the service
+	 * @throws IOException if the service cannot be reached
+	 */
+	LatLng geocode(String address) throws ApiException, InterruptedException, IOException;
+
+}
@@ -0,0 +1,38 @@
+package io.github.oliviercailloux.y2018.apartments.localize;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.IOException;
+
+import com.google.maps.GeocodingApi;
+import com.google.maps.errors.ApiException;
+import com.google.maps.errors.ZeroResultsException;
+import com.google.maps.model.GeocodingResult;
+import com.google.maps.model.LatLng;
+
+import io.github.oliviercailloux.y2018.apartments.utils.GeoApiClient;
+
+/**
+ * A {@link Geocoder} which asks the Geocoding service of Google Maps and keeps the first result.
+ */
+public class GoogleGeocoder implements Geocoder {
+
+	private final GeoApiClient client;
+
+	/**
+	 * @param client the client which sends the requests, not closed by this geocoder
+	 */
+	public GoogleGeocoder(GeoApiClient client) {
+		checkArgument(client != null, "The client cannot be null");
+		this.client = client;
+	}
+
+	@Override
+	public LatLng geocode(String address) throws ApiException, InterruptedException, IOException {
+		GeocodingResult[] res = client.execute((context) -> GeocodingApi.newRequest(context).address(address));
+		if (res.length == 0)
+			throw new ZeroResultsException("No location found for the address " + address);
+		return res[0].geometry.location;
+	}
+
+}
@@ -2,16 +2,17 @@ package io.github.oliviercailloux.y2018.apartments.localize;
 
 import java.io.IOException;
 
-import com.google.maps.GeoApiContext;
-import com.google.maps.GeocodingApi;
 import com.google.maps.errors.ApiException;
-import com.google.maps.model.GeocodingResult;
 import com.google.maps.model.LatLng;
 
+import io.github.oliviercailloux.y2018.apartments.utils.GeoApiClient;
+
 
 public class Localizer {
 	
 	/**	getGeometryLocation return, base on the full address of the location, the geocode of it.
+	 * The request goes through the {@link GeoApiClient} shared by the users of the same API key.
+	 * To geocode many addresses, prefer a {@link BulkGeocoder}, which avoids asking twice for the same address.
 	 * 
 	 * @param location is the full address of the location
 	 * @return
@@ -22,13 +23,7 @@ public class Localizer {
 	 */
 	public static LatLng getGeometryLocation(String address, String apiKey) throws ApiException, InterruptedException, IOException{
 		
-		GeoApiContext context = new GeoApiContext.Builder()
-				.apiKey(apiKey)
-				.build();
-		
-		GeocodingResult[] res = GeocodingApi.newRequest(context).address(address).await();
-		
-		return res[0].geometry.location;
+		return new GoogleGeocoder(GeoApiClient.shared(apiKey)).geocode(address);
 	
 	}
 	
@@ -0,0 +1,118 @@
+package io.github.oliviercailloux.y2018.apartments.piecewise;
+
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+
+import io.github.oliviercailloux.y2018.apartments.valuefunction.DoublePartialValueFunction;
+
+/**
+ * The immutable form of a {@link PiecewiseLinearValueFunction}, obtained by {@link PiecewiseLinearValueFunction#compile()}.
+ * The break points are stored in parallel arrays sorted by key, with the slope of each segment, so that an object of this class can be shared between threads without any synchronization.
+ * As a {@link DoublePartialValueFunction}, it can be used directly by an apartment value function.
+ */
+public final class CompiledPiecewiseLinearValueFunction implements DoublePartialValueFunction {
+
+	private final String criteria;
+
+	/**
+	 * The keys of the break points, sorted in increasing order.
+	 */
+	private final int[] keys;
+
+	/**
+	 * The utility of each key, which is also the utility at the origin of the segment starting at this key.
+	 */
+	private final double[] values;
+
+	/**
+	 * The slope of the segment between each key and the next one. The last slope is 0.
+	 */
+	private final double[] slopes;
+
+	CompiledPiecewiseLinearValueFunction(String criteria, NavigableMap<Integer, Double> breakPoints) {
+		this.criteria = criteria;
+		keys = new int[breakPoints.size()];
+		values = new double[breakPoints.size()];
+		slopes = new double[breakPoints.size()];
+		int i = 0;
+		for (Entry<Integer, Double> breakPoint : breakPoints.entrySet()) {
+			keys[i] = breakPoint.getKey();
+			values[i] = breakPoint.getValue();
+			if (i > 0)
+				slopes[i - 1] = (values[i] - values[i - 1]) / (keys[i] - keys[i - 1]);
+			i++;
+		}
+	}
+
+	/**
+	 * This method calculates and returns the value of the utility associated with the key in parameter.
+	 * A key less than the minimum has a utility of 0 and a key more than the maximum has a utility of 1.
+	 * @param key the value of the criteria
+	 * @return the value (double) of the utility associated with the key in parameter
+	 * @throws IllegalStateException if the key is not a break point and there are less than 2 break points
+	 */
+	public double getUtility(int key) {
+		return applyAsDouble(key);
+	}
+
+	@Override
+	public double applyAsDouble(double objectiveData) {
+		int last = keys.length - 1;
+		if (last < 1 && (last < 0 || keys[0] != objectiveData))
+			throw new IllegalStateException("Need more couples (minimum of 2) to identify the linear value");
+		if (objectiveData < keys[0])
+			return 0;
+		if (objectiveData > keys[last])
+			return 1;
+		int segment = floorIndex(objectiveData);
+		return values[segment] + slopes[segment] * (objectiveData - keys[segment]);
+	}
+
+	/**
+	 * Finds the index of the greatest key less than or equal to the value in parameter, with a binary search whose loop has no unpredictable branch.
+	 * @param objectiveData a value not less than the first key
+	 * @return the index of the segment containing the value
+	 */
+	private int floorIndex(double objectiveData) {
+		int base = 0;
+		int length = keys.length;
+		while (length > 1) {
+			int half = length >>> 1;
+			base = (keys[base + half] <= objectiveData) ? base + half : base;
+			length -= half;
+		}
+		return base;
+	}
+
+	/**
+	 * @return the minimum of all keys, -1 if there are none
+	 */
+	public int getMinKey() {
+		return keys.length == 0 ? -1 : keys[0];
+	}
+
+	/**
+	 * @return the maximum of all keys, 0 if there are none
+	 */
+	public int getMaxKey() {
+		return keys.length == 0 ? 0 : keys[keys.length - 1];
+	}
+
+	/**
+	 * Creates a new editable {@link PiecewiseLinearValueFunction} with the same criteria and break points.
+	 * @return a mutable copy of this function
+	 */
+	public PiecewiseLinearValueFunction toBuilder() {
+		PiecewiseLinearValueFunction builder = new PiecewiseLinearValueFunction(criteria);
+		for (int i = 0; i < keys.length; i++) {
+			builder.setUtility(keys[i], values[i]);
+		}
+		return builder;
+	}
+
+	@Override
+	public String toString() {
+		return "This object is defining the following criteria :  " + criteria + ". It contains " + keys.length + " values";
+	}
+
+}
@@ -47,4 +47,10 @@ public interface IPiecewiseLinearValueFunction {
 	 */
 	public void setUtility(int key, double value);
 
+	/**
+	 * This method returns an immutable copy of this function, which is not affected by later calls to {@link #setUtility(int, double)}.
+	 * @return the compiled form of the function
+	 */
+	public CompiledPiecewiseLinearValueFunction compile();
+
 }
@@ -9,9 +9,7 @@ import org.slf4j.LoggerFactory;
 import com.google.common.collect.Range;
 
 
-import java.awt.geom.Point2D;
 import java.io.IOException;
-import java.util.Iterator;
 
 /**
  * 
@@ -25,6 +23,7 @@ public class PiecewiseLinearValueFunction implements IPiecewiseLinearValueFuncti
 
 	private String criteria;
 	private NavigableMap<Integer, Double> breakPoints;
+	private volatile CompiledPiecewiseLinearValueFunction compiled;
 	private final static Logger LOGGER = LoggerFactory.getLogger(PiecewiseLinearValueFunction.class);
 
 	/**
@@ -40,10 +39,10 @@ public class PiecewiseLinearValueFunction implements IPiecewiseLinearValueFuncti
 	
 
 	@Override
-	public void setUtility(int key, double value) {
+	public synchronized void setUtility(int key, double value) {
 		
 		if (breakPoints.containsKey(key) == true) {
-			LOGGER.error("The key "+key+" is already in the map.");
+			LOGGER.error("The key {} is already in the map.", key);
 			throw new IllegalArgumentException("The key is already in the Map.");
 		}
 		
@@ -56,7 +55,8 @@ public class PiecewiseLinearValueFunction implements IPiecewiseLinearValueFuncti
 		}
 		
 		breakPoints.put(key, value);
-		LOGGER.info("Utility "+key+" with the value "+value+" set with sucess.");
+		compiled = null;
+		LOGGER.trace("Utility {} with the value {} set with success.", key, value);
 			
 	
 	}
@@ -68,62 +68,19 @@ public class PiecewiseLinearValueFunction implements IPiecewiseLinearValueFuncti
 				". It contains " + this.breakPoints.size() + " values";
 	}
 
-	/**
-	 * This method calculates the linear value of a function. 
-	 * If the point A and the point B are not different, the method returns
-	 * an IllegalArgumentException.
-	 * @param a the Point2D A
-	 * @param b the Point2D B
-	 * @return a double number which corresponds to the linear value.
-	 */
-	private double getLinearValue(Point2D a, Point2D b) {
-		
-		if ( a.getX() == b.getX()) {
-			LOGGER.error("The linear value cannot be calculated.The abscisse of the point A "+a.getX()+" can't be the same than the abscisse of the point B "+b.getX());
-			throw new IllegalArgumentException("The points are the same");
-		}
-
-		return ( b.getY() - a.getY()) / (b.getX() - a.getX());
-		
-	}
-	
-	/**
-	 * This method calculates the ordinate value of a function.
-	 * @param a the Point2D A
-	 * @param b the Point2D B
-	 * @return a double number which corresponds to the ordinate value.
-	 */
-	private double getOrdinateValue(Point2D a, Point2D b) {
-		double linearValue = getLinearValue(a,b);
-		return a.getY() - (a.getX()* linearValue);
-	}
-	
-
 	@Override
 	public int getMaxKey() {
-		Iterator<Integer> k = breakPoints.keySet().iterator();
-		int max = 0;
-		int tmp = 0;
-		while (k.hasNext()) {
-			tmp = k.next();
-			if (max< tmp)
-				max = tmp;
-		}
-		return max;
+		if (breakPoints.isEmpty())
+			return 0;
+		return breakPoints.lastKey();
 	}
 	
 
 	@Override
 	public int getMinKey() {
-		Iterator<Integer> k = breakPoints.keySet().iterator();
-		int min = -1;
-		int tmp = 0;
-		while (k.hasNext()) {
-			tmp = k.next();
-			if (min> tmp || min == -1)
-				min = tmp;
-		}
-		return min;
+		if (breakPoints.isEmpty())
+			return -1;
+		return breakPoints.firstKey();
 	}
 	
 
@@ -131,80 +88,53 @@ public class PiecewiseLinearValueFunction implements IPiecewiseLinearValueFuncti
 	public Range<Integer> getInterval(int key) throws IOException {
 		
 		if (key>getMaxKey()) {
-			LOGGER.error("The key value "+key+" is more than "+getMaxKey()+ ". No coherent value to return for the range.");
+			LOGGER.error("The key value {} is more than {}. No coherent value to return for the range.", key, getMaxKey());
 			throw new IllegalArgumentException("No coherent value to return for the range");
 		}
 		
 		if (key<getMinKey()) {
-			LOGGER.error("The key value "+key+" is less than "+getMinKey()+ ". No coherent value to return for the range.");
+			LOGGER.error("The key value {} is less than {}. No coherent value to return for the range.", key, getMinKey());
 			throw new IllegalArgumentException("No coherent value to return for the range");
 		}
 		
-		Iterator<Integer> k = breakPoints.keySet().iterator();
-		int delta1= -1;
-		int delta2 = -1;
-		int key1 = 0;
-		int key2 = 0;
-		int tmp = 0;
-		
-		while (k.hasNext()) {		
-			tmp = k.next();
-			if (tmp < key) {
-				if (delta1  == -1) {
-					delta1 = key - tmp;
-					key1 = tmp;
-				}
-				else if (delta1> (key - tmp)) {
-					delta1 = (key - tmp);
-					key1 = tmp;
-				}
-			}
-			else if (tmp>key) {
-				if (delta2 == -1) {
-					delta2 = tmp - key;
-					key2 = tmp;
-				}
-				else if (delta2> (tmp - key)) {
-					delta2 = (tmp - key);
-					key2 = tmp;
-				} 
-			}
-		}
-		
-		Range<Integer> interval = Range.closed(key1, key2);
-		LOGGER.info("The range for the utility has been set with success.");
-		
-		return interval;
-		
+		Integer lowerKey = breakPoints.lowerKey(key);
+		Integer higherKey = breakPoints.higherKey(key);
 		
+		return Range.closed(lowerKey == null ? key : lowerKey, higherKey == null ? key : higherKey);
 	}
 	
 
+	/**
+	 * {@inheritDoc}
+	 * The computation is done by the compiled form of this function, so that it takes a logarithmic time in the number of keys and allocates nothing once the function is compiled.
+	 * A key less than the minimum has a utility of 0 and a key more than the maximum has a utility of 1.
+	 */
 	@Override
 	public double getUtility(int key) throws IOException {
-		
-		if (breakPoints.containsKey(key))
-			return breakPoints.get(key);
-		
-		if (breakPoints.size()<2) {
+		try {
+			return compile().getUtility(key);
+		}
+		catch (IllegalStateException e) {
 			LOGGER.error("The utility map needs more couples.");
-			throw new IllegalStateException("Need more couples (minimum of 2) to identify the linear value");
+			throw e;
 		}
-		
-		
-		Range<Integer> intervalKey = getInterval(key);
-		int lowerBound = intervalKey.lowerEndpoint();
-		int upperBound = intervalKey.upperEndpoint();
-		
-		Point2D lowerBoundPoint = new Point2D.Double(lowerBound,breakPoints.get(lowerBound));
-		Point2D upperBoundPoint = new Point2D.Double(upperBound,breakPoints.get(upperBound));
-		
-		double value = getOrdinateValue(lowerBoundPoint,upperBoundPoint);
-		
-		LOGGER.info("The utility has been returned with success.");
-		
-		return key*getLinearValue(lowerBoundPoint,upperBoundPoint) + value;
 	} 
+	
+	/**
+	 * Returns the immutable form of this function, with the break points set so far. The result is cached until the next call to {@link #setUtility(int, double)}, which does not modify it.
+	 * @return a {@link CompiledPiecewiseLinearValueFunction} which can be shared between threads without synchronization
+	 */
+	@Override
+	public CompiledPiecewiseLinearValueFunction compile() {
+		CompiledPiecewiseLinearValueFunction result = compiled;
+		if (result != null)
+			return result;
+		synchronized (this) {
+			if (compiled == null)
+				compiled = new CompiledPiecewiseLinearValueFunction(criteria, breakPoints);
+			return compiled;
+		}
+	}
 		
 
 }
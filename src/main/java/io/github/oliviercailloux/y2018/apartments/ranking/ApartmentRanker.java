@@ -0,0 +1,113 @@
+package io.github.oliviercailloux.y2018.apartments.ranking;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.ApartmentScorer;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.ApartmentValueFunction;
+
+/**
+ * This class finds the K apartments with the highest subjective values among many, without sorting them all.
+ * The apartments go through a min-heap of size K: each one is scored, compared with the worst apartment kept, and forgotten if it does not beat it, so that the memory used does not depend on the number of apartments.
+ * When two apartments have the same score, the one met first in the apartments ranked comes first, so that the result does not depend on the order in which the apartments are scored.
+ */
+public class ApartmentRanker {
+
+	private final ToDoubleFunction<Apartment> scorer;
+	/**
+	 * The scorer when it is an {@link ApartmentScorer}, which also prunes and explains, <code>null</code> otherwise.
+	 */
+	private final ApartmentScorer snapshot;
+
+	private final static Logger LOGGER = LoggerFactory.getLogger(ApartmentRanker.class);
+
+	/**
+	 * Creates a ranker which scores the apartments with a {@link ApartmentValueFunction#snapshot()} of the value function, taken now: all the rankings, pruned or not, and their explanations use the preferences of this moment, even if the value function is modified later.
+	 * @param valueFunction the function which computes the subjective values
+	 */
+	public ApartmentRanker(ApartmentValueFunction valueFunction) {
+		checkArgument(valueFunction != null, "The value function cannot be null");
+		this.snapshot = valueFunction.snapshot();
+		this.scorer = snapshot;
+	}
+
+	/**
+	 * Creates a ranker which can use {@link #topKPruned(Iterable, int)} and explain the scores of the apartments found only if the scorer is an {@link ApartmentScorer}.
+	 * @param scorer a function which computes the subjective value of an apartment, which must be thread-safe to use {@link #topKParallel(List, int)}
+	 */
+	public ApartmentRanker(ToDoubleFunction<Apartment> scorer) {
+		checkArgument(scorer != null, "The scorer cannot be null");
+		this.scorer = scorer;
+		this.snapshot = scorer instanceof ApartmentScorer ? (ApartmentScorer) scorer : null;
+	}
+
+	/**
+	 * Finds the K best apartments, scoring them one after the other.
+	 * @param apartments the apartments to rank
+	 * @param k the number of apartments wanted, strictly positive
+	 * @return at most K apartments with their scores, the best first
+	 */
+	public List<ScoredApartment> topK(Iterable<Apartment> apartments, int k) {
+		checkArgument(k > 0, "The number of apartments wanted must be strictly positive");
+		TopKHeap heap = new TopKHeap(k);
+		int index = 0;
+		for (Apartment apartment : apartments) {
+			heap.offer(apartment, scorer.applyAsDouble(apartment), index);
+			index++;
+		}
+		LOGGER.info("The {} best apartments among {} have been found", k, index);
+		return heap.toSortedList(snapshot);
+	}
+
+	/**
+	 * Finds the K best apartments, abandoning the score of an apartment as soon as it cannot beat the K-th best apartment found so far, with {@link ApartmentScorer#scoreAbove(io.github.oliviercailloux.y2018.apartments.apartment.ApartmentView, double)}.
+	 * The result is the same as {@link #topK(Iterable, int)}, up to rounding errors in the scores, and much faster when a few criteria have most of the weight.
+	 * @param apartments the apartments to rank
+	 * @param k the number of apartments wanted, strictly positive
+	 * @return at most K apartments with their scores, the best first
+	 * @throws IllegalStateException if this ranker has been created with a scorer which is not an {@link ApartmentScorer}
+	 */
+	public List<ScoredApartment> topKPruned(Iterable<Apartment> apartments, int k) {
+		checkArgument(k > 0, "The number of apartments wanted must be strictly positive");
+		checkState(snapshot != null, "The pruning needs a ranker created with an ApartmentValueFunction or an ApartmentScorer");
+		TopKHeap heap = new TopKHeap(k);
+		int index = 0;
+		int abandoned = 0;
+		for (Apartment apartment : apartments) {
+			double score = snapshot.scoreAbove(apartment, heap.threshold());
+			if (score == Double.NEGATIVE_INFINITY)
+				abandoned++;
+			else
+				heap.offer(apartment, score, index);
+			index++;
+		}
+		LOGGER.info("The {} best apartments among {} have been found, {} of them being abandoned early", k, index, abandoned);
+		return heap.toSortedList(snapshot);
+	}
+
+	/**
+	 * Finds the K best apartments, scoring them in parallel in the common fork/join pool.
+	 * Each thread keeps its own heap, and the heaps are merged at the end. The result is the same as {@link #topK(Iterable, int)}.
+	 * @param apartments the apartments to rank, a list with fast random access
+	 * @param k the number of apartments wanted, strictly positive
+	 * @return at most K apartments with their scores, the best first
+	 */
+	public List<ScoredApartment> topKParallel(List<Apartment> apartments, int k) {
+		checkArgument(k > 0, "The number of apartments wanted must be strictly positive");
+		TopKHeap heap = IntStream.range(0, apartments.size()).parallel().collect(() -> new TopKHeap(k), (partial, index) -> {
+			Apartment apartment = apartments.get(index);
+			partial.offer(apartment, scorer.applyAsDouble(apartment), index);
+		}, TopKHeap::merge);
+		LOGGER.info("The {} best apartments among {} have been found", k, apartments.size());
+		return heap.toSortedList(snapshot);
+	}
+
+}
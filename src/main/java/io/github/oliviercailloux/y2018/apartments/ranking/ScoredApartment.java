@@ -0,0 +1,77 @@
+package io.github.oliviercailloux.y2018.apartments.ranking;
+
+import java.util.Optional;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.ApartmentScorer;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.ScoreExplanation;
+
+/**
+ * An apartment returned by an {@link ApartmentRanker}, with its subjective value and its position in the apartments ranked.
+ * When the ranker scores with an {@link io.github.oliviercailloux.y2018.apartments.valuefunction.ApartmentValueFunction} or an {@link ApartmentScorer}, the explanation of the score is also available. It is only computed the first time it is asked for.
+ */
+public class ScoredApartment {
+
+	private final Apartment apartment;
+	private final double score;
+	private final int index;
+	private final ApartmentScorer explainer;
+	private volatile ScoreExplanation explanation;
+
+	ScoredApartment(Apartment apartment, double score, int index) {
+		this(apartment, score, index, (ApartmentScorer) null);
+	}
+
+	/**
+	 * @param explainer the scorer which explains the score, or null if the score cannot be explained
+	 */
+	ScoredApartment(Apartment apartment, double score, int index, ApartmentScorer explainer) {
+		this.apartment = apartment;
+		this.score = score;
+		this.index = index;
+		this.explainer = explainer;
+	}
+
+	/**
+	 * @param explanation the explanation of the score, already computed
+	 */
+	ScoredApartment(Apartment apartment, double score, int index, ScoreExplanation explanation) {
+		this(apartment, score, index, (ApartmentScorer) null);
+		this.explanation = explanation;
+	}
+
+	public Apartment getApartment() {
+		return apartment;
+	}
+
+	/**
+	 * @return the subjective value of the apartment
+	 */
+	public double getScore() {
+		return score;
+	}
+
+	/**
+	 * @return the position of the apartment in the apartments ranked, starting from 0
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	/**
+	 * @return the breakdown of the subjective value of the apartment with the preferences used to rank it, or an empty optional if the ranker cannot explain its scores
+	 */
+	public Optional<ScoreExplanation> getExplanation() {
+		if (explanation == null && explainer == null)
+			return Optional.empty();
+		if (explanation == null)
+			explanation = explainer.explainScore(apartment);
+		return Optional.of(explanation);
+	}
+
+	@Override
+	public String toString() {
+		return "#" + index + " (" + score + "): " + apartment.getTitle();
+	}
+
+}
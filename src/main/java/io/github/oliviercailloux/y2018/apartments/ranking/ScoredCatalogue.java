@@ -0,0 +1,254 @@
+package io.github.oliviercailloux.y2018.apartments.ranking;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentAttribute;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentChangeListener;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.ApartmentScorer;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.ApartmentValueFunction;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.Criterion;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.ScoreExplanation;
+
+/**
+ * A catalogue of apartments which keeps, for each apartment, the subjective value of each criterion, so that the apartments can be ranked again quickly when the preferences change.
+ * The score of an apartment is a linear combination of its subjective values: when a weight changes, the scores are updated with one multiply-add per apartment, without evaluating any partial value function; when the partial value function of a criterion changes, only the subjective values of this criterion are computed again.
+ * <p>
+ * The catalogue keeps the weighted sums with the weights not normalized, so that a weight change touches only one column; the scores are these sums divided by the sum of the weights. To avoid accumulating rounding errors, the sums are computed again from the subjective values after many updates.
+ * The catalogue also listens to its apartments: when an apartment is modified, only the subjective value of the attribute modified and the score of this apartment are computed again, so that the ranking stays consistent with the modifications.
+ * As the apartments then refer to the catalogue, a catalogue which is not used anymore must be closed, for example with a try-with-resources statement: otherwise it is kept in memory, and updated, as long as any of its apartments is.
+ * This class is not thread-safe: the apartments must be modified by the thread which uses the catalogue.
+ * </p>
+ */
+public class ScoredCatalogue implements AutoCloseable {
+
+	/**
+	 * The number of incremental updates after which the weighted sums are computed again from the subjective values.
+	 */
+	private static final int MAX_INCREMENTAL_UPDATES = 1000;
+
+	private final List<Apartment> apartments;
+	private final ApartmentValueFunction valueFunction;
+	/**
+	 * The subjective values, indexed by the ordinal of the criterion then by the index of the apartment.
+	 */
+	private final double[][] subjectiveValues;
+	/**
+	 * The weights used to compute the sums, not normalized, indexed by the ordinal of the criterion.
+	 */
+	private final double[] weights;
+	private double weightSum;
+	/**
+	 * The weighted sums of the subjective values of each apartment, with the weights not normalized.
+	 */
+	private final double[] weightedSums;
+	private int incrementalUpdates;
+	private final Map<Apartment, Integer> indices;
+	private final ApartmentChangeListener listener = this::attributeChanged;
+
+	private final static Logger LOGGER = LoggerFactory.getLogger(ScoredCatalogue.class);
+
+	/**
+	 * Computes the subjective values of all the apartments and starts listening to them, until {@link #close()} is called.
+	 * The value function must then be modified only through this catalogue, or {@link #refreshWeights()} and {@link #refreshCriterion(Criterion)} must be called after it is modified.
+	 * @param apartments the apartments of the catalogue, each one present at most once
+	 * @param valueFunction the preferences used to score the apartments
+	 */
+	public ScoredCatalogue(List<Apartment> apartments, ApartmentValueFunction valueFunction) {
+		checkArgument(apartments != null && valueFunction != null, "The apartments and the value function cannot be null");
+		this.apartments = new ArrayList<>(apartments);
+		this.valueFunction = valueFunction;
+		int nbCriteria = Criterion.values().length;
+		this.subjectiveValues = new double[nbCriteria][];
+		for (Criterion criterion : Criterion.values()) {
+			subjectiveValues[criterion.ordinal()] = computeColumn(criterion);
+		}
+		this.weights = valueFunction.getWeights();
+		this.weightedSums = new double[this.apartments.size()];
+		recomputeSums();
+		this.indices = new IdentityHashMap<>(this.apartments.size());
+		for (int i = 0; i < this.apartments.size(); i++) {
+			checkArgument(indices.put(this.apartments.get(i), i) == null, "The apartment %s is present twice", i);
+		}
+		for (Apartment apartment : this.apartments) {
+			apartment.addChangeListener(listener);
+		}
+		LOGGER.info("The subjective values of {} apartments have been computed", this.apartments.size());
+	}
+
+	private void attributeChanged(Apartment apartment, ApartmentAttribute attribute) {
+		Optional<Criterion> criterion = Criterion.of(attribute);
+		if (!criterion.isPresent())
+			return;
+		int c = criterion.get().ordinal();
+		int index = indices.get(apartment);
+		double subjectiveValue = valueFunction.getSubjectiveValue(criterion.get(), apartment);
+		weightedSums[index] += weights[c] * (subjectiveValue - subjectiveValues[c][index]);
+		subjectiveValues[c][index] = subjectiveValue;
+		countUpdate();
+	}
+
+	/**
+	 * Stops listening to the apartments, so that they do not refer to this catalogue anymore. The scores are not updated anymore when an apartment is modified, but they can still be read.
+	 */
+	@Override
+	public void close() {
+		for (Apartment apartment : apartments) {
+			apartment.removeChangeListener(listener);
+		}
+	}
+
+	private double[] computeColumn(Criterion criterion) {
+		double[] column = new double[apartments.size()];
+		ApartmentScorer scorer = valueFunction.snapshot();
+		for (int i = 0; i < column.length; i++) {
+			column[i] = scorer.getSubjectiveValue(criterion, apartments.get(i));
+		}
+		return column;
+	}
+
+	private void recomputeSums() {
+		Arrays.fill(weightedSums, 0);
+		weightSum = 0;
+		for (int c = 0; c < weights.length; c++) {
+			addColumn(subjectiveValues[c], weights[c]);
+			weightSum += weights[c];
+		}
+		incrementalUpdates = 0;
+	}
+
+	/**
+	 * Adds to each weighted sum the corresponding subjective value multiplied by the factor.
+	 */
+	private void addColumn(double[] column, double factor) {
+		if (factor == 0)
+			return;
+		for (int i = 0; i < weightedSums.length; i++) {
+			weightedSums[i] += factor * column[i];
+		}
+	}
+
+	private void countUpdate() {
+		incrementalUpdates++;
+		if (incrementalUpdates >= MAX_INCREMENTAL_UPDATES)
+			recomputeSums();
+	}
+
+	/**
+	 * Sets the weight of a criterion in the value function and updates the scores.
+	 * @param criterion a valuable attribute of an apartment
+	 * @param weight a positive or zero double
+	 */
+	public void setWeight(Criterion criterion, double weight) {
+		valueFunction.setWeight(criterion, weight);
+		refreshWeights();
+	}
+
+	/**
+	 * Sets all the weights of the value function at once and updates the scores.
+	 * @param newWeights positive or zero doubles, indexed by the ordinal of the {@link Criterion}
+	 */
+	public void setWeights(double[] newWeights) {
+		valueFunction.setWeights(newWeights);
+		refreshWeights();
+	}
+
+	/**
+	 * Updates the scores after the weights of the value function have been modified directly. Only the criteria whose weight has changed are used.
+	 */
+	public void refreshWeights() {
+		double[] current = valueFunction.getWeights();
+		for (int c = 0; c < current.length; c++) {
+			double delta = current[c] - weights[c];
+			if (delta != 0) {
+				addColumn(subjectiveValues[c], delta);
+				weightSum += delta;
+				weights[c] = current[c];
+				countUpdate();
+			}
+		}
+	}
+
+	/**
+	 * Computes again the subjective values of a criterion and updates the scores, after the partial value function of this criterion has been modified in the value function.
+	 * @param criterion a valuable attribute of an apartment
+	 */
+	public void refreshCriterion(Criterion criterion) {
+		double[] oldColumn = subjectiveValues[criterion.ordinal()];
+		double[] newColumn = computeColumn(criterion);
+		double weight = weights[criterion.ordinal()];
+		if (weight != 0) {
+			for (int i = 0; i < weightedSums.length; i++) {
+				weightedSums[i] += weight * (newColumn[i] - oldColumn[i]);
+			}
+		}
+		subjectiveValues[criterion.ordinal()] = newColumn;
+		countUpdate();
+		LOGGER.info("The subjective values of {} have been computed again", criterion);
+	}
+
+	/**
+	 * @return the number of apartments in the catalogue
+	 */
+	public int size() {
+		return apartments.size();
+	}
+
+	/**
+	 * @param index the index of an apartment in the catalogue
+	 * @return the subjective value of the apartment
+	 */
+	public double getScore(int index) {
+		return weightedSums[index] / weightSum;
+	}
+
+	/**
+	 * @param criterion a valuable attribute of an apartment
+	 * @param index the index of an apartment in the catalogue
+	 * @return the subjective value of this attribute of the apartment, between 0 and 1
+	 */
+	public double getSubjectiveValue(Criterion criterion, int index) {
+		return subjectiveValues[criterion.ordinal()][index];
+	}
+
+	/**
+	 * Finds the K best apartments of the catalogue with the current preferences, without evaluating any partial value function: the explanations of the scores are built from the subjective values kept by the catalogue.
+	 * @param k the number of apartments wanted, strictly positive
+	 * @return at most K apartments with their scores, the best first, with their indices in the catalogue and the explanations of their scores
+	 */
+	public List<ScoredApartment> topK(int k) {
+		checkArgument(k > 0, "The number of apartments wanted must be strictly positive");
+		TopKHeap heap = new TopKHeap(k);
+		for (int i = 0; i < weightedSums.length; i++) {
+			heap.offer(apartments.get(i), weightedSums[i] / weightSum, i);
+		}
+		double[] normalizedWeights = new double[weights.length];
+		for (int c = 0; c < weights.length; c++) {
+			normalizedWeights[c] = weights[c] / weightSum;
+		}
+		List<ScoredApartment> best = new ArrayList<>(k);
+		for (ScoredApartment scored : heap.toSortedList(null)) {
+			best.add(new ScoredApartment(scored.getApartment(), scored.getScore(), scored.getIndex(), explain(scored.getIndex(), normalizedWeights)));
+		}
+		return best;
+	}
+
+	private ScoreExplanation explain(int index, double[] normalizedWeights) {
+		double[] values = new double[subjectiveValues.length];
+		for (int c = 0; c < values.length; c++) {
+			values[c] = subjectiveValues[c][index];
+		}
+		return ScoreExplanation.of(apartments.get(index), values, normalizedWeights);
+	}
+
+}
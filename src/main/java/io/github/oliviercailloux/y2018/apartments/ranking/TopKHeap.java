@@ -0,0 +1,122 @@
+package io.github.oliviercailloux.y2018.apartments.ranking;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.ApartmentScorer;
+
+/**
+ * A min-heap which keeps the K best apartments offered. The worst apartment kept is at the root, so that an apartment which does not beat it is rejected in constant time.
+ * An apartment beats another if its score is higher or, with equal scores, if its index is lower.
+ * The heap is stored in arrays and does not allocate after its creation. It is not thread-safe.
+ */
+class TopKHeap {
+
+	private final int k;
+	private final double[] scores;
+	private final int[] indices;
+	private final Apartment[] apartments;
+	private int size;
+
+	TopKHeap(int k) {
+		this.k = k;
+		this.scores = new double[k];
+		this.indices = new int[k];
+		this.apartments = new Apartment[k];
+		this.size = 0;
+	}
+
+	/**
+	 * @return the score that an apartment must exceed to be kept, or negative infinity while the heap is not full
+	 */
+	double threshold() {
+		return size < k ? Double.NEGATIVE_INFINITY : scores[0];
+	}
+
+	void offer(Apartment apartment, double score, int index) {
+		if (size < k) {
+			int position = size++;
+			while (position > 0) {
+				int parent = (position - 1) / 2;
+				if (!beats(scores[parent], indices[parent], score, index))
+					break;
+				set(position, scores[parent], indices[parent], apartments[parent]);
+				position = parent;
+			}
+			set(position, score, index, apartment);
+		}
+		else if (beats(score, index, 0)) {
+			siftDown(score, index, apartment);
+		}
+	}
+
+	private void siftDown(double score, int index, Apartment apartment) {
+		int position = 0;
+		while (true) {
+			int child = 2 * position + 1;
+			if (child >= size)
+				break;
+			if (child + 1 < size && beats(scores[child], indices[child], child + 1))
+				child++;
+			if (!beats(score, index, child))
+				break;
+			set(position, scores[child], indices[child], apartments[child]);
+			position = child;
+		}
+		set(position, score, index, apartment);
+	}
+
+	/**
+	 * Offers to this heap all the apartments kept by another heap.
+	 * @return this heap
+	 */
+	TopKHeap merge(TopKHeap other) {
+		for (int i = 0; i < other.size; i++) {
+			offer(other.apartments[i], other.scores[i], other.indices[i]);
+		}
+		return this;
+	}
+
+	/**
+	 * @param explainer the scorer which explains the scores of the apartments, or null if they cannot be explained
+	 * @return the apartments kept, the best first
+	 */
+	List<ScoredApartment> toSortedList(ApartmentScorer explainer) {
+		int n = size;
+		double[] savedScores = scores.clone();
+		int[] savedIndices = indices.clone();
+		Apartment[] savedApartments = apartments.clone();
+		ScoredApartment[] sorted = new ScoredApartment[n];
+		while (size > 0) {
+			sorted[size - 1] = new ScoredApartment(apartments[0], scores[0], indices[0], explainer);
+			size--;
+			if (size > 0)
+				siftDown(scores[size], indices[size], apartments[size]);
+		}
+		System.arraycopy(savedScores, 0, scores, 0, n);
+		System.arraycopy(savedIndices, 0, indices, 0, n);
+		System.arraycopy(savedApartments, 0, apartments, 0, n);
+		size = n;
+		List<ScoredApartment> result = new ArrayList<>(n);
+		for (ScoredApartment scored : sorted) {
+			result.add(scored);
+		}
+		return result;
+	}
+
+	private boolean beats(double score, int index, int position) {
+		return beats(score, index, scores[position], indices[position]);
+	}
+
+	private static boolean beats(double score, int index, double otherScore, int otherIndex) {
+		return score > otherScore || (score == otherScore && index < otherIndex);
+	}
+
+	private void set(int position, double score, int index, Apartment apartment) {
+		scores[position] = score;
+		indices[position] = index;
+		apartments[position] = apartment;
+	}
+
+}
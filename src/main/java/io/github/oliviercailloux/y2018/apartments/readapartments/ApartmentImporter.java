@@ -0,0 +1,265 @@
+package io.github.oliviercailloux.y2018.apartments.readapartments;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+
+/**
+ * This class imports the apartments of all the XML files of a directory tree, in the format read by {@link ApartmentXMLStreamReader}.
+ * The import is a pipeline of four stages linked by bounded queues: a thread walks the directories, several threads read and parse the files, each with its own reader, and the thread which called the import gives the apartments to a sink, such as a collection or an {@link io.github.oliviercailloux.y2018.apartments.apartment.ApartmentStore}.
+ * When a stage is slower than the one before, the queue between them fills up and the stage before waits, so that the memory used does not depend on the number of files.
+ * A file which cannot be read or parsed is reported in the {@link ImportReport} and the import goes on with the other files.
+ */
+public class ApartmentImporter {
+
+	/**
+	 * Tells a parsing thread that there are no more files.
+	 */
+	private static final Path NO_MORE_FILES = Paths.get("");
+
+	/**
+	 * Tells the sink that a parsing thread has finished.
+	 */
+	private static final List<Apartment> NO_MORE_APARTMENTS = new ArrayList<>(0);
+
+	private final int parallelism;
+	private final int queueCapacity;
+
+	private final static Logger LOGGER = LoggerFactory.getLogger(ApartmentImporter.class);
+
+	/**
+	 * @param parallelism the number of threads which read and parse the files, strictly positive
+	 * @param queueCapacity the number of files waiting to be parsed, and of parsed files waiting for the sink, above which the stage before waits, strictly positive
+	 */
+	public ApartmentImporter(int parallelism, int queueCapacity) {
+		checkArgument(parallelism > 0, "The parallelism must be strictly positive");
+		checkArgument(queueCapacity > 0, "The capacity of the queues must be strictly positive");
+		this.parallelism = parallelism;
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * Imports the apartments of the files whose name ends with ".xml" in a directory and its sub-directories.
+	 * The sink is called by the calling thread only, so that it does not need to be thread-safe. The apartments of a file are given in the order of the file, but the files are given in no particular order.
+	 * If the sink throws an exception, the import is stopped and the exception is thrown.
+	 * @param root the directory to import
+	 * @param sink the consumer of the apartments imported
+	 * @return the report of the import, with the files which could not be imported
+	 * @throws InterruptedException if the calling thread is interrupted, in which case the import is stopped
+	 */
+	public ImportReport importDirectory(Path root, Consumer<? super Apartment> sink) throws InterruptedException {
+		checkArgument(Files.isDirectory(root), "%s is not a directory", root);
+		checkArgument(sink != null, "The sink cannot be null");
+		long start = System.nanoTime();
+		BlockingQueue<Path> files = new ArrayBlockingQueue<>(queueCapacity);
+		BlockingQueue<List<Apartment>> parsed = new ArrayBlockingQueue<>(queueCapacity);
+		ConcurrentLinkedQueue<ImportReport.FileError> errors = new ConcurrentLinkedQueue<>();
+		LongAdder[] counts = { new LongAdder(), new LongAdder(), new LongAdder() };
+		LongAdder[] nanos = { new LongAdder(), new LongAdder(), new LongAdder() };
+		LongAdder bytesRead = new LongAdder();
+		long sinkCount = 0;
+		long sinkNanos = 0;
+
+		ExecutorService pool = Executors.newFixedThreadPool(parallelism + 1);
+		try {
+			List<Future<?>> tasks = new ArrayList<>();
+			tasks.add(pool.submit(() -> {
+				walk(root, files, errors, counts[0], nanos[0]);
+				return null;
+			}));
+			for (int i = 0; i < parallelism; i++) {
+				tasks.add(pool.submit(() -> {
+					parse(files, parsed, errors, counts[1], nanos[1], counts[2], nanos[2], bytesRead);
+					return null;
+				}));
+			}
+
+			int finished = 0;
+			while (finished < parallelism) {
+				List<Apartment> apartments = parsed.take();
+				if (apartments == NO_MORE_APARTMENTS) {
+					finished++;
+					continue;
+				}
+				long sinkStart = System.nanoTime();
+				for (Apartment apartment : apartments) {
+					sink.accept(apartment);
+				}
+				sinkNanos += System.nanoTime() - sinkStart;
+				sinkCount += apartments.size();
+			}
+			for (Future<?> task : tasks) {
+				task.get();
+			}
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new IllegalStateException(cause);
+		}
+		finally {
+			pool.shutdownNow();
+		}
+
+		List<ImportReport.Stage> stages = Arrays.asList(new ImportReport.Stage("walk", counts[0].sum(), nanos[0].sum()), new ImportReport.Stage("read", counts[1].sum(), nanos[1].sum()),
+				new ImportReport.Stage("parse", counts[2].sum(), nanos[2].sum()), new ImportReport.Stage("sink", sinkCount, sinkNanos));
+		ImportReport report = new ImportReport(stages, new ArrayList<>(errors), bytesRead.sum(), System.nanoTime() - start);
+		LOGGER.info("{} apartments have been imported from {}, {} files could not be imported", sinkCount, root, report.getErrors().size());
+		return report;
+	}
+
+	private void walk(Path root, BlockingQueue<Path> files, ConcurrentLinkedQueue<ImportReport.FileError> errors, LongAdder count, LongAdder nanos) throws InterruptedException {
+		Walker walker = new Walker(files, errors, count, nanos);
+		try {
+			Files.walkFileTree(root, walker);
+		}
+		catch (IOException | RuntimeException e) {
+			LOGGER.error("The directory {} could not be walked entirely: {}", root, e.getMessage());
+			errors.add(new ImportReport.FileError(root, e));
+		}
+		finally {
+			nanos.add(System.nanoTime() - walker.start);
+		}
+		if (walker.interrupted)
+			throw new InterruptedException();
+		for (int i = 0; i < parallelism; i++) {
+			files.put(NO_MORE_FILES);
+		}
+	}
+
+	/**
+	 * Gives the XML files of the directory tree to the parsing threads. A file or a directory which cannot be visited is reported, and the walk goes on with the others.
+	 */
+	private static class Walker extends SimpleFileVisitor<Path> {
+		private final BlockingQueue<Path> files;
+		private final ConcurrentLinkedQueue<ImportReport.FileError> errors;
+		private final LongAdder count;
+		private final LongAdder nanos;
+		private long start = System.nanoTime();
+		private boolean interrupted;
+
+		private Walker(BlockingQueue<Path> files, ConcurrentLinkedQueue<ImportReport.FileError> errors, LongAdder count, LongAdder nanos) {
+			this.files = files;
+			this.errors = errors;
+			this.count = count;
+			this.nanos = nanos;
+		}
+
+		@Override
+		public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+			if (!file.getFileName().toString().endsWith(".xml") || !Files.isRegularFile(file))
+				return FileVisitResult.CONTINUE;
+			count.increment();
+			nanos.add(System.nanoTime() - start);
+			try {
+				files.put(file);
+			}
+			catch (InterruptedException e) {
+				interrupted = true;
+				return FileVisitResult.TERMINATE;
+			}
+			start = System.nanoTime();
+			return FileVisitResult.CONTINUE;
+		}
+
+		@Override
+		public FileVisitResult visitFileFailed(Path file, IOException e) {
+			LOGGER.error("The file or directory {} could not be visited: {}", file, e.getMessage());
+			errors.add(new ImportReport.FileError(file, e));
+			return FileVisitResult.CONTINUE;
+		}
+
+		@Override
+		public FileVisitResult postVisitDirectory(Path directory, IOException e) {
+			if (e != null) {
+				LOGGER.error("The directory {} could not be read entirely: {}", directory, e.getMessage());
+				errors.add(new ImportReport.FileError(directory, e));
+			}
+			return FileVisitResult.CONTINUE;
+		}
+	}
+
+	/**
+	 * Parses files until there are no more of them, then tells the sink that this thread has finished, unless the import has been stopped.
+	 */
+	private static void parse(BlockingQueue<Path> files, BlockingQueue<List<Apartment>> parsed, ConcurrentLinkedQueue<ImportReport.FileError> errors, LongAdder readCount, LongAdder readNanos, LongAdder parseCount, LongAdder parseNanos, LongAdder bytesRead) throws InterruptedException {
+		boolean stopped = false;
+		try {
+			while (true) {
+				Path file = files.take();
+				if (file == NO_MORE_FILES)
+					return;
+
+				long start = System.nanoTime();
+				byte[] bytes;
+				try {
+					bytes = Files.readAllBytes(file);
+				}
+				catch (IOException e) {
+					LOGGER.error("The file {} could not be read: {}", file, e.getMessage());
+					errors.add(new ImportReport.FileError(file, e));
+					continue;
+				}
+				finally {
+					readNanos.add(System.nanoTime() - start);
+				}
+				readCount.increment();
+				bytesRead.add(bytes.length);
+
+				start = System.nanoTime();
+				List<Apartment> apartments = new ArrayList<>(1);
+				try (ApartmentXMLStreamReader reader = new ApartmentXMLStreamReader(new ByteArrayInputStream(bytes))) {
+					while (reader.hasNext()) {
+						apartments.add(reader.next());
+					}
+				}
+				catch (IOException | RuntimeException e) {
+					LOGGER.error("The file {} could not be parsed: {}", file, e.getMessage());
+					errors.add(new ImportReport.FileError(file, e));
+					continue;
+				}
+				finally {
+					parseNanos.add(System.nanoTime() - start);
+				}
+				parseCount.add(apartments.size());
+				parsed.put(apartments);
+			}
+		}
+		catch (InterruptedException e) {
+			stopped = true;
+			throw e;
+		}
+		finally {
+			if (!stopped)
+				parsed.put(NO_MORE_APARTMENTS);
+		}
+	}
+
+}
@@ -0,0 +1,289 @@
+package io.github.oliviercailloux.y2018.apartments.readapartments;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.InvalidPropertiesFormatException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+
+/**
+ * This class reads apartments from XML documents in the format of {@link java.util.Properties#storeToXML(java.io.OutputStream, String)}, one {@code properties} element per apartment, as {@link ReadApartmentsXMLFormat} does.
+ * A document may contain a single {@code properties} element, as the files written by {@link io.github.oliviercailloux.y2018.apartments.toxmlproperties.XMLProperties}, or any number of them under another root element, for example {@code <apartments><properties>…</properties><properties>…</properties></apartments>}.
+ * The document is read with StAX, one event after the other, and the values of the entries are set directly into the attributes of the apartment being read, without going through a {@link java.util.Properties}: the memory used does not depend on the number of apartments of the document.
+ * The DTD declared by the documents is not loaded. The apartments are read as they are asked for, and an error in an apartment is thrown when this apartment is reached.
+ * A reader is not thread-safe, but several readers can be used by several threads.
+ */
+public class ApartmentXMLStreamReader implements Iterator<Apartment>, Closeable {
+
+	private static final XMLInputFactory FACTORY = newFactory();
+
+	private final InputStream input;
+	private final XMLStreamReader reader;
+	private Apartment next;
+	private boolean ended;
+	private int count;
+
+	private final static Logger LOGGER = LoggerFactory.getLogger(ApartmentXMLStreamReader.class);
+
+	private static XMLInputFactory newFactory() {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+		return factory;
+	}
+
+	/**
+	 * @param input the XML document, closed when the reader is closed
+	 * @throws IOException if the document is not well-formed XML
+	 */
+	public ApartmentXMLStreamReader(InputStream input) throws IOException {
+		checkArgument(input != null, "The input cannot be null");
+		this.input = input;
+		try {
+			this.reader = FACTORY.createXMLStreamReader(input);
+		}
+		catch (XMLStreamException e) {
+			input.close();
+			throw new IOException(e);
+		}
+	}
+
+	/**
+	 * @throws UncheckedIOException if the document is not well-formed, or if an apartment misses its floor area, address or title
+	 * @throws NumberFormatException if a number of the next apartment is not valid
+	 */
+	@Override
+	public boolean hasNext() {
+		if (next == null && !ended) {
+			try {
+				next = readNext();
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			ended = next == null;
+		}
+		return next != null;
+	}
+
+	/**
+	 * @throws UncheckedIOException if the document is not well-formed, or if an apartment misses its floor area, address or title
+	 * @throws NumberFormatException if a number of the apartment is not valid
+	 */
+	@Override
+	public Apartment next() {
+		if (!hasNext())
+			throw new NoSuchElementException();
+		Apartment apartment = next;
+		next = null;
+		count++;
+		return apartment;
+	}
+
+	private Apartment readNext() throws IOException {
+		try {
+			while (reader.hasNext()) {
+				if (reader.next() == XMLStreamConstants.START_ELEMENT && reader.getLocalName().equals("properties"))
+					return readProperties();
+			}
+			return null;
+		}
+		catch (XMLStreamException e) {
+			throw new IOException(e);
+		}
+	}
+
+	/**
+	 * Reads the entries of a {@code properties} element into the attributes of an apartment, the cursor being on the start of the element.
+	 * As with {@link java.util.Properties}, an entry overrides an earlier entry with the same key.
+	 */
+	private Apartment readProperties() throws XMLStreamException, IOException {
+		Double floorArea = null;
+		String address = null;
+		String title = null;
+		String description = null;
+		Integer nbBathrooms = null;
+		Boolean terrace = null;
+		Double floorAreaTerrace = null;
+		Boolean wifi = null;
+		Boolean tele = null;
+		Integer nbSleeping = null;
+		Integer nbBedrooms = null;
+		Double pricePerNight = null;
+		Integer nbMinNight = null;
+
+		int depth = 1;
+		while (depth > 0) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.END_ELEMENT) {
+				depth--;
+				continue;
+			}
+			if (event != XMLStreamConstants.START_ELEMENT)
+				continue;
+			if (!reader.getLocalName().equals("entry")) {
+				depth++;
+				continue;
+			}
+			String key = reader.getAttributeValue(null, "key");
+			String value = reader.getElementText();
+			if (key == null)
+				throw new InvalidPropertiesFormatException("An entry has no key at " + reader.getLocation());
+			switch (key) {
+			case "floorArea":
+				floorArea = Double.parseDouble(value);
+				break;
+			case "address":
+				address = value;
+				break;
+			case "title":
+				title = value;
+				break;
+			case "description":
+				description = value;
+				break;
+			case "nbBathrooms":
+				nbBathrooms = Integer.parseInt(value);
+				break;
+			case "terrace":
+				terrace = Boolean.valueOf(value);
+				break;
+			case "floorAreaTerrace":
+				floorAreaTerrace = Double.parseDouble(value);
+				break;
+			case "wifi":
+				wifi = Boolean.valueOf(value);
+				break;
+			case "tele":
+				tele = Boolean.valueOf(value);
+				break;
+			case "nbSleeping":
+				nbSleeping = Integer.parseInt(value);
+				break;
+			case "nbBedrooms":
+				nbBedrooms = Integer.parseInt(value);
+				break;
+			case "pricePerNight":
+				pricePerNight = Double.parseDouble(value);
+				break;
+			case "nbMinNight":
+				nbMinNight = Integer.parseInt(value);
+				break;
+			default:
+				break;
+			}
+		}
+
+		if (floorArea == null || address == null || title == null) {
+			LOGGER.error("Impossible to create an apartment if a floor Area, a title or an address is missing.");
+			throw new InvalidPropertiesFormatException("Capital information left for the creation of the apartment " + (count + 1));
+		}
+		Apartment apartment = new Apartment(floorArea, address, title);
+		if (description != null)
+			apartment.setDescription(description);
+		if (nbBathrooms != null)
+			apartment.setNbBathrooms(nbBathrooms);
+		if (terrace != null)
+			apartment.setTerrace(terrace);
+		if (floorAreaTerrace != null)
+			apartment.setFloorAreaTerrace(floorAreaTerrace);
+		if (wifi != null)
+			apartment.setWifi(wifi);
+		if (tele != null)
+			apartment.setTele(tele);
+		if (nbSleeping != null)
+			apartment.setNbSleeping(nbSleeping);
+		if (nbBedrooms != null)
+			apartment.setNbBedrooms(nbBedrooms);
+		if (pricePerNight != null)
+			apartment.setPricePerNight(pricePerNight);
+		if (nbMinNight != null)
+			apartment.setNbMinNight(nbMinNight);
+		return apartment;
+	}
+
+	/**
+	 * @return the number of apartments returned so far
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Closes the reader and the input.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			reader.close();
+		}
+		catch (XMLStreamException e) {
+			throw new IOException(e);
+		}
+		finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Returns the apartments of a document as a sequential stream, which must be closed to close the input.
+	 * @param input the XML document
+	 * @return the apartments of the document, in the order of the document
+	 * @throws IOException if the document is not well-formed XML
+	 */
+	public static Stream<Apartment> stream(InputStream input) throws IOException {
+		ApartmentXMLStreamReader iterator = new ApartmentXMLStreamReader(input);
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(() -> {
+			try {
+				iterator.close();
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	/**
+	 * Returns the apartments of an XML file, or of all the XML files of a directory, as a sequential stream, which must be closed to close the files.
+	 * The files of a directory are those whose name ends with ".xml", in no particular order, and each one is opened when the apartments before it have been read, so that at most one file is open at a time. The sub-directories are not read.
+	 * @param path an XML file, or a directory of XML files
+	 * @return the apartments of the file or of the files
+	 * @throws IOException if the file or the directory cannot be read
+	 */
+	public static Stream<Apartment> stream(Path path) throws IOException {
+		if (!Files.isDirectory(path))
+			return stream(new BufferedInputStream(Files.newInputStream(path)));
+		Stream<Path> files = Files.list(path).filter((file) -> file.getFileName().toString().endsWith(".xml") && Files.isRegularFile(file));
+		return files.flatMap((file) -> {
+			try {
+				return stream(new BufferedInputStream(Files.newInputStream(file)));
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException("The file " + file + " cannot be read", e);
+			}
+		});
+	}
+
+}
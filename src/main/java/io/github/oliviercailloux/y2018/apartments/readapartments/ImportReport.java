@@ -0,0 +1,150 @@
+package io.github.oliviercailloux.y2018.apartments.readapartments;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What an {@link ApartmentImporter} has done: the number of items handled by each stage of the import and the time spent in it, and the files which could not be imported.
+ */
+public class ImportReport {
+
+	/**
+	 * A stage of the import, with the number of items it has handled and the time spent handling them, summed over the threads of the stage.
+	 */
+	public static class Stage {
+		private final String name;
+		private final long count;
+		private final long nanos;
+
+		Stage(String name, long count, long nanos) {
+			this.name = name;
+			this.count = count;
+			this.nanos = nanos;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return the number of files or apartments handled by the stage
+		 */
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * @return the time spent in the stage, in nanoseconds, summed over its threads
+		 */
+		public long getNanos() {
+			return nanos;
+		}
+
+		/**
+		 * @return the number of items handled per second by one thread of the stage, or 0 if no time has been spent in it
+		 */
+		public double getThroughput() {
+			return nanos == 0 ? 0 : count * 1e9 / nanos;
+		}
+
+		@Override
+		public String toString() {
+			return name + ": " + count + " in " + TimeUnit.NANOSECONDS.toMillis(nanos) + " ms (" + Math.round(getThroughput()) + "/s)";
+		}
+	}
+
+	/**
+	 * A file which could not be imported, with the reason.
+	 */
+	public static class FileError {
+		private final Path file;
+		private final Exception cause;
+
+		FileError(Path file, Exception cause) {
+			this.file = file;
+			this.cause = cause;
+		}
+
+		public Path getFile() {
+			return file;
+		}
+
+		/**
+		 * @return the exception thrown while reading or parsing the file
+		 */
+		public Exception getCause() {
+			return cause;
+		}
+
+		@Override
+		public String toString() {
+			return file + ": " + cause;
+		}
+	}
+
+	private final List<Stage> stages;
+	private final List<FileError> errors;
+	private final long bytesRead;
+	private final long elapsedNanos;
+
+	ImportReport(List<Stage> stages, List<FileError> errors, long bytesRead, long elapsedNanos) {
+		this.stages = Collections.unmodifiableList(new ArrayList<>(stages));
+		this.errors = Collections.unmodifiableList(new ArrayList<>(errors));
+		this.bytesRead = bytesRead;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * @return the stages of the import, in the order in which the items go through them: the walk of the directories, the read and the parse of the files, and the sink of the apartments
+	 */
+	public List<Stage> getStages() {
+		return stages;
+	}
+
+	/**
+	 * @param name the name of a stage
+	 * @return the stage of this name
+	 * @throws IllegalArgumentException if there is no such stage
+	 */
+	public Stage getStage(String name) {
+		for (Stage stage : stages) {
+			if (stage.getName().equals(name))
+				return stage;
+		}
+		throw new IllegalArgumentException("There is no stage " + name);
+	}
+
+	/**
+	 * @return the files which could not be imported, in no particular order
+	 */
+	public List<FileError> getErrors() {
+		return errors;
+	}
+
+	/**
+	 * @return the number of bytes of the files read
+	 */
+	public long getBytesRead() {
+		return bytesRead;
+	}
+
+	/**
+	 * @return the duration of the whole import, in nanoseconds
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("Import in ").append(TimeUnit.NANOSECONDS.toMillis(elapsedNanos)).append(" ms, ").append(bytesRead).append(" bytes read, ").append(errors.size()).append(" files in error");
+		for (Stage stage : stages) {
+			builder.append(System.lineSeparator()).append("  ").append(stage);
+		}
+		return builder.toString();
+	}
+
+}
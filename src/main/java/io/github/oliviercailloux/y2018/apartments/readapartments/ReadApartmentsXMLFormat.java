@@ -13,17 +13,16 @@ import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
 /**
  * 
  * This class enables the user to load an XML file for an apartment and transform it to an apartment object.
+ * Each file is read into its own {@link Properties}, so that a reader can be used for several files, and by several threads.
+ * To read many apartments, {@link ApartmentXMLStreamReader} is faster.
  *
  */
 public class ReadApartmentsXMLFormat {
 	
-	private Properties prop;
-	
 	private final static Logger LOGGER = LoggerFactory.getLogger(ReadApartmentsXMLFormat.class);
 
 	public ReadApartmentsXMLFormat() {
 		
-		prop = new Properties();
 	}
 
 	
@@ -35,11 +34,12 @@ public class ReadApartmentsXMLFormat {
 	 */
 	public Apartment readApartment(InputStream input) throws IOException, NumberFormatException, InvalidPropertiesFormatException{
 		
-		LOGGER.info("Enter readApartment method");
+		LOGGER.debug("Enter readApartment method");
 		
+		Properties prop = new Properties();
 		prop.loadFromXML(input);
 		
-		LOGGER.info("XML Files loaded with success");
+		LOGGER.debug("XML Files loaded with success");
 		
 		if (prop.containsKey("floorArea")==false || prop.containsKey("address")==false || prop.containsKey("title")==false) {
 			LOGGER.error("Impossible to create an apartment if a floor Area, a title or an address is missing.");
@@ -69,8 +69,8 @@ public class ReadApartmentsXMLFormat {
 		if (prop.containsKey("nbMinNight"))
 			apartment.setNbMinNight(Integer.parseInt(prop.getProperty("nbMinNight")));
 		
-		LOGGER.info("Parameters inserted with success in the Apartment Object");
-		LOGGER.info("Leave readApartment method");
+		LOGGER.debug("Parameters inserted with success in the Apartment Object");
+		LOGGER.debug("Leave readApartment method");
 		
 		return apartment;
 	}
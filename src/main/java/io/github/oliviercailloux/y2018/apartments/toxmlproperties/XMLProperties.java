@@ -1,73 +1,150 @@
 package io.github.oliviercailloux.y2018.apartments.toxmlproperties;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.lang.reflect.Field;
-import java.util.Properties;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.w3c.dom.DOMException;
+
 import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentView;
 
+/**
+ * This class writes apartments in the XML format of {@link java.util.Properties#storeToXML(OutputStream, String)}, one entry per attribute, as read by {@link io.github.oliviercailloux.y2018.apartments.readapartments.ReadApartmentsXMLFormat}.
+ * The attributes are written directly from the getters of the apartment, always in the same order, without reflection nor intermediate {@link java.util.Properties}.
+ * An instance holds no state, so that it can be shared by several threads.
+ */
 public class XMLProperties{
 
-	
-	private Properties properties;
-	
 	private final static Logger LOGGER = LoggerFactory.getLogger(XMLProperties.class);
-	
+
 	public XMLProperties()
 	{
-		this.properties = new Properties();
 	}
+
 	/**
-	 *  toXml transform an Apartment into an xml File. The user specify the file in parameter
+	 *  toXml writes an apartment as an XML document in the properties format. The stream is flushed but not closed, the caller who opened it has to close it.
 	 * @param a
-	 * 		the apartment to put into an xml file
+	 * 		the apartment to write, for example an {@link Apartment}
 	 * @param xmlFile
-	 * 			an file object where the apartment will be store. Warning : if the file already exists, it will be erased.
-	 * @throws IOException
-	 * @throws IllegalArgumentException
-	 * @throws IllegalAccessException
+	 * 			the stream where the apartment will be written, in UTF-8
+	 * @throws IOException if the stream cannot be written
 	 */
-	public void toXML(Apartment a, OutputStream xmlFile) throws IOException, IllegalArgumentException, IllegalAccessException
+	public void toXML(ApartmentView a, OutputStream xmlFile) throws IOException
 	{
-			
-			for(Field f : a.getClass().getDeclaredFields()) {
-				
-				String[] fullName = f.toString().split(" ")[2].split("\\.");
-				
-				f.setAccessible(true);
-				properties.setProperty(fullName[fullName.length-1],f.get(a).toString());
-				
-				LOGGER.info("Adding entry : " + fullName[fullName.length-1] + " : " + f.get(a));
-			
+		checkArgument(a != null, "The apartment cannot be null");
+		Writer writer = new BufferedWriter(new OutputStreamWriter(xmlFile, StandardCharsets.UTF_8));
+		writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\n");
+		writer.write("<!DOCTYPE properties SYSTEM \"http://java.sun.com/dtd/properties.dtd\">\n");
+		writeProperties(a, "Generated file for the apartment " + a.getTitle(), writer);
+		writer.flush();
+		LOGGER.debug("The apartment {} has been written", a.getTitle());
+	}
+
+	/**
+	 * Writes several apartments as one XML document, with one {@code properties} element per apartment under an {@code apartments} root element, in the format read by {@link io.github.oliviercailloux.y2018.apartments.readapartments.ApartmentXMLStreamReader}.
+	 * The apartments are written as they are read, so that the memory used does not depend on their number. The stream is flushed but not closed.
+	 * @param apartments the apartments to write, for example a list of {@link Apartment} or the views of an {@link io.github.oliviercailloux.y2018.apartments.apartment.ApartmentStore}
+	 * @param xmlFile the stream where the apartments will be written, in UTF-8
+	 * @return the number of apartments written
+	 * @throws IOException if the stream cannot be written
+	 */
+	public int toXML(Iterable<? extends ApartmentView> apartments, OutputStream xmlFile) throws IOException
+	{
+		checkArgument(apartments != null, "The apartments cannot be null");
+		Writer writer = new BufferedWriter(new OutputStreamWriter(xmlFile, StandardCharsets.UTF_8), 1 << 16);
+		writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\n");
+		writer.write("<apartments>\n");
+		int count = 0;
+		for (ApartmentView a : apartments) {
+			writeProperties(a, null, writer);
+			count++;
+		}
+		writer.write("</apartments>\n");
+		writer.flush();
+		LOGGER.info("{} apartments have been written", count);
+		return count;
+	}
+
+	private static void writeProperties(ApartmentView a, String comment, Writer writer) throws IOException {
+		writer.write("<properties>\n");
+		if (comment != null) {
+			writer.write("<comment>");
+			escape(comment, writer);
+			writer.write("</comment>\n");
+		}
+		writeEntry("floorArea", Double.toString(a.getFloorArea()), writer);
+		writeEntry("address", a.getAddress(), writer);
+		writeEntry("nbBedrooms", Integer.toString(a.getNbBedrooms()), writer);
+		writeEntry("nbSleeping", Integer.toString(a.getNbSleeping()), writer);
+		writeEntry("nbBathrooms", Integer.toString(a.getNbBathrooms()), writer);
+		writeEntry("terrace", a.getTerrace() ? "true" : "false", writer);
+		writeEntry("floorAreaTerrace", Double.toString(a.getFloorAreaTerrace()), writer);
+		writeEntry("description", a.getDescription(), writer);
+		writeEntry("title", a.getTitle(), writer);
+		writeEntry("wifi", a.getWifi() ? "true" : "false", writer);
+		writeEntry("pricePerNight", Double.toString(a.getPricePerNight()), writer);
+		writeEntry("nbMinNight", Integer.toString(a.getNbMinNight()), writer);
+		writeEntry("tele", a.getTele() ? "true" : "false", writer);
+		writer.write("</properties>\n");
+	}
+
+	private static void writeEntry(String key, String value, Writer writer) throws IOException {
+		writer.write("<entry key=\"");
+		writer.write(key);
+		writer.write("\">");
+		escape(value, writer);
+		writer.write("</entry>\n");
+	}
+
+	/**
+	 * Writes a text with the characters which have a meaning in XML replaced by references, as a {@link java.util.Properties} does, the carriage returns included so that they are read back as such.
+	 */
+	private static void escape(String text, Writer writer) throws IOException {
+		int start = 0;
+		for (int i = 0; i < text.length(); i++) {
+			String reference;
+			switch (text.charAt(i)) {
+			case '&':
+				reference = "&amp;";
+				break;
+			case '<':
+				reference = "&lt;";
+				break;
+			case '>':
+				reference = "&gt;";
+				break;
+			case '"':
+				reference = "&quot;";
+				break;
+			case '\r':
+				reference = "&#13;";
+				break;
+			default:
+				continue;
 			}
-				properties.remove("apartment");
-				properties.remove("LOGGER");
-				properties.remove("Logger");
-				properties.storeToXML(xmlFile, "Generated file for the apartment " + a.getTitle() );
-				
-				xmlFile.close();
-				LOGGER.info("Stream has been closed");
-//			}
-		
+			writer.write(text, start, i - start);
+			writer.write(reference);
+			start = i + 1;
+		}
+		writer.write(text, start, text.length() - start);
 	}
-	
 
 	/**
 	 * This is the main function
-	 * 
+	 *
 	 * @param args
-	 * @throws IllegalAccessException 
-	 * @throws IllegalArgumentException 
-	 * @throws DOMException 
-	 * @throws IOException 
+	 * @throws IOException
 	 */
-	public static void main(String[] args) throws DOMException, IllegalArgumentException, IllegalAccessException, IOException {
+	public static void main(String[] args) throws IOException {
 		XMLProperties j = new XMLProperties();
 		Apartment a = new Apartment(80.5, "6 rue des paquerette 74000 Annecy", "Petit Manoir de campagne");
 		File f = new File("src/test/resources/xmlfile.xml");
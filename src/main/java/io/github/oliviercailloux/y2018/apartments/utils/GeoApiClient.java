@@ -0,0 +1,186 @@
+package io.github.oliviercailloux.y2018.apartments.utils;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.maps.GeoApiContext;
+import com.google.maps.PendingResult;
+import com.google.maps.errors.ApiException;
+
+/**
+ * This class manages one {@link GeoApiContext}, which owns an HTTP client with its connection pool and its threads, so that every request to Google Maps made with the same API key reuses the same connections.
+ * The number of concurrent requests is bounded, the requests can be measured (requests in flight, latency histogram), and the client can be shut down gracefully.
+ * A client obtained with {@link #shared(String)} is used by several objects which do not know each other, so that none of them may close it: the shared clients are closed together by {@link #closeShared()}, called at the latest when the JVM shuts down.
+ */
+public class GeoApiClient implements Closeable {
+
+	/**
+	 * The default maximum number of requests waiting for a response at the same time.
+	 */
+	public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 16;
+
+	/**
+	 * The upper bounds, in milliseconds, of the buckets of the latency histogram. The last bucket of the histogram counts the requests slower than the last bound.
+	 */
+	private static final long[] LATENCY_BOUNDS_MILLIS = { 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000 };
+
+	private static final Map<String, GeoApiClient> SHARED = new ConcurrentHashMap<>();
+
+	private static final AtomicBoolean SHUTDOWN_HOOK_ADDED = new AtomicBoolean();
+
+	private final String apiKey;
+	private final GeoApiContext context;
+	private final int maxConcurrentRequests;
+	private final Semaphore permits;
+	private final AtomicInteger inFlightRequests = new AtomicInteger();
+	private final AtomicLongArray latencyHistogram = new AtomicLongArray(LATENCY_BOUNDS_MILLIS.length + 1);
+	private final boolean shared;
+	private final AtomicBoolean closed = new AtomicBoolean();
+
+	private final static Logger LOGGER = LoggerFactory.getLogger(GeoApiClient.class);
+
+	/**
+	 * Returns the client shared by all the code using the API key in parameter, creating it the first time.
+	 * @param apiKey String which corresponds to the API Key
+	 * @return the shared client, which cannot be closed by its users
+	 * @throws IllegalStateException if the api key is not valid
+	 */
+	public static GeoApiClient shared(String apiKey) {
+		checkArgument(apiKey != null, "The api key cannot be null");
+		if (SHUTDOWN_HOOK_ADDED.compareAndSet(false, true))
+			Runtime.getRuntime().addShutdownHook(new Thread(GeoApiClient::closeShared, "Google Maps clients shutdown"));
+		return SHARED.computeIfAbsent(apiKey, (key) -> new GeoApiClient(key, DEFAULT_MAX_CONCURRENT_REQUESTS, true));
+	}
+
+	/**
+	 * Closes all the shared clients, as {@link #close()} does, so that the next call to {@link #shared(String)} creates a new client.
+	 * This is meant to be called when the application stops, once the objects using the shared clients are not used anymore.
+	 */
+	public static void closeShared() {
+		for (GeoApiClient client : SHARED.values()) {
+			if (SHARED.remove(client.apiKey, client))
+				client.shutdown();
+		}
+	}
+
+	/**
+	 * Creates a client which is not shared.
+	 * @param apiKey String which corresponds to the API Key
+	 * @param maxConcurrentRequests the maximum number of requests waiting for a response at the same time, strictly positive
+	 * @throws IllegalStateException if the api key is not valid
+	 */
+	public GeoApiClient(String apiKey, int maxConcurrentRequests) {
+		this(apiKey, maxConcurrentRequests, false);
+	}
+
+	private GeoApiClient(String apiKey, int maxConcurrentRequests, boolean shared) {
+		checkArgument(maxConcurrentRequests > 0, "The maximum number of concurrent requests must be strictly positive");
+		this.apiKey = apiKey;
+		this.maxConcurrentRequests = maxConcurrentRequests;
+		this.shared = shared;
+		this.permits = new Semaphore(maxConcurrentRequests, true);
+		this.context = new GeoApiContext.Builder().apiKey(apiKey).connectTimeout(10, TimeUnit.SECONDS).readTimeout(30, TimeUnit.SECONDS).build();
+		LOGGER.info("A Google Maps client allowing {} concurrent requests has been created", maxConcurrentRequests);
+	}
+
+	/**
+	 * Sends a request and waits for its result. The request waits first if the maximum number of concurrent requests is reached.
+	 * @param request a function which builds the request from the context, for example <code>context -&gt; GeocodingApi.newRequest(context).address(address)</code>
+	 * @return the result of the request
+	 * @throws ApiException if Google Maps returns an error
+	 * @throws InterruptedException if the thread is interrupted while waiting
+	 * @throws IOException if Google Maps cannot be reached
+	 * @throws IllegalStateException if the client is closed
+	 */
+	public <T> T execute(Function<GeoApiContext, PendingResult<T>> request) throws ApiException, InterruptedException, IOException {
+		checkState(!closed.get(), "The Google Maps client is closed");
+		permits.acquire();
+		try {
+			checkState(!closed.get(), "The Google Maps client is closed");
+			inFlightRequests.incrementAndGet();
+			long start = System.nanoTime();
+			try {
+				return request.apply(context).await();
+			}
+			finally {
+				recordLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+				inFlightRequests.decrementAndGet();
+			}
+		}
+		finally {
+			permits.release();
+		}
+	}
+
+	private void recordLatency(long millis) {
+		int bucket = 0;
+		while (bucket < LATENCY_BOUNDS_MILLIS.length && millis > LATENCY_BOUNDS_MILLIS[bucket]) {
+			bucket++;
+		}
+		latencyHistogram.incrementAndGet(bucket);
+	}
+
+	/**
+	 * @return the number of requests currently waiting for a response
+	 */
+	public int getInFlightRequests() {
+		return inFlightRequests.get();
+	}
+
+	/**
+	 * @return the upper bounds, in milliseconds, of the buckets of the latency histogram, except the last bucket which has no bound
+	 */
+	public static long[] getLatencyBoundsMillis() {
+		return LATENCY_BOUNDS_MILLIS.clone();
+	}
+
+	/**
+	 * @return the number of requests whose latency fell in each bucket since the creation of the client, the bucket i counting the latencies not greater than {@link #getLatencyBoundsMillis()}[i] and greater than the previous bound
+	 */
+	public long[] getLatencyHistogram() {
+		long[] histogram = new long[latencyHistogram.length()];
+		for (int i = 0; i < histogram.length; i++) {
+			histogram[i] = latencyHistogram.get(i);
+		}
+		return histogram;
+	}
+
+	/**
+	 * Refuses new requests, waits for the requests in flight to finish (at most 30 seconds), then releases the connections and the threads of the client.
+	 * @throws IllegalStateException if the client is shared, in which case it is closed by {@link #closeShared()}
+	 */
+	@Override
+	public void close() {
+		checkState(!shared, "A shared Google Maps client is closed by closeShared()");
+		shutdown();
+	}
+
+	private void shutdown() {
+		if (!closed.compareAndSet(false, true))
+			return;
+		try {
+			if (!permits.tryAcquire(maxConcurrentRequests, 30, TimeUnit.SECONDS))
+				LOGGER.error("{} Google Maps requests were still in flight when the client was closed", inFlightRequests.get());
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		context.shutdown();
+		LOGGER.info("The Google Maps client has been closed");
+	}
+
+}
@@ -0,0 +1,287 @@
+package io.github.oliviercailloux.y2018.apartments.utils;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class stores the entries of a cache in a local text file, so that they survive a restart, and reads them back by key.
+ * Each line of the file is an entry made of its expiration time, its key fields and its value, separated by tabulations.
+ * Entries are appended to the file as they are added. Only the position in the file of the last line of each key is kept in memory: the entry itself is read from the file when it is asked for.
+ * The file is compacted, expired entries and entries overwritten by a later line being removed, when it is opened, and while it is open as soon as most of its lines are overwritten entries.
+ */
+public class PersistentCacheFile implements Closeable {
+
+	/**
+	 * The number of lines below which the file is not compacted while it is open.
+	 */
+	private static final int MIN_COMPACTION_LINES = 1024;
+
+	private final Path file;
+	/**
+	 * The position in the file of the line of each key, from the oldest to the most recently written.
+	 */
+	private Map<List<String>, Long> offsets;
+	private FileChannel channel;
+	private long end;
+	private int lines;
+
+	private final static Logger LOGGER = LoggerFactory.getLogger(PersistentCacheFile.class);
+
+	/**
+	 * An entry of the cache, with the time after which it must not be used anymore.
+	 */
+	public static class Entry {
+		private final String value;
+		private final long expirationMillis;
+
+		public Entry(String value, long expirationMillis) {
+			this.value = value;
+			this.expirationMillis = expirationMillis;
+		}
+
+		public String getValue() {
+			return value;
+		}
+
+		/**
+		 * @return the expiration time in milliseconds since the epoch
+		 */
+		public long getExpirationMillis() {
+			return expirationMillis;
+		}
+	}
+
+	/**
+	 * Opens the file, creating it if it does not exist, and indexes the entries which have not expired.
+	 * @param file the path of the file
+	 * @param nowMillis the current time in milliseconds since the epoch
+	 * @throws IOException if the file cannot be read or compacted
+	 */
+	public PersistentCacheFile(Path file, long nowMillis) throws IOException {
+		this.file = file;
+		offsets = new LinkedHashMap<>();
+		boolean terminated = true;
+		if (Files.exists(file)) {
+			try (InputStream input = new BufferedInputStream(Files.newInputStream(file))) {
+				ByteArrayOutputStream line = new ByteArrayOutputStream();
+				long offset = 0;
+				long position = 0;
+				int b;
+				while ((b = input.read()) != -1) {
+					position++;
+					if (b == '\n') {
+						index(new String(line.toByteArray(), StandardCharsets.UTF_8), offset, nowMillis);
+						offset = position;
+						line.reset();
+					}
+					else {
+						line.write(b);
+					}
+				}
+				if (line.size() > 0) {
+					terminated = false;
+					index(new String(line.toByteArray(), StandardCharsets.UTF_8), offset, nowMillis);
+				}
+			}
+		}
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		end = channel.size();
+		if (lines != offsets.size() || !terminated) {
+			int before = lines;
+			compact();
+			LOGGER.info("The cache file {} has been compacted from {} to {} entries", file, before, offsets.size());
+		}
+	}
+
+	private void index(String line, long offset, long nowMillis) {
+		lines++;
+		List<String> key = new ArrayList<>();
+		Entry entry = parse(line, key);
+		if (entry == null) {
+			LOGGER.error("The line {} of the cache file {} is not valid, it is ignored", line, file);
+			return;
+		}
+		offsets.remove(key);
+		if (entry.getExpirationMillis() > nowMillis)
+			offsets.put(Collections.unmodifiableList(key), offset);
+	}
+
+	/**
+	 * @param key filled with the fields of the key of the line
+	 * @return the entry of the line, or <code>null</code> if the line is not valid
+	 */
+	private static Entry parse(String line, List<String> key) {
+		if (line.endsWith("\r"))
+			line = line.substring(0, line.length() - 1);
+		String[] fields = line.split("\t", -1);
+		if (fields.length < 2)
+			return null;
+		long expirationMillis;
+		try {
+			expirationMillis = Long.parseLong(fields[0]);
+		}
+		catch (NumberFormatException e) {
+			return null;
+		}
+		for (int i = 1; i < fields.length - 1; i++) {
+			key.add(unescape(fields[i]));
+		}
+		return new Entry(unescape(fields[fields.length - 1]), expirationMillis);
+	}
+
+	/**
+	 * Rewrites the lines indexed in a temporary file, which then replaces the file.
+	 */
+	private void compact() throws IOException {
+		Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+		Map<List<String>, Long> compacted = new LinkedHashMap<>();
+		long position = 0;
+		try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(temporary))) {
+			for (Map.Entry<List<String>, Long> offset : offsets.entrySet()) {
+				byte[] line = readLine(offset.getValue());
+				output.write(line);
+				output.write('\n');
+				compacted.put(offset.getKey(), position);
+				position += line.length + 1;
+			}
+		}
+		channel.close();
+		channel = null;
+		Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		offsets = compacted;
+		end = position;
+		lines = compacted.size();
+	}
+
+	/**
+	 * @return the bytes of the line which starts at the offset, without its end
+	 */
+	private byte[] readLine(long offset) throws IOException {
+		ByteArrayOutputStream line = new ByteArrayOutputStream();
+		ByteBuffer buffer = ByteBuffer.allocate(256);
+		long position = offset;
+		while (position < end) {
+			buffer.clear();
+			int read = channel.read(buffer, position);
+			if (read < 0)
+				break;
+			for (int i = 0; i < read; i++) {
+				byte b = buffer.get(i);
+				if (b == '\n')
+					return line.toByteArray();
+				line.write(b);
+			}
+			position += read;
+		}
+		return line.toByteArray();
+	}
+
+	/**
+	 * @return the keys of the entries indexed, from the oldest to the most recently written, some of which may have expired since the file was opened
+	 */
+	public synchronized List<List<String>> getKeys() {
+		return new ArrayList<>(offsets.keySet());
+	}
+
+	/**
+	 * Reads the entry of a key from the file.
+	 * @param key the fields of the key
+	 * @param nowMillis the current time in milliseconds since the epoch
+	 * @return the last entry written for the key, or <code>null</code> if there is none or if it has expired
+	 * @throws IOException if the file cannot be read
+	 */
+	public synchronized Entry get(List<String> key, long nowMillis) throws IOException {
+		checkState(channel != null, "The cache file is closed");
+		Long offset = offsets.get(key);
+		if (offset == null)
+			return null;
+		Entry entry = parse(new String(readLine(offset), StandardCharsets.UTF_8), new ArrayList<>());
+		if (entry == null || entry.getExpirationMillis() <= nowMillis) {
+			offsets.remove(key);
+			return null;
+		}
+		return entry;
+	}
+
+	/**
+	 * Appends an entry to the file, then compacts the file if most of its lines are overwritten entries. The entry is written to the file before the method returns.
+	 * @param key the fields of the key
+	 * @param entry the value of the key and its expiration time
+	 * @throws IOException if the entry cannot be written
+	 */
+	public synchronized void append(List<String> key, Entry entry) throws IOException {
+		checkState(channel != null, "The cache file is closed");
+		StringBuilder line = new StringBuilder();
+		line.append(entry.getExpirationMillis());
+		for (String field : key) {
+			line.append('\t').append(escape(field));
+		}
+		line.append('\t').append(escape(entry.getValue())).append('\n');
+		ByteBuffer bytes = ByteBuffer.wrap(line.toString().getBytes(StandardCharsets.UTF_8));
+		long offset = end;
+		while (bytes.hasRemaining()) {
+			end += channel.write(bytes, end);
+		}
+		offsets.remove(key);
+		offsets.put(Collections.unmodifiableList(new ArrayList<>(key)), offset);
+		lines++;
+		if (lines >= MIN_COMPACTION_LINES && lines > 2 * offsets.size()) {
+			compact();
+			LOGGER.info("The cache file {} has been compacted to {} entries", file, offsets.size());
+		}
+	}
+
+	private static String escape(String field) {
+		return field.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+	}
+
+	private static String unescape(String field) {
+		if (field.indexOf('\\') < 0)
+			return field;
+		StringBuilder result = new StringBuilder(field.length());
+		for (int i = 0; i < field.length(); i++) {
+			char c = field.charAt(i);
+			if (c == '\\' && i + 1 < field.length()) {
+				i++;
+				char escaped = field.charAt(i);
+				result.append(escaped == 't' ? '\t' : escaped == 'n' ? '\n' : escaped == 'r' ? '\r' : escaped);
+			}
+			else {
+				result.append(c);
+			}
+		}
+		return result.toString();
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (channel != null) {
+			channel.close();
+			channel = null;
+		}
+	}
+
+}
@@ -0,0 +1,294 @@
+package io.github.oliviercailloux.y2018.apartments.valuefunction;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.ToDoubleFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentStore;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentView;
+import io.github.oliviercailloux.y2018.apartments.apartment.MappedCatalogue;
+
+/**
+ * An immutable copy of the partial value functions and of the normalized weights of an {@link ApartmentValueFunction}, made by {@link ApartmentValueFunction#snapshot()}.
+ * Unlike an {@link ApartmentValueFunction}, a scorer is thread-safe: it can be shared by several threads, and it can score a large collection of apartments in parallel on a {@link ForkJoinPool}.
+ * Modifying the value function after the snapshot has no effect on the scorer.
+ */
+public final class ApartmentScorer implements ToDoubleFunction<Apartment> {
+
+	/**
+	 * The minimum number of apartments scored by a task, below which a task is not split anymore.
+	 */
+	private static final int MIN_CHUNK_SIZE = 1024;
+
+	/**
+	 * The number of tasks per thread of the pool, so that a thread which finishes early can steal work from the others.
+	 */
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	/**
+	 * The tolerance on the upper bound of a score, which absorbs the rounding errors so that an apartment is never wrongly abandoned.
+	 */
+	private static final double UPPER_BOUND_TOLERANCE = 1e-9;
+
+	private final DoublePartialValueFunction floorAreaValueFunction;
+	private final DoublePartialValueFunction nbBedroomsValueFunction;
+	private final DoublePartialValueFunction nbSleepingValueFunction;
+	private final DoublePartialValueFunction nbBathroomsValueFunction;
+	private final BooleanPartialValueFunction terraceValueFunction;
+	private final DoublePartialValueFunction floorAreaTerraceValueFunction;
+	private final BooleanPartialValueFunction wifiValueFunction;
+	private final DoublePartialValueFunction pricePerNightValueFunction;
+	private final DoublePartialValueFunction nbMinNightValueFunction;
+	private final BooleanPartialValueFunction teleValueFunction;
+
+	/**
+	 * The weights divided by their sum, indexed by the ordinal of the {@link Criterion}.
+	 */
+	private final double[] weights;
+
+	/**
+	 * The criteria by decreasing weight.
+	 */
+	private final Criterion[] criteriaByWeight;
+
+	private final static Logger LOGGER = LoggerFactory.getLogger(ApartmentScorer.class);
+
+	ApartmentScorer(DoublePartialValueFunction floorAreaValueFunction, DoublePartialValueFunction nbBedroomsValueFunction, DoublePartialValueFunction nbSleepingValueFunction, DoublePartialValueFunction nbBathroomsValueFunction, BooleanPartialValueFunction terraceValueFunction, DoublePartialValueFunction floorAreaTerraceValueFunction, BooleanPartialValueFunction wifiValueFunction, DoublePartialValueFunction pricePerNightValueFunction, DoublePartialValueFunction nbMinNightValueFunction, BooleanPartialValueFunction teleValueFunction, double[] normalizedWeights, Criterion[] criteriaByWeight) {
+		this.floorAreaValueFunction = floorAreaValueFunction;
+		this.nbBedroomsValueFunction = nbBedroomsValueFunction;
+		this.nbSleepingValueFunction = nbSleepingValueFunction;
+		this.nbBathroomsValueFunction = nbBathroomsValueFunction;
+		this.terraceValueFunction = terraceValueFunction;
+		this.floorAreaTerraceValueFunction = floorAreaTerraceValueFunction;
+		this.wifiValueFunction = wifiValueFunction;
+		this.pricePerNightValueFunction = pricePerNightValueFunction;
+		this.nbMinNightValueFunction = nbMinNightValueFunction;
+		this.teleValueFunction = teleValueFunction;
+		this.weights = normalizedWeights.clone();
+		this.criteriaByWeight = criteriaByWeight.clone();
+	}
+
+	/**
+	 * @param criterion a valuable attribute of an apartment
+	 * @return the weight of the subjective value of this attribute, divided by the sum of the weights
+	 */
+	public double getWeight(Criterion criterion) {
+		return weights[criterion.ordinal()];
+	}
+
+	/**
+	 * Returns the subjective value of the apartment, the same as {@link ApartmentValueFunction#getSubjectiveValue(ApartmentView)} at the time of the snapshot.
+	 * @param apart an apartment, for example an {@link Apartment} or a view of an {@link io.github.oliviercailloux.y2018.apartments.apartment.ApartmentStore}
+	 * @return a double : the weighted sum of the apartment attributes subjective values
+	 */
+	public double score(ApartmentView apart) {
+		return subjectiveValue(Criterion.FLOOR_AREA, apart) * weights[0]
+				+ subjectiveValue(Criterion.NB_BEDROOMS, apart) * weights[1]
+				+ subjectiveValue(Criterion.NB_SLEEPING, apart) * weights[2]
+				+ subjectiveValue(Criterion.NB_BATHROOMS, apart) * weights[3]
+				+ subjectiveValue(Criterion.TERRACE, apart) * weights[4]
+				+ subjectiveValue(Criterion.FLOOR_AREA_TERRACE, apart) * weights[5]
+				+ subjectiveValue(Criterion.WIFI, apart) * weights[6]
+				+ subjectiveValue(Criterion.PRICE_PER_NIGHT, apart) * weights[7]
+				+ subjectiveValue(Criterion.NB_MIN_NIGHT, apart) * weights[8]
+				+ subjectiveValue(Criterion.TELE, apart) * weights[9];
+	}
+
+	/**
+	 * Explains the subjective value of the apartment: for each criterion, the value of the attribute, its subjective value, its normalized weight and their product.
+	 * The subjective values are computed by the same code as {@link #score(ApartmentView)} and the contributions are summed in the same order, so that the score of the explanation is exactly the score of the apartment.
+	 * @param apart an object of type {@link Apartment}
+	 * @return the breakdown of the subjective value of the apartment
+	 */
+	public ScoreExplanation explainScore(ApartmentView apart) {
+		List<ScoreExplanation.Contribution> contributions = new ArrayList<>(weights.length);
+		for (Criterion criterion : Criterion.values()) {
+			contributions.add(new ScoreExplanation.Contribution(criterion, criterion.getRawValue(apart), subjectiveValue(criterion, apart), weights[criterion.ordinal()]));
+		}
+		return new ScoreExplanation(contributions);
+	}
+
+	/**
+	 * Returns the subjective value of the apartment if it can exceed a threshold, and stops computing it as soon as it cannot.
+	 * The attributes are evaluated by decreasing weight. As each subjective value is between 0 and 1, the score of the apartment cannot exceed the weighted sum of the values already computed plus the weights of the attributes not yet evaluated: when this upper bound is below the threshold, the other attributes are not evaluated.
+	 * @param apart an apartment
+	 * @param threshold the score which the apartment must reach to be of interest
+	 * @return the subjective value of the apartment, equal to {@link #score(ApartmentView)} up to rounding errors, or {@link Double#NEGATIVE_INFINITY} if it is certainly below the threshold
+	 */
+	public double scoreAbove(ApartmentView apart, double threshold) {
+		double score = 0;
+		double remaining = 1;
+		for (Criterion criterion : criteriaByWeight) {
+			if (score + remaining + UPPER_BOUND_TOLERANCE < threshold)
+				return Double.NEGATIVE_INFINITY;
+			double normalizedWeight = weights[criterion.ordinal()];
+			score += subjectiveValue(criterion, apart) * normalizedWeight;
+			remaining -= normalizedWeight;
+		}
+		return score;
+	}
+
+	/**
+	 * @param criterion a valuable attribute of an apartment
+	 * @param apart an apartment
+	 * @return the subjective value of this attribute of the apartment, between 0 and 1
+	 */
+	public double getSubjectiveValue(Criterion criterion, ApartmentView apart) {
+		return subjectiveValue(criterion, apart);
+	}
+
+	/**
+	 * Evaluates one criterion. When the criterion is a constant, as in {@link #score(ApartmentView)}, the switch is resolved once the method is inlined.
+	 */
+	private double subjectiveValue(Criterion criterion, ApartmentView apart) {
+		double subjectiveValue;
+		switch (criterion) {
+		case FLOOR_AREA:
+			subjectiveValue = floorAreaValueFunction.applyAsDouble(apart.getFloorArea());
+			break;
+		case NB_BEDROOMS:
+			subjectiveValue = nbBedroomsValueFunction.applyAsDouble(apart.getNbBedrooms());
+			break;
+		case NB_SLEEPING:
+			subjectiveValue = nbSleepingValueFunction.applyAsDouble(apart.getNbSleeping());
+			break;
+		case NB_BATHROOMS:
+			subjectiveValue = nbBathroomsValueFunction.applyAsDouble(apart.getNbBathrooms());
+			break;
+		case TERRACE:
+			subjectiveValue = terraceValueFunction.applyAsDouble(apart.getTerrace());
+			break;
+		case FLOOR_AREA_TERRACE:
+			subjectiveValue = floorAreaTerraceValueFunction.applyAsDouble(apart.getFloorAreaTerrace());
+			break;
+		case WIFI:
+			subjectiveValue = wifiValueFunction.applyAsDouble(apart.getWifi());
+			break;
+		case PRICE_PER_NIGHT:
+			subjectiveValue = pricePerNightValueFunction.applyAsDouble(apart.getPricePerNight());
+			break;
+		case NB_MIN_NIGHT:
+			subjectiveValue = nbMinNightValueFunction.applyAsDouble(apart.getNbMinNight());
+			break;
+		case TELE:
+			subjectiveValue = teleValueFunction.applyAsDouble(apart.getTele());
+			break;
+		default:
+			throw new AssertionError(criterion);
+		}
+		checkArgument(subjectiveValue >= 0 && subjectiveValue <= 1, "The subjective value of %s should be between 0 and 1", criterion);
+		return subjectiveValue;
+	}
+
+	/**
+	 * Same as {@link #score(ApartmentView)}.
+	 */
+	@Override
+	public double applyAsDouble(Apartment apart) {
+		return score(apart);
+	}
+
+	/**
+	 * Scores the apartments one after the other.
+	 * @param aparts a list of apartments
+	 * @return the subjective values of the apartments, in the same order
+	 */
+	public double[] score(List<? extends ApartmentView> aparts) {
+		double[] scores = new double[aparts.size()];
+		int i = 0;
+		for (ApartmentView apart : aparts) {
+			scores[i++] = score(apart);
+		}
+		return scores;
+	}
+
+	/**
+	 * Scores all the apartments of a store, reading their attributes from the columns of the store.
+	 * @param store the apartments to score
+	 * @return the subjective values of the apartments, indexed as in the store
+	 */
+	public double[] score(ApartmentStore store) {
+		double[] scores = new double[store.size()];
+		for (int i = 0; i < scores.length; i++) {
+			scores[i] = score(store.get(i));
+		}
+		return scores;
+	}
+
+	/**
+	 * Scores all the apartments of a catalogue, reading their attributes from the mapped file.
+	 * @param catalogue the apartments to score
+	 * @return the subjective values of the apartments, indexed as in the catalogue
+	 */
+	public double[] score(MappedCatalogue catalogue) {
+		double[] scores = new double[catalogue.size()];
+		for (int i = 0; i < scores.length; i++) {
+			scores[i] = score(catalogue.get(i));
+		}
+		return scores;
+	}
+
+	/**
+	 * Scores the apartments in parallel in the common {@link ForkJoinPool}.
+	 * @param aparts a list of apartments, with fast random access
+	 * @return the subjective values of the apartments, in the same order
+	 */
+	public double[] scoreParallel(List<Apartment> aparts) {
+		return scoreParallel(aparts, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Scores the apartments in parallel in the pool in parameter.
+	 * The list is split recursively into about four chunks per thread of the pool, each chunk being scored by a task; the idle threads steal the tasks not yet started from the busy ones.
+	 * @param aparts a list of apartments, with fast random access
+	 * @param pool the pool which runs the tasks
+	 * @return the subjective values of the apartments, in the same order
+	 */
+	public double[] scoreParallel(List<Apartment> aparts, ForkJoinPool pool) {
+		checkArgument(aparts != null && pool != null, "The apartments and the pool cannot be null");
+		double[] scores = new double[aparts.size()];
+		int chunkSize = Math.max(MIN_CHUNK_SIZE, aparts.size() / (pool.getParallelism() * CHUNKS_PER_THREAD) + 1);
+		pool.invoke(new ScoreTask(aparts, scores, 0, aparts.size(), chunkSize));
+		LOGGER.info("The subjective values of {} apartments have been computed by {} threads", aparts.size(), pool.getParallelism());
+		return scores;
+	}
+
+	private class ScoreTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final List<Apartment> aparts;
+		private final double[] scores;
+		private final int from;
+		private final int to;
+		private final int chunkSize;
+
+		ScoreTask(List<Apartment> aparts, double[] scores, int from, int to, int chunkSize) {
+			this.aparts = aparts;
+			this.scores = scores;
+			this.from = from;
+			this.to = to;
+			this.chunkSize = chunkSize;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= chunkSize) {
+				for (int i = from; i < to; i++) {
+					scores[i] = score(aparts.get(i));
+				}
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new ScoreTask(aparts, scores, from, middle, chunkSize), new ScoreTask(aparts, scores, middle, to, chunkSize));
+		}
+	}
+
+}
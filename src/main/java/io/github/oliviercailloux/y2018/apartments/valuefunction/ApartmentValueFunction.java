@@ -1,11 +1,16 @@
 package io.github.oliviercailloux.y2018.apartments.valuefunction;
 
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
 import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentView;
 
 /**
  * The public class ApartmentValueFunction enables to compute the subjective values of apartments. This is provided by the creation of an object ApartmentValueFunction which contains for each valuable attribute of an apartment : An object of {@link PartialValueFunction} and an associated weight. 
@@ -15,104 +20,90 @@ public class ApartmentValueFunction {
 	/**
 	 * @floorAreaValueFunction A {@link PartialValueFunction} object on which the calculation of the floor area subjective values are based.
 	 */
-	private PartialValueFunction<Double> floorAreaValueFunction;
+	private DoublePartialValueFunction floorAreaValueFunction;
 
 	/**
 	 * @nbBedroomsValueFunction A {@link PartialValueFunction} object on which the calculation of the number of bedrooms subjective value is based
 	 */
-	private PartialValueFunction<Double> nbBedroomsValueFunction;
+	private DoublePartialValueFunction nbBedroomsValueFunction;
 
 	/**
 	 * @nbSleepingValueFunction A {@link PartialValueFunction} object on which the calculation of the number of accommodation capacity subjective values are based.
 	 */
-	private PartialValueFunction<Double> nbSleepingValueFunction;
+	private DoublePartialValueFunction nbSleepingValueFunction;
 
 	/**
 	 * @nbBathroomsValueFunction A {@link PartialValueFunction} object on which the calculation of the number of bathrooms subjective values are based.
 	 */
-	private PartialValueFunction<Double> nbBathroomsValueFunction;
+	private DoublePartialValueFunction nbBathroomsValueFunction;
 
 	/**
 	 * @terraceValueFunction A {@link PartialValueFunction} object on which the calculation of the presence of a terrace subjective values are based.
 	 */
-	private PartialValueFunction<Boolean> terraceValueFunction;
+	private BooleanPartialValueFunction terraceValueFunction;
 
 	/**
 	 * @floorAreaTerraceValueFunction A {@link PartialValueFunction} object on which the calculation of the floor area of an existing terrace subjective values are based.
 	 */
-	private PartialValueFunction<Double> floorAreaTerraceValueFunction;
+	private DoublePartialValueFunction floorAreaTerraceValueFunction;
 
 	/**
 	 * @wifiValueFunction A {@link PartialValueFunction} object on which the calculation of the wireless connection subjective values are based.
 	 */
-	private PartialValueFunction<Boolean> wifiValueFunction;
+	private BooleanPartialValueFunction wifiValueFunction;
 
 	/**
 	 * @pricePerNightValueFunction A {@link PartialValueFunction} object on which the calculation of the price per night subjective values are based.
 	 */
-	private PartialValueFunction<Double> pricePerNightValueFunction;
+	private DoublePartialValueFunction pricePerNightValueFunction;
 
 	/**
 	 * @nbMinNightValueFunction A {@link PartialValueFunction} object on which the calculation of the minimum number of nights subjective values are based.
 	 */
-	private PartialValueFunction<Double> nbMinNightValueFunction;
+	private DoublePartialValueFunction nbMinNightValueFunction;
 
 	/**
 	 * @teleValueFunction A {@link PartialValueFunction} object on which the calculation of the presence of a television subjective values are based.
 	 */
-	private PartialValueFunction<Boolean> teleValueFunction;
-
-	/**
-	 * @floorAreaSubjectiveValueWeight The weight associated to the floor area subjective value in the calculation of the Apartment total subjective value
-	 */
-	private double floorAreaSubjectiveValueWeight;
-
-	/**
-	 * @nbBedroomsSubjectiveValueWeight The weight associated to the number of bedrooms subjective value in the calculation of the Apartment total subjective value
-	 */
-	private double nbBedroomsSubjectiveValueWeight;
-
-	/**
-	 * @nbSleepingSubjectiveValueWeight The weight associated to the accommodation capacity subjective value in the calculation of the Apartment total subjective value
-	 */
-	private double nbSleepingSubjectiveValueWeight;
-
-	/**
-	 * @nbBathroomsSubjectiveValueWeight The weight associated to the number of bathrooms subjective value in the calculation of the Apartment total subjective value
-	 */
-	private double nbBathroomsSubjectiveValueWeight;
-
-	/**
-	 * @terraceSubjectiveValueWeight The weight associated to the presence of a terrace subjective value in the calculation of the Apartment total subjective value
-	 */
-	private double terraceSubjectiveValueWeight;
-
-	/**
-	 * @floorAreaTerraceSubjectiveValueWeight The weight associated to the floor area of an existing terrace subjective value in the calculation of the Apartment total subjective value
-	 */
-	private double floorAreaTerraceSubjectiveValueWeight;
+	private BooleanPartialValueFunction teleValueFunction;
 
 	/**
-	 * @wifiSubjectiveValueWeight The weight associated to the presence of a wireless connection subjective value in the calculation of the Apartment total subjective value
+	 * @weights The weights associated to the subjective values of the criteria in the calculation of the Apartment total subjective value, replaced as a whole when a weight is set.
 	 */
-	private double wifiSubjectiveValueWeight;
+	private volatile Weights weights;
 
 	/**
-	 * @pricePerNightSubjectiveValueWeight The weight associated to the price per night subjective value in the calculation of the Apartment total subjective value
+	 * @scorer A {@link #snapshot()} of the current partial value functions and weights, rebuilt each time one of them is set, which computes the subjective values.
 	 */
-	private double pricePerNightSubjectiveValueWeight;
+	private volatile ApartmentScorer scorer;
 
-	/**
-	 * @nbMinNightSubjectiveValueWeight The weight associated to the minimum number of nights subjective value in the calculation of the Apartment total subjective value
-	 */
-	private double nbMinNightSubjectiveValueWeight;
+	private final static Logger LOGGER = LoggerFactory.getLogger(ApartmentValueFunction.class);
 
 	/**
-	 * @teleSubjectiveValueWeight The weight associated to the presence of a television subjective value in the calculation of the Apartment total subjective value
-	 */
-	private double teleSubjectiveValueWeight;
-
-	private final static Logger LOGGER = LoggerFactory.getLogger(ApartmentValueFunction.class);
+	 * The weights of the criteria, indexed by the ordinal of the {@link Criterion}, with what is derived from them: the weights divided by their sum, and the criteria by decreasing weight.
+	 */
+	private static class Weights {
+		private final double[] weights;
+		private final double[] normalizedWeights;
+		private final Criterion[] criteriaByWeight;
+
+		private Weights(double[] weights) {
+			checkArgument(weights.length == Criterion.values().length, "There should be %s weights", Criterion.values().length);
+			double weightSum = 0;
+			for (int i = 0; i < weights.length; i++) {
+				checkArgument(weights[i] >= 0 && weights[i] < Double.POSITIVE_INFINITY, "The weight of %s cannot be negative or infinite", Criterion.values()[i]);
+				weightSum += weights[i];
+			}
+			checkArgument(weightSum > 0, "The sum of the weights must be strictly positive");
+			this.weights = weights.clone();
+			this.normalizedWeights = new double[weights.length];
+			for (int i = 0; i < weights.length; i++) {
+				normalizedWeights[i] = weights[i] / weightSum;
+			}
+			this.criteriaByWeight = Criterion.values();
+			Arrays.sort(criteriaByWeight, Comparator.comparingDouble((Criterion criterion) -> this.weights[criterion.ordinal()]).reversed());
+		}
+	}
 
 
 	/**
@@ -123,27 +114,21 @@ public class ApartmentValueFunction {
 	 */
 
 	public ApartmentValueFunction() {
-		this.floorAreaValueFunction = new ConstantValueFunction<>();
-		this.nbBedroomsValueFunction = new ConstantValueFunction<>();
-		this.nbSleepingValueFunction = new ConstantValueFunction<>();
-		this.nbBathroomsValueFunction = new ConstantValueFunction<>();
-		this.terraceValueFunction = new ConstantValueFunction<>();
-		this.floorAreaTerraceValueFunction = new ConstantValueFunction<>();
-		this.wifiValueFunction = new ConstantValueFunction<>();
-		this.pricePerNightValueFunction = new ConstantValueFunction<>();
-		this.nbMinNightValueFunction = new ConstantValueFunction<>();
-		this.teleValueFunction = new ConstantValueFunction<>();
-
-		this.floorAreaSubjectiveValueWeight= 0.1;
-		this.nbBedroomsSubjectiveValueWeight= 0.1;
-		this.nbSleepingSubjectiveValueWeight= 0.1;
-		this.nbBathroomsSubjectiveValueWeight= 0.1;
-		this.terraceSubjectiveValueWeight= 0.1;
-		this.floorAreaTerraceSubjectiveValueWeight= 0.1;
-		this.wifiSubjectiveValueWeight= 0.1;
-		this.pricePerNightSubjectiveValueWeight= 0.1;
-		this.nbMinNightSubjectiveValueWeight= 0.1;
-		this.teleSubjectiveValueWeight= 0.1;
+		this.floorAreaValueFunction = DoublePartialValueFunction.of(new ConstantValueFunction<>());
+		this.nbBedroomsValueFunction = DoublePartialValueFunction.of(new ConstantValueFunction<>());
+		this.nbSleepingValueFunction = DoublePartialValueFunction.of(new ConstantValueFunction<>());
+		this.nbBathroomsValueFunction = DoublePartialValueFunction.of(new ConstantValueFunction<>());
+		this.terraceValueFunction = BooleanPartialValueFunction.of(new ConstantValueFunction<>());
+		this.floorAreaTerraceValueFunction = DoublePartialValueFunction.of(new ConstantValueFunction<>());
+		this.wifiValueFunction = BooleanPartialValueFunction.of(new ConstantValueFunction<>());
+		this.pricePerNightValueFunction = DoublePartialValueFunction.of(new ConstantValueFunction<>());
+		this.nbMinNightValueFunction = DoublePartialValueFunction.of(new ConstantValueFunction<>());
+		this.teleValueFunction = BooleanPartialValueFunction.of(new ConstantValueFunction<>());
+
+		double[] initialWeights = new double[Criterion.values().length];
+		Arrays.fill(initialWeights, 0.1);
+		this.weights = new Weights(initialWeights);
+		updateScorer();
 	}
 
 	/**
@@ -152,8 +137,9 @@ public class ApartmentValueFunction {
 	 * @throws IllegalArgumentException
 	 */
 	public void setFloorAreaValueFunction(PartialValueFunction<Double> floorAreaValueFunction) throws IllegalArgumentException {
-		this.floorAreaValueFunction = floorAreaValueFunction;
-		checkArgument(!(this.floorAreaValueFunction.equals(null)),"The floor area preferencies cannot be nulled");
+		checkArgument(floorAreaValueFunction != null,"The floor area preferencies cannot be nulled");
+		this.floorAreaValueFunction = DoublePartialValueFunction.of(floorAreaValueFunction);
+		updateScorer();
 		LOGGER.info("The floor area preferencies has been set");
 	}
 
@@ -163,8 +149,9 @@ public class ApartmentValueFunction {
 	 * @throws IllegalArgumentException
 	 */
 	public void setNbBedroomsValueFunction(PartialValueFunction<Double> nbBedroomsValueFunction) throws IllegalArgumentException {
-		this.nbBedroomsValueFunction = nbBedroomsValueFunction;
-		checkArgument(!(this.nbBedroomsValueFunction.equals(null)),"The number of bedrooms preferencies cannot be nulled");
+		checkArgument(nbBedroomsValueFunction != null,"The number of bedrooms preferencies cannot be nulled");
+		this.nbBedroomsValueFunction = DoublePartialValueFunction.of(nbBedroomsValueFunction);
+		updateScorer();
 		LOGGER.info("The number of bedrooms preferencies has been set");
 	}
 
@@ -174,8 +161,9 @@ public class ApartmentValueFunction {
 	 * @throws IllegalArgumentException
 	 */
 	public void setNbSleepingValueFunction(PartialValueFunction<Double> nbSleepingValueFunction) throws IllegalArgumentException {
-		this.nbSleepingValueFunction = nbSleepingValueFunction;
-		checkArgument(!(this.nbSleepingValueFunction.equals(null)),"The number of sleep-in preferencies cannot be nulled");
+		checkArgument(nbSleepingValueFunction != null,"The number of sleep-in preferencies cannot be nulled");
+		this.nbSleepingValueFunction = DoublePartialValueFunction.of(nbSleepingValueFunction);
+		updateScorer();
 		LOGGER.info("The number of sleep-in preferencies has been set");
 	}
 
@@ -185,8 +173,9 @@ public class ApartmentValueFunction {
 	 * @throws IllegalArgumentException
 	 */
 	public void setNbBathroomsValueFunction(PartialValueFunction<Double> nbBathroomsValueFunction) throws IllegalArgumentException {
-		this.nbBathroomsValueFunction = nbBathroomsValueFunction;
-		checkArgument(!(this.nbBathroomsValueFunction.equals(null)),"The number of bathrooms preferencies cannot be nulled");
+		checkArgument(nbBathroomsValueFunction != null,"The number of bathrooms preferencies cannot be nulled");
+		this.nbBathroomsValueFunction = DoublePartialValueFunction.of(nbBathroomsValueFunction);
+		updateScorer();
 		LOGGER.info("The number of bathrooms preferencies has been set");
 	}
 
@@ -196,8 +185,9 @@ public class ApartmentValueFunction {
 	 * @throws IllegalArgumentException
 	 */
 	public void setTerraceValueFunction(PartialValueFunction<Boolean> terraceValueFunction) throws IllegalArgumentException {
-		this.terraceValueFunction = terraceValueFunction;
-		checkArgument(!(this.terraceValueFunction.equals(null)),"The terrace preferencies cannot be nulled");
+		checkArgument(terraceValueFunction != null,"The terrace preferencies cannot be nulled");
+		this.terraceValueFunction = BooleanPartialValueFunction.of(terraceValueFunction);
+		updateScorer();
 		LOGGER.info("The terrace preferencies has been set");
 	}
 
@@ -207,8 +197,9 @@ public class ApartmentValueFunction {
 	 * @throws IllegalArgumentException
 	 */
 	public void setFloorAreaTerraceValueFunction(PartialValueFunction<Double> floorAreaTerraceValueFunction) throws IllegalArgumentException {
-		this.floorAreaTerraceValueFunction = floorAreaTerraceValueFunction;
-		checkArgument(!(this.floorAreaTerraceValueFunction.equals(null)),"The floor area of the terrace preferencies cannot be nulled");
+		checkArgument(floorAreaTerraceValueFunction != null,"The floor area of the terrace preferencies cannot be nulled");
+		this.floorAreaTerraceValueFunction = DoublePartialValueFunction.of(floorAreaTerraceValueFunction);
+		updateScorer();
 		LOGGER.info("The floor area of the terrace preferencies has been set");
 	}
 
@@ -218,8 +209,9 @@ public class ApartmentValueFunction {
 	 * @throws IllegalArgumentException
 	 */
 	public void setWifiValueFunction(PartialValueFunction<Boolean> wifiValueFunction) throws IllegalArgumentException {
-		this.wifiValueFunction = wifiValueFunction;
-		checkArgument(!(this.wifiValueFunction.equals(null)),"The wifi preferencies cannot be nulled");
+		checkArgument(wifiValueFunction != null,"The wifi preferencies cannot be nulled");
+		this.wifiValueFunction = BooleanPartialValueFunction.of(wifiValueFunction);
+		updateScorer();
 		LOGGER.info("The wifi preferencies has been set");
 	}
 
@@ -229,8 +221,9 @@ public class ApartmentValueFunction {
 	 * @throws IllegalArgumentException
 	 */
 	public void setPricePerNightValueFunction(PartialValueFunction<Double> pricePerNightValueFunction) throws IllegalArgumentException {
-		this.pricePerNightValueFunction = pricePerNightValueFunction;
-		checkArgument(!(this.pricePerNightValueFunction.equals(null)),"The price per night preferencies cannot be nulled");
+		checkArgument(pricePerNightValueFunction != null,"The price per night preferencies cannot be nulled");
+		this.pricePerNightValueFunction = DoublePartialValueFunction.of(pricePerNightValueFunction);
+		updateScorer();
 		LOGGER.info("The price per night preferencies has been set");
 	}
 
@@ -240,8 +233,9 @@ public class ApartmentValueFunction {
 	 * @throws IllegalArgumentException
 	 */
 	public void setNbMinNightValueFunction(PartialValueFunction<Double> nbMinNightValueFunction) throws IllegalArgumentException {
-		this.nbMinNightValueFunction = nbMinNightValueFunction;
-		checkArgument(!(this.nbMinNightValueFunction.equals(null)),"The number of minimum night preferencies cannot be nulled");
+		checkArgument(nbMinNightValueFunction != null,"The number of minimum night preferencies cannot be nulled");
+		this.nbMinNightValueFunction = DoublePartialValueFunction.of(nbMinNightValueFunction);
+		updateScorer();
 		LOGGER.info("The number of minimum night preferencies has been set");
 	}
 
@@ -251,8 +245,9 @@ public class ApartmentValueFunction {
 	 * @throws IllegalArgumentException
 	 */
 	public void setTeleValueFunction(PartialValueFunction<Boolean> teleValueFunction) throws IllegalArgumentException {
-		this.teleValueFunction = teleValueFunction;
-		checkArgument(!(this.teleValueFunction.equals(null)),"the  cannot be nulled");
+		checkArgument(teleValueFunction != null,"the  cannot be nulled");
+		this.teleValueFunction = BooleanPartialValueFunction.of(teleValueFunction);
+		updateScorer();
 		LOGGER.info("The wifi preferencies has been set");
 	}
 
@@ -261,8 +256,7 @@ public class ApartmentValueFunction {
 	 * @param floorAreaSubjectiveValueWeight a positive or zero double 
 	 */
 	public void setFloorAreaSubjectiveValueWeight(double floorAreaSubjectiveValueWeight) {
-		checkArgument(floorAreaSubjectiveValueWeight >= 0,"The weight of the floor area cannot be negative");
-		this.floorAreaSubjectiveValueWeight = floorAreaSubjectiveValueWeight;
+		setWeight(Criterion.FLOOR_AREA, floorAreaSubjectiveValueWeight);
 		LOGGER.info("The floor area weight has been set");
 	}
 
@@ -271,8 +265,7 @@ public class ApartmentValueFunction {
 	 * @param nbBedroomsSubjectiveValueWeight a positive or zero double 
 	 */
 	public void setNbBedroomsSubjectiveValueWeight(double nbBedroomsSubjectiveValueWeight) {
-		checkArgument(nbBedroomsSubjectiveValueWeight >= 0,"The weight of the number of bedrooms cannot be negative");
-		this.nbBedroomsSubjectiveValueWeight = nbBedroomsSubjectiveValueWeight;
+		setWeight(Criterion.NB_BEDROOMS, nbBedroomsSubjectiveValueWeight);
 		LOGGER.info("The number of bedrooms weight has been set");
 	}
 
@@ -281,8 +274,7 @@ public class ApartmentValueFunction {
 	 * @param nbSleepingSubjectiveValueWeight a positive zero double 
 	 */
 	public void setNbSleepingSubjectiveValueWeight(double nbSleepingSubjectiveValueWeight) {
-		checkArgument(nbSleepingSubjectiveValueWeight >= 0,"The weight of the sleep-in cannot be negative");
-		this.nbSleepingSubjectiveValueWeight = nbSleepingSubjectiveValueWeight;
+		setWeight(Criterion.NB_SLEEPING, nbSleepingSubjectiveValueWeight);
 		LOGGER.info("The number of sleep-in weight has been set");
 	}
 
@@ -291,8 +283,7 @@ public class ApartmentValueFunction {
 	 * @param nbBathroomsSubjectiveValueWeight a positive or zero double 
 	 */
 	public void setNbBathroomsSubjectiveValueWeight(double nbBathroomsSubjectiveValueWeight) {
-		checkArgument(nbBathroomsSubjectiveValueWeight >= 0,"The weight of the number of bathrooms cannot be negative");
-		this.nbBathroomsSubjectiveValueWeight = nbBathroomsSubjectiveValueWeight;
+		setWeight(Criterion.NB_BATHROOMS, nbBathroomsSubjectiveValueWeight);
 		LOGGER.info("The number of bathrooms weight has been set");
 	}
 
@@ -301,8 +292,7 @@ public class ApartmentValueFunction {
 	 * @param terraceSubjectiveValueWeight a positive zero double 
 	 */
 	public void setTerraceSubjectiveValueWeight(double terraceSubjectiveValueWeight) {
-		checkArgument(terraceSubjectiveValueWeight >= 0,"The weight of the terrace cannot be negative");
-		this.terraceSubjectiveValueWeight = terraceSubjectiveValueWeight;
+		setWeight(Criterion.TERRACE, terraceSubjectiveValueWeight);
 		LOGGER.info("The terrace weight has been set");
 	}
 
@@ -311,8 +301,7 @@ public class ApartmentValueFunction {
 	 * @param floorAreaTerraceSubjectiveValueWeight a positive or zero double 
 	 */
 	public void setFloorAreaTerraceSubjectiveValueWeight(double floorAreaTerraceSubjectiveValueWeight) {
-		checkArgument(floorAreaTerraceSubjectiveValueWeight >= 0,"The weight of the floor area terrace cannot be negative");
-		this.floorAreaTerraceSubjectiveValueWeight = floorAreaTerraceSubjectiveValueWeight;
+		setWeight(Criterion.FLOOR_AREA_TERRACE, floorAreaTerraceSubjectiveValueWeight);
 		LOGGER.info("The floor area of the terrace weight has been set");
 	}
 
@@ -321,8 +310,7 @@ public class ApartmentValueFunction {
 	 * @param wifiSubjectiveValueWeight a positive zero double 
 	 */
 	public void setWifiSubjectiveValueWeight(double wifiSubjectiveValueWeight) {
-		checkArgument(wifiSubjectiveValueWeight >= 0,"The weight of the wifi cannot be negative");
-		this.wifiSubjectiveValueWeight = wifiSubjectiveValueWeight;
+		setWeight(Criterion.WIFI, wifiSubjectiveValueWeight);
 		LOGGER.info("The wifi weight has been set");
 	}
 
@@ -331,8 +319,7 @@ public class ApartmentValueFunction {
 	 * @param pricePerNightSubjectiveValueWeight a positive or zero double 
 	 */
 	public void setPricePerNightSubjectiveValueWeight(double pricePerNightSubjectiveValueWeight) {
-		checkArgument(pricePerNightSubjectiveValueWeight >= 0,"The weight of the price per night cannot be negative");
-		this.pricePerNightSubjectiveValueWeight = pricePerNightSubjectiveValueWeight;
+		setWeight(Criterion.PRICE_PER_NIGHT, pricePerNightSubjectiveValueWeight);
 		LOGGER.info("The price per night weight has been set");
 	}
 
@@ -341,8 +328,7 @@ public class ApartmentValueFunction {
 	 * @param nbMinNightSubjectiveValueWeight a positive or zero double 
 	 */
 	public void setNbMinNightSubjectiveValueWeight(double nbMinNightSubjectiveValueWeight) {
-		checkArgument(nbMinNightSubjectiveValueWeight >= 0,"The weight of the minimum number of nights cannot be negative");
-		this.nbMinNightSubjectiveValueWeight = nbMinNightSubjectiveValueWeight;
+		setWeight(Criterion.NB_MIN_NIGHT, nbMinNightSubjectiveValueWeight);
 		LOGGER.info("The number of minimum night weight has been set");
 	}
 
@@ -351,8 +337,7 @@ public class ApartmentValueFunction {
 	 * @param teleSubjectiveValueWeight a positive or zero double 
 	 */
 	public void setTeleSubjectiveValueWeight(double teleSubjectiveValueWeight) {
-		checkArgument(teleSubjectiveValueWeight >= 0,"The weight of the tele cannot be negative");
-		this.teleSubjectiveValueWeight = teleSubjectiveValueWeight;
+		setWeight(Criterion.TELE, teleSubjectiveValueWeight);
 		LOGGER.info("The wifi weight has been set");
 	}
 
@@ -363,60 +348,114 @@ public class ApartmentValueFunction {
 	 * @param apart an object of type {@link Apartment}
 	 * @return a double : the weighted sum of the apartment attributes subjective values
 	 */
-	public double getSubjectiveValue (Apartment apart) {
-		double floorAreaSubjectiveValue;
-		double nbBedroomsSubjectiveValue;
-		double nbSleepingSubjectiveValue;
-		double nbBathroomsSubjectiveValue;
-		double terraceSubjectiveValue;
-		double floorAreaTerraceSubjectiveValue;
-		double wifiSubjectiveValue;
-		double pricePerNightSubjectiveValue;
-		double nbMinNightSubjectiveValue;
-		double teleSubjectiveValue;
-
-		checkArgument(floorAreaValueFunction.getSubjectiveValue(apart.getFloorArea()) >= 0 && floorAreaValueFunction.getSubjectiveValue(apart.getFloorArea()) <= 1 , "The subjective value of floor area should be between 0 and 1");
-		floorAreaSubjectiveValue = floorAreaValueFunction.getSubjectiveValue(apart.getFloorArea());	
-		LOGGER.info("the floor area subjective value has been set to "+ floorAreaSubjectiveValue);
-
-		checkArgument(nbBedroomsValueFunction .getSubjectiveValue((double) apart.getNbBedrooms()) >= 0 && nbBedroomsValueFunction.getSubjectiveValue((double) apart.getNbBedrooms()) <= 1 , "The subjective value of the number of bedrooms should be between 0 and 1");
-		nbBedroomsSubjectiveValue = nbBedroomsValueFunction.getSubjectiveValue((double) apart.getNbBedrooms());	
-		LOGGER.info("the number of bedrooms subjective value has been set to "+ nbBedroomsSubjectiveValue);
-
-		checkArgument(nbSleepingValueFunction.getSubjectiveValue((double) apart.getNbSleeping()) >= 0 && nbSleepingValueFunction.getSubjectiveValue((double) apart.getNbSleeping()) <= 1 , "The subjective value of the number of sleep-in should be between 0 and 1");
-		nbSleepingSubjectiveValue = nbSleepingValueFunction.getSubjectiveValue((double) apart.getNbSleeping());	
-		LOGGER.info("the number of sleepings subjective value has been set to "+ nbSleepingSubjectiveValue);
-
-		checkArgument(nbBathroomsValueFunction.getSubjectiveValue((double) apart.getNbBathrooms()) >= 0 && nbBathroomsValueFunction.getSubjectiveValue((double) apart.getNbBathrooms()) <= 1 , "The subjective value of the number of bathrooms should be between 0 and 1");
-		nbBathroomsSubjectiveValue = nbBathroomsValueFunction.getSubjectiveValue((double) apart.getNbBathrooms());	
-		LOGGER.info("the number of bathrooms subjective value has been set to "+ nbBathroomsSubjectiveValue);
-
-		checkArgument(terraceValueFunction.getSubjectiveValue(apart.getTerrace()) >= 0 && terraceValueFunction.getSubjectiveValue(apart.getTerrace()) <= 1 , "The subjective value of the terrace should be between 0 and 1");
-		terraceSubjectiveValue = terraceValueFunction.getSubjectiveValue(apart.getTerrace());	
-		LOGGER.info("the terrace subjective value has been set to "+terraceSubjectiveValue );
-
-		checkArgument(floorAreaTerraceValueFunction.getSubjectiveValue(apart.getFloorAreaTerrace()) >= 0 && floorAreaTerraceValueFunction.getSubjectiveValue(apart.getFloorAreaTerrace()) <= 1 , "The subjective value of the floor area of the terrace should be between 0 and 1");
-		floorAreaTerraceSubjectiveValue = floorAreaTerraceValueFunction.getSubjectiveValue(apart.getFloorAreaTerrace());	
-		LOGGER.info("the floor area of the terrace subjective value has been set to "+ floorAreaTerraceSubjectiveValue);
-
-		checkArgument(wifiValueFunction.getSubjectiveValue(apart.getWifi()) >= 0 && wifiValueFunction.getSubjectiveValue(apart.getWifi()) <= 1 , "The subjective value of the wifi should be between 0 and 1");
-		wifiSubjectiveValue = wifiValueFunction.getSubjectiveValue(apart.getWifi());	
-		LOGGER.info("the wifi subjective value has been set to "+ wifiSubjectiveValue);
-
-		checkArgument(pricePerNightValueFunction.getSubjectiveValue(apart.getPricePerNight()) >= 0 && pricePerNightValueFunction.getSubjectiveValue(apart.getPricePerNight()) <= 1 , "The subjective value of the price per night should be between 0 and 1");
-		pricePerNightSubjectiveValue = pricePerNightValueFunction.getSubjectiveValue(apart.getPricePerNight());	
-		LOGGER.info("the price per night subjective value has been set to "+ pricePerNightSubjectiveValue);
-
-		checkArgument(nbMinNightValueFunction.getSubjectiveValue((double) apart.getNbMinNight()) >= 0 && nbMinNightValueFunction.getSubjectiveValue((double) apart.getNbMinNight()) <= 1 , "The subjective value of the minimum number of nights should be between 0 and 1");
-		nbMinNightSubjectiveValue = nbMinNightValueFunction.getSubjectiveValue((double) apart.getNbMinNight());	
-		LOGGER.info("the minimum number of nights subjective value has been set to "+ nbMinNightSubjectiveValue);
-
-		checkArgument(teleValueFunction.getSubjectiveValue(apart.getTele()) >= 0 && teleValueFunction.getSubjectiveValue(apart.getTele()) <= 1 , "The subjective value of the presence of a tele should be between 0 and 1");
-		teleSubjectiveValue = teleValueFunction.getSubjectiveValue(apart.getTele());	
-		LOGGER.info("the tele subjective value has been set to "+ teleSubjectiveValue);
-
-		return ((floorAreaSubjectiveValue * floorAreaSubjectiveValueWeight + nbBedroomsSubjectiveValue * nbBedroomsSubjectiveValueWeight + nbSleepingSubjectiveValue * nbSleepingSubjectiveValueWeight + nbBathroomsSubjectiveValue * nbBathroomsSubjectiveValueWeight + terraceSubjectiveValue * terraceSubjectiveValueWeight + floorAreaTerraceSubjectiveValue * floorAreaTerraceSubjectiveValueWeight + wifiSubjectiveValue * wifiSubjectiveValueWeight + pricePerNightSubjectiveValue * pricePerNightSubjectiveValueWeight + nbMinNightSubjectiveValue * nbMinNightSubjectiveValueWeight + teleSubjectiveValue * teleSubjectiveValueWeight)
-				/ ( floorAreaSubjectiveValueWeight + nbBedroomsSubjectiveValueWeight + nbSleepingSubjectiveValueWeight + nbBathroomsSubjectiveValueWeight + terraceSubjectiveValueWeight + floorAreaTerraceSubjectiveValueWeight + wifiSubjectiveValueWeight + pricePerNightSubjectiveValueWeight + nbMinNightSubjectiveValueWeight + teleSubjectiveValueWeight));
+	public double getSubjectiveValue (ApartmentView apart) {
+		return scorer.score(apart);
+	}
+
+	/**
+	 * @param criterion a valuable attribute of an apartment
+	 * @return the weight of the subjective value of this attribute, not normalized
+	 */
+	public double getWeight(Criterion criterion) {
+		return weights.weights[criterion.ordinal()];
+	}
+
+	/**
+	 * @return the weights of the subjective values of the criteria, not normalized, indexed by the ordinal of the {@link Criterion}
+	 */
+	public double[] getWeights() {
+		return weights.weights.clone();
+	}
+
+	/**
+	 * @return the weights of the subjective values of the criteria divided by their sum, indexed by the ordinal of the {@link Criterion}
+	 */
+	public double[] getNormalizedWeights() {
+		return weights.normalizedWeights.clone();
+	}
+
+	/**
+	 * Set the weight of the subjective value of a criterion, corresponding to the importance of this criterion
+	 * @param criterion a valuable attribute of an apartment
+	 * @param weight a positive or zero double
+	 * @throws IllegalArgumentException if the weight is negative or infinite, or if all the weights would be zero
+	 */
+	public void setWeight(Criterion criterion, double weight) {
+		checkArgument(weight >= 0, "The weight of %s cannot be negative", criterion);
+		double[] newWeights = weights.weights.clone();
+		newWeights[criterion.ordinal()] = weight;
+		this.weights = new Weights(newWeights);
+		updateScorer();
+	}
+
+	/**
+	 * Set the weights of the subjective values of all the criteria at once. The weights are checked before any of them is set, so that either all the weights are set or none is.
+	 * The function scores with either the old weights or the new weights, never with a mix of both.
+	 * @param weights positive or zero doubles, indexed by the ordinal of the {@link Criterion}, at least one of them not zero
+	 * @throws IllegalArgumentException if the number of weights is not the number of criteria, if a weight is negative or infinite, or if all the weights are zero
+	 */
+	public void setWeights(double[] weights) {
+		checkArgument(weights != null, "The weights cannot be null");
+		this.weights = new Weights(weights);
+		updateScorer();
+		LOGGER.info("The weights have been set");
+	}
+
+	/**
+	 * This function returns the subjective value of one attribute of the Apartment in parameter, as {@link ApartmentScorer#getSubjectiveValue(Criterion, ApartmentView)} on the {@link #snapshot()} of this function.
+	 * @param criterion a valuable attribute of an apartment
+	 * @param apart an object of type {@link Apartment}
+	 * @return the subjective value of this attribute of the apartment, between 0 and 1
+	 */
+	public double getSubjectiveValue(Criterion criterion, ApartmentView apart) {
+		return scorer.getSubjectiveValue(criterion, apart);
+	}
+
+	/**
+	 * This function explains the subjective value of the Apartment in parameter: for each criterion, it gives the value of the attribute, its subjective value, its normalized weight and their product.
+	 * The explanation is computed by the {@link #snapshot()} of this function, so that its score is exactly {@link #getSubjectiveValue(ApartmentView)}. It is only computed when this function is called, scoring an apartment does not build it.
+	 * @param apart an object of type {@link Apartment}
+	 * @return the breakdown of the subjective value of the apartment
+	 */
+	public ScoreExplanation explainScore(ApartmentView apart) {
+		return scorer.explainScore(apart);
+	}
+
+	/**
+	 * This function returns the subjective value of the Apartment in parameter if it can exceed a threshold, and stops computing it as soon as it cannot, as {@link ApartmentScorer#scoreAbove(ApartmentView, double)} on the {@link #snapshot()} of this function.
+	 * When the weights are very unequal, most apartments which cannot be among the best are abandoned after one or two attributes. To evaluate many apartments, use the snapshot directly.
+	 * @param apart an object of type {@link Apartment}
+	 * @param threshold the score which the apartment must reach to be of interest
+	 * @return the subjective value of the apartment, equal to {@link #getSubjectiveValue(ApartmentView)} up to rounding errors, or {@link Double#NEGATIVE_INFINITY} if it is certainly below the threshold
+	 */
+	public double getSubjectiveValueAbove(ApartmentView apart, double threshold) {
+		return scorer.scoreAbove(apart, threshold);
+	}
+
+	/**
+	 * Returns an immutable copy of this function, which can be used by several threads and score apartments in parallel.
+	 * This function is not thread-safe: it must not be modified while a thread uses it, but it can be modified after the snapshot without affecting the snapshot.
+	 * The copy is made when a partial value function or a weight is set, so that this method returns the same scorer until this function is modified.
+	 * @return a scorer with the current partial value functions and weights
+	 */
+	public ApartmentScorer snapshot() {
+		return scorer;
+	}
+
+	private void updateScorer() {
+		Weights current = weights;
+		scorer = new ApartmentScorer(floorAreaValueFunction, nbBedroomsValueFunction, nbSleepingValueFunction, nbBathroomsValueFunction, terraceValueFunction, floorAreaTerraceValueFunction, wifiValueFunction, pricePerNightValueFunction, nbMinNightValueFunction, teleValueFunction, current.normalizedWeights, current.criteriaByWeight);
+	}
+
+	/**
+	 * This function returns the subjective values of all the apartments in parameter, in the same order, as {@link ApartmentScorer#score(List)} on the {@link #snapshot()} of this function.
+	 * @param aparts a list of objects of type {@link Apartment}
+	 * @return an array of doubles : the weighted sums of the apartments attributes subjective values
+	 */
+	public double[] scoreAll(List<Apartment> aparts) {
+		double[] scores = scorer.score(aparts);
+		LOGGER.info("The subjective values of {} apartments have been computed", scores.length);
+		return scores;
 	}
 
 }
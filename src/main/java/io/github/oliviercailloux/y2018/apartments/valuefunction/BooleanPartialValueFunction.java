@@ -0,0 +1,40 @@
+package io.github.oliviercailloux.y2018.apartments.valuefunction;
+
+/**
+ * A {@link PartialValueFunction} of a boolean which can be evaluated without boxing its argument nor its result.
+ */
+public interface BooleanPartialValueFunction extends PartialValueFunction<Boolean> {
+
+	/**
+	 * This function enables to get the subjective value of an objective data, without boxing.
+	 * @param objectiveData is the parameter from which we want to get the subjective value
+	 * @return A double (between 0 and 1) that represent the subjective value of the parameter
+	 * @throws IllegalArgumentException
+	 */
+	public double applyAsDouble(boolean objectiveData) throws IllegalArgumentException;
+
+	@Override
+	public default double getSubjectiveValue(Boolean objectiveData) throws IllegalArgumentException {
+		return applyAsDouble(objectiveData);
+	}
+
+	@Override
+	public default Double apply(Boolean objectiveData) {
+		return applyAsDouble(objectiveData);
+	}
+
+	/**
+	 * Returns a {@link BooleanPartialValueFunction} which computes the same subjective values as the function in parameter.
+	 * If the function is already a {@link BooleanPartialValueFunction}, it is returned as is. Otherwise, only a {@link ConstantValueFunction} itself, not a subclass which may override its values, is evaluated without boxing.
+	 * @param valueFunction a not null {@link PartialValueFunction} of a boolean
+	 * @return the primitive view of the function
+	 */
+	public static BooleanPartialValueFunction of(PartialValueFunction<Boolean> valueFunction) {
+		if (valueFunction instanceof BooleanPartialValueFunction)
+			return (BooleanPartialValueFunction) valueFunction;
+		if (valueFunction.getClass() == ConstantValueFunction.class)
+			return (objectiveData) -> 0;
+		return (objectiveData) -> valueFunction.getSubjectiveValue(objectiveData);
+	}
+
+}
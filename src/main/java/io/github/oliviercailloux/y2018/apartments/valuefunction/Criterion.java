@@ -0,0 +1,84 @@
+package io.github.oliviercailloux.y2018.apartments.valuefunction;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentAttribute;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentView;
+
+/**
+ * The valuable attributes of an apartment, each one having a {@link PartialValueFunction} and a weight in an {@link ApartmentValueFunction}.
+ */
+public enum Criterion {
+	FLOOR_AREA(ApartmentAttribute.FLOOR_AREA),
+	NB_BEDROOMS(ApartmentAttribute.NB_BEDROOMS),
+	NB_SLEEPING(ApartmentAttribute.NB_SLEEPING),
+	NB_BATHROOMS(ApartmentAttribute.NB_BATHROOMS),
+	TERRACE(ApartmentAttribute.TERRACE),
+	FLOOR_AREA_TERRACE(ApartmentAttribute.FLOOR_AREA_TERRACE),
+	WIFI(ApartmentAttribute.WIFI),
+	PRICE_PER_NIGHT(ApartmentAttribute.PRICE_PER_NIGHT),
+	NB_MIN_NIGHT(ApartmentAttribute.NB_MIN_NIGHT),
+	TELE(ApartmentAttribute.TELE);
+
+	private static final Map<ApartmentAttribute, Criterion> BY_ATTRIBUTE = new EnumMap<>(ApartmentAttribute.class);
+
+	static {
+		for (Criterion criterion : values()) {
+			BY_ATTRIBUTE.put(criterion.attribute, criterion);
+		}
+	}
+
+	private final ApartmentAttribute attribute;
+
+	private Criterion(ApartmentAttribute attribute) {
+		this.attribute = attribute;
+	}
+
+	/**
+	 * @return the attribute of the apartment evaluated by this criterion
+	 */
+	public ApartmentAttribute getAttribute() {
+		return attribute;
+	}
+
+	/**
+	 * @param attribute an attribute of an apartment
+	 * @return the criterion which evaluates this attribute, or an empty optional if the attribute is not valuable, such as the title
+	 */
+	public static Optional<Criterion> of(ApartmentAttribute attribute) {
+		return Optional.ofNullable(BY_ATTRIBUTE.get(attribute));
+	}
+
+	/**
+	 * @param apart an apartment
+	 * @return the value of the attribute of the apartment evaluated by this criterion, boxed: a {@link Number} or a {@link Boolean}
+	 */
+	public Object getRawValue(ApartmentView apart) {
+		switch (this) {
+		case FLOOR_AREA:
+			return apart.getFloorArea();
+		case NB_BEDROOMS:
+			return apart.getNbBedrooms();
+		case NB_SLEEPING:
+			return apart.getNbSleeping();
+		case NB_BATHROOMS:
+			return apart.getNbBathrooms();
+		case TERRACE:
+			return apart.getTerrace();
+		case FLOOR_AREA_TERRACE:
+			return apart.getFloorAreaTerrace();
+		case WIFI:
+			return apart.getWifi();
+		case PRICE_PER_NIGHT:
+			return apart.getPricePerNight();
+		case NB_MIN_NIGHT:
+			return apart.getNbMinNight();
+		case TELE:
+			return apart.getTele();
+		default:
+			throw new AssertionError(this);
+		}
+	}
+}
@@ -1,6 +1,19 @@
 package io.github.oliviercailloux.y2018.apartments.valuefunction;
 
+/**
+ * The way the distance between two places is computed.
+ */
 public enum DistanceMode {
+	/**
+	 * Asked to Google Maps with the addresses of the places.
+	 */
 	ADDRESS,
-	COORDINATE
+	/**
+	 * Asked to Google Maps with the coordinates of the places.
+	 */
+	COORDINATE,
+	/**
+	 * Estimated locally from the coordinates of the places, by a {@link io.github.oliviercailloux.y2018.apartments.distance.TravelTimeEstimator}.
+	 */
+	ESTIMATION
 }
@@ -0,0 +1,40 @@
+package io.github.oliviercailloux.y2018.apartments.valuefunction;
+
+/**
+ * A {@link PartialValueFunction} of a double which can be evaluated without boxing its argument nor its result.
+ */
+public interface DoublePartialValueFunction extends PartialValueFunction<Double> {
+
+	/**
+	 * This function enables to get the subjective value of an objective data, without boxing.
+	 * @param objectiveData is the parameter from which we want to get the subjective value
+	 * @return A double (between 0 and 1) that represent the subjective value of the parameter
+	 * @throws IllegalArgumentException
+	 */
+	public double applyAsDouble(double objectiveData) throws IllegalArgumentException;
+
+	@Override
+	public default double getSubjectiveValue(Double objectiveData) throws IllegalArgumentException {
+		return applyAsDouble(objectiveData);
+	}
+
+	@Override
+	public default Double apply(Double objectiveData) {
+		return applyAsDouble(objectiveData);
+	}
+
+	/**
+	 * Returns a {@link DoublePartialValueFunction} which computes the same subjective values as the function in parameter.
+	 * If the function is already a {@link DoublePartialValueFunction}, it is returned as is. Otherwise, only a {@link ConstantValueFunction} itself, not a subclass which may override its values, is evaluated without boxing.
+	 * @param valueFunction a not null {@link PartialValueFunction} of a double
+	 * @return the primitive view of the function
+	 */
+	public static DoublePartialValueFunction of(PartialValueFunction<Double> valueFunction) {
+		if (valueFunction instanceof DoublePartialValueFunction)
+			return (DoublePartialValueFunction) valueFunction;
+		if (valueFunction.getClass() == ConstantValueFunction.class)
+			return (objectiveData) -> 0;
+		return (objectiveData) -> valueFunction.getSubjectiveValue(objectiveData);
+	}
+
+}
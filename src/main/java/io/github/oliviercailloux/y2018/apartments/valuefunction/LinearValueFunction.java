@@ -3,16 +3,15 @@ package io.github.oliviercailloux.y2018.apartments.valuefunction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.collect.Range;
-
 
 /**
  * Class which enables the user to get the subjective value of a double given in argument.
  *
  */
-public class LinearValueFunction implements PartialValueFunction<Double> {
+public class LinearValueFunction implements DoublePartialValueFunction {
 
-	private Range<Double> interval ;
+	private final double lowerBound;
+	private final double upperBound;
 	private final static Logger LOGGER = LoggerFactory.getLogger(LinearValueFunction.class);
 
 	/**
@@ -25,28 +24,26 @@ public class LinearValueFunction implements PartialValueFunction<Double> {
 			LOGGER.error("The upper bound is equal to the lower bound in the constructor of the LinearValueFunction.");
 			throw new IllegalArgumentException("The upper bound can't be equal to the lower bound.");
 		}
-		interval = Range.closed(min, max);
-		LOGGER.info("The interval ["+min+","+max+"] "+" has been set with success in the LinearValueFunction class.");
+		if (min > max) {
+			LOGGER.error("The lower bound is greater than the upper bound in the constructor of the LinearValueFunction.");
+			throw new IllegalArgumentException("The lower bound can't be greater than the upper bound.");
+		}
+		lowerBound = min;
+		upperBound = max;
+		LOGGER.debug("The interval [{},{}] has been set with success in the {} class.", min, max, "LinearValueFunction");
 	}
 
 	@Override
-	public double getSubjectiveValue(Double objectiveData) throws IllegalArgumentException {
-		if (interval.isEmpty())
-			throw new IllegalArgumentException();
-		if(interval.lowerEndpoint() >= objectiveData) {
+	public double applyAsDouble(double objectiveData) throws IllegalArgumentException {
+		if(lowerBound >= objectiveData) {
 			return 0;
 		}
-		else if(interval.upperEndpoint() <= objectiveData) {
+		else if(upperBound <= objectiveData) {
 			return 1;
 		}
 		else {
-			return (objectiveData - interval.lowerEndpoint())/(interval.upperEndpoint() - interval.lowerEndpoint());
+			return (objectiveData - lowerBound)/(upperBound - lowerBound);
 		}
 	}
 
-	@Override
-	public Double apply(Double objectiveData) {
-		return getSubjectiveValue(objectiveData);
-	}
-
 }
@@ -0,0 +1,134 @@
+package io.github.oliviercailloux.y2018.apartments.valuefunction;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentView;
+
+/**
+ * The breakdown of the subjective value of an apartment, returned by {@link ApartmentScorer#explainScore(ApartmentView)}, or built by {@link #of(ApartmentView, double[], double[])} from subjective values already computed.
+ * For each criterion, it gives the value of the attribute, its subjective value, its normalized weight and their product, which is the contribution of the criterion to the score.
+ * An explanation is only computed when it is asked for, so that scoring an apartment costs no more than the arithmetic.
+ */
+public class ScoreExplanation {
+
+	/**
+	 * The part of the score due to one criterion.
+	 */
+	public static class Contribution {
+		private final Criterion criterion;
+		private final Object rawValue;
+		private final double subjectiveValue;
+		private final double weight;
+
+		Contribution(Criterion criterion, Object rawValue, double subjectiveValue, double weight) {
+			this.criterion = criterion;
+			this.rawValue = rawValue;
+			this.subjectiveValue = subjectiveValue;
+			this.weight = weight;
+		}
+
+		public Criterion getCriterion() {
+			return criterion;
+		}
+
+		/**
+		 * @return the value of the attribute of the apartment, as given by {@link Criterion#getRawValue(io.github.oliviercailloux.y2018.apartments.apartment.ApartmentView)}
+		 */
+		public Object getRawValue() {
+			return rawValue;
+		}
+
+		/**
+		 * @return the subjective value of the attribute, between 0 and 1
+		 */
+		public double getSubjectiveValue() {
+			return subjectiveValue;
+		}
+
+		/**
+		 * @return the weight of the criterion divided by the sum of the weights
+		 */
+		public double getWeight() {
+			return weight;
+		}
+
+		/**
+		 * @return the subjective value multiplied by the normalized weight
+		 */
+		public double getContribution() {
+			return subjectiveValue * weight;
+		}
+
+		@Override
+		public String toString() {
+			return criterion + " = " + rawValue + ": " + subjectiveValue + " × " + weight + " = " + getContribution();
+		}
+	}
+
+	private final List<Contribution> contributions;
+	private final double score;
+
+	/**
+	 * @param contributions the contributions of the criteria, in the order of the {@link Criterion}
+	 */
+	ScoreExplanation(List<Contribution> contributions) {
+		this.contributions = Collections.unmodifiableList(new ArrayList<>(contributions));
+		double sum = 0;
+		for (Contribution contribution : contributions) {
+			sum += contribution.getContribution();
+		}
+		this.score = sum;
+	}
+
+	/**
+	 * Builds the explanation of the score of an apartment from subjective values already computed, for example kept by a catalogue, without evaluating any partial value function.
+	 * @param apart the apartment, whose attributes give the raw values
+	 * @param subjectiveValues the subjective values of the attributes of the apartment, indexed by the ordinal of the {@link Criterion}
+	 * @param normalizedWeights the weights divided by their sum, indexed by the ordinal of the {@link Criterion}
+	 * @return the breakdown of the subjective value of the apartment
+	 */
+	public static ScoreExplanation of(ApartmentView apart, double[] subjectiveValues, double[] normalizedWeights) {
+		checkArgument(subjectiveValues.length == Criterion.values().length && normalizedWeights.length == Criterion.values().length, "There should be %s subjective values and weights", Criterion.values().length);
+		List<Contribution> contributions = new ArrayList<>(subjectiveValues.length);
+		for (Criterion criterion : Criterion.values()) {
+			contributions.add(new Contribution(criterion, criterion.getRawValue(apart), subjectiveValues[criterion.ordinal()], normalizedWeights[criterion.ordinal()]));
+		}
+		return new ScoreExplanation(contributions);
+	}
+
+	/**
+	 * @return the subjective value of the apartment, the sum of the contributions
+	 */
+	public double getScore() {
+		return score;
+	}
+
+	/**
+	 * @return the contributions of the criteria, in the order of the {@link Criterion}
+	 */
+	public List<Contribution> getContributions() {
+		return contributions;
+	}
+
+	/**
+	 * @param criterion a valuable attribute of an apartment
+	 * @return the contribution of this criterion to the score
+	 */
+	public Contribution getContribution(Criterion criterion) {
+		return contributions.get(criterion.ordinal());
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("Score ").append(score);
+		for (Contribution contribution : contributions) {
+			builder.append(System.lineSeparator()).append("  ").append(contribution);
+		}
+		return builder.toString();
+	}
+
+}
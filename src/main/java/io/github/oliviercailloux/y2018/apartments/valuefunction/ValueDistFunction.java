@@ -7,8 +7,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.maps.model.LatLng;
+import com.google.maps.model.TravelMode;
 
-import io.github.oliviercailloux.y2018.apartments.distance.DistanceSubway;
+import io.github.oliviercailloux.y2018.apartments.distance.DistanceMatrixTravelTimeProvider;
+import io.github.oliviercailloux.y2018.apartments.distance.TravelTimeProvider;
 
 /**
  * This class enables the user to calculate the utility of a location by linear interpolation,
@@ -19,18 +21,28 @@ public class ValueDistFunction implements PartialValueFunction<LatLng> {
 	private Map<LatLng, Double> interestlocation;
 	private LatLng appartlocation;
 	private double maxDuration;
-	private String apiKey;
+	private TravelTimeProvider travelTimeProvider;
 	private final static Logger LOGGER = LoggerFactory.getLogger(ValueDistFunction.class);
 	
 	
 	/**
 	 * Initializes the different variables of the ValueDistFunction class.
+	 * The durations are asked to Google Maps with the API key in parameter.
 	 * @param appartlocation Object LatLng which represents the apartment location.
 	 */
 	public ValueDistFunction(LatLng appartlocation, String apiKey){
+		this(appartlocation, new DistanceMatrixTravelTimeProvider(apiKey));
+	}
+	
+	/**
+	 * Initializes the different variables of the ValueDistFunction class.
+	 * @param appartlocation Object LatLng which represents the apartment location.
+	 * @param travelTimeProvider the {@link TravelTimeProvider} which computes the durations, for example a {@link io.github.oliviercailloux.y2018.apartments.distance.TravelTimeCache} shared by several functions, or a {@link io.github.oliviercailloux.y2018.apartments.distance.TravelTimeEstimator} to work offline.
+	 */
+	public ValueDistFunction(LatLng appartlocation, TravelTimeProvider travelTimeProvider){
 		interestlocation = new HashMap<>();
 		this.appartlocation = appartlocation;
-		this.apiKey = apiKey;
+		this.travelTimeProvider = travelTimeProvider;
 		maxDuration = 0;
 	}
 	
@@ -45,7 +57,7 @@ public class ValueDistFunction implements PartialValueFunction<LatLng> {
 			maxDuration = currentdistance;
 		double utility = 1-setUtility(currentdistance);
 		interestlocation.put(interest, utility);
-		LOGGER.info("The interest location ("+interest+") with the utility "+utility+" has been had with success in the Map.");
+		LOGGER.info("The interest location ({}) with the utility {} has been had with success in the Map.", interest, utility);
 	}
 	
 	/**
@@ -63,9 +75,8 @@ public class ValueDistFunction implements PartialValueFunction<LatLng> {
 	 * @throws Exception 
 	 */
 	public double calculateDistanceLocation(LatLng interest) throws Exception {
-		DistanceSubway dist = new DistanceSubway(interest,appartlocation,apiKey);
-		double currentdistance = dist.calculateDistanceAddress(DistanceMode.COORDINATE);
-		LOGGER.info("The distance between "+interest+" and "+appartlocation+" has been calculated and is equal to "+ currentdistance);
+		double currentdistance = travelTimeProvider.getTravelTime(interest, appartlocation, TravelMode.TRANSIT);
+		LOGGER.debug("The distance between {} and {} has been calculated and is equal to {}", interest, appartlocation, currentdistance);
 		return currentdistance;
 
 	}
@@ -83,7 +94,7 @@ public class ValueDistFunction implements PartialValueFunction<LatLng> {
 	@Override
 	public double getSubjectiveValue(LatLng objectiveData) {
 		if (interestlocation.containsKey(objectiveData)==false) {
-			LOGGER.error("Impossible to return the subjective value of the key "+objectiveData+" because the map doestn't contain this key.");
+			LOGGER.error("Impossible to return the subjective value of the key {} because the map doestn't contain this key.", objectiveData);
 			throw new IllegalArgumentException("The map doestn't contain the key "+objectiveData);
 		}
 		return interestlocation.get(objectiveData);
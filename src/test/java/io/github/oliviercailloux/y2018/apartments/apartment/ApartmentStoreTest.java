@@ -0,0 +1,88 @@
+package io.github.oliviercailloux.y2018.apartments.apartment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ApartmentStoreTest {
+
+	private static List<Apartment> generate(int count) {
+		List<Apartment> apartments = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			Apartment a = new Apartment(20 + i, "Rue " + (i % 10) + ", Annecy", "Appartement n°" + i);
+			a.setNbBedrooms(i % 4);
+			a.setNbSleeping(i % 7);
+			a.setNbBathrooms(i % 2);
+			a.setTerrace(i % 3 == 0);
+			if (i % 3 == 0)
+				a.setFloorAreaTerrace(i % 30);
+			a.setWifi(i % 5 == 0);
+			a.setTele(i % 2 == 0);
+			a.setPricePerNight(30 + i * 0.5);
+			a.setNbMinNight(i % 9);
+			apartments.add(a);
+		}
+		return apartments;
+	}
+
+	@Test
+	void addTest() {
+		List<Apartment> apartments = generate(200);
+		ApartmentStore store = new ApartmentStore();
+		for (Apartment a : apartments) {
+			store.add(a);
+		}
+		Assert.assertEquals(200, store.size());
+		for (int i = 0; i < apartments.size(); i++) {
+			Assert.assertEquals(apartments.get(i), store.toApartment(i));
+			Assert.assertEquals(apartments.get(i).getTitle(), store.get(i).getTitle());
+			Assert.assertEquals(apartments.get(i).getWifi(), store.get(i).getWifi());
+		}
+		Assert.assertEquals(apartments.get(150).getPricePerNight(), store.asList().get(150).getPricePerNight(), 0);
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> store.get(200));
+	}
+
+	@Test
+	void updateTest() {
+		ApartmentStore store = new ApartmentStore(0);
+		for (Apartment a : generate(70)) {
+			store.add(a);
+		}
+		ApartmentStore.View view = store.get(65);
+		store.setTerrace(65, true);
+		store.setFloorAreaTerrace(65, 12);
+		store.setDescription(65, "Vue sur le lac");
+		store.setTele(64, false);
+		Assert.assertTrue(view.getTerrace());
+		Assert.assertEquals(12, view.getFloorAreaTerrace(), 0);
+		Assert.assertEquals("Vue sur le lac", view.getDescription());
+		Assert.assertFalse(store.get(64).getTele());
+		Assert.assertTrue(store.get(66).getTele());
+
+		Apartment invalid = new Apartment(10, "Annecy", "Studio");
+		invalid.setTerrace(true);
+		invalid.setFloorAreaTerrace(5);
+		invalid.setTerrace(false);
+		Assertions.assertThrows(IllegalArgumentException.class, () -> store.add(invalid));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> store.setNbBedrooms(0, -1));
+		Assert.assertEquals(70, store.size());
+	}
+
+	@Test
+	void dictionaryTest() {
+		StringDictionary strings = new StringDictionary();
+		List<Integer> ids = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			ids.add(strings.add("Rue " + (i % 100) + " à Annecy"));
+		}
+		Assert.assertEquals(100, strings.size());
+		Assert.assertEquals(ids.get(7), ids.get(107));
+		Assert.assertEquals("Rue 7 à Annecy", strings.get(ids.get(7)));
+		Assert.assertEquals(strings.add(""), strings.add(""));
+		Assert.assertEquals("", strings.get(strings.add("")));
+	}
+
+}
@@ -2,6 +2,10 @@ package io.github.oliviercailloux.y2018.apartments.apartment;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 
 class ApartmentTest {
@@ -46,4 +50,25 @@ class ApartmentTest {
 		
 	}
 
+	@Test
+	void changeListenerTest() {
+		
+		Apartment a = new Apartment(150,"Arras","Micky's home");
+		List<ApartmentAttribute> changes = new ArrayList<>();
+		ApartmentChangeListener listener = (apartment, attribute) -> changes.add(attribute);
+		a.addChangeListener(listener);
+		
+		a.setPricePerNight(40);
+		a.setPricePerNight(40);
+		a.setTitle("Micky's house");
+		a.setWifi(false);
+		assertEquals(Arrays.asList(ApartmentAttribute.PRICE_PER_NIGHT, ApartmentAttribute.TITLE), changes);
+		
+		a.removeChangeListener(listener);
+		a.setNbBedrooms(2);
+		assertEquals(2, changes.size());
+		assertTrue(a.equals(new Apartment(150,"Arras","Micky's house")) == false);
+		
+	}
+
 }
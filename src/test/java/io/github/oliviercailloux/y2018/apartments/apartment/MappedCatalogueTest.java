@@ -0,0 +1,76 @@
+package io.github.oliviercailloux.y2018.apartments.apartment;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class MappedCatalogueTest {
+
+	@Test
+	void writeAndOpenTest() throws Exception {
+		List<Apartment> apartments = new ArrayList<>();
+		for (int i = 0; i < 3000; i++) {
+			Apartment a = new Apartment(15 + i % 200, "Rue " + (i % 50) + ", Annecy", "Appartement n°" + i);
+			a.setNbBedrooms(i % 4);
+			a.setNbMinNight(i % 9);
+			a.setTerrace(i % 3 == 0);
+			if (i % 3 == 0)
+				a.setFloorAreaTerrace(i % 20);
+			a.setWifi(i % 2 == 0);
+			a.setTele(i % 5 == 0);
+			a.setPricePerNight(40.5 + i);
+			a.setDescription(i % 10 == 0 ? "Vue sur le lac" : "");
+			apartments.add(a);
+		}
+		Path file = Files.createTempFile("catalogue", ".bin");
+		try {
+			Assert.assertEquals(3000, MappedCatalogue.write(apartments, file));
+			MappedCatalogue catalogue = MappedCatalogue.open(file);
+			Assert.assertEquals(3000, catalogue.size());
+			ApartmentStore store = new ApartmentStore();
+			for (ApartmentView view : catalogue.asList()) {
+				store.add(view);
+			}
+			for (int i = 0; i < apartments.size(); i++) {
+				Assert.assertEquals(apartments.get(i), store.toApartment(i));
+			}
+			Assert.assertEquals(2999, catalogue.get(2999).getIndex());
+			Assertions.assertThrows(IndexOutOfBoundsException.class, () -> catalogue.get(3000));
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	void emptyTest() throws Exception {
+		Path file = Files.createTempFile("catalogue", ".bin");
+		try {
+			MappedCatalogue.write(new ArrayList<Apartment>(), file);
+			Assert.assertEquals(0, MappedCatalogue.open(file).size());
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	void invalidFileTest() throws Exception {
+		Path file = Files.createTempFile("catalogue", ".bin");
+		try {
+			Files.write(file, "not a catalogue, only some text".getBytes(StandardCharsets.UTF_8));
+			Assertions.assertThrows(IOException.class, () -> MappedCatalogue.open(file));
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
+}
@@ -0,0 +1,136 @@
+package io.github.oliviercailloux.y2018.apartments.binary;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.base.Strings;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.readapartments.ApartmentXMLStreamReader;
+import io.github.oliviercailloux.y2018.apartments.toxmlproperties.XMLProperties;
+
+class ApartmentBinaryTest {
+
+	private static List<Apartment> generate(int count) {
+		List<Apartment> apartments = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			Apartment a = new Apartment(15.25 + i, "Rue " + i + " <Annecy> & environs", "Appartement n°" + i);
+			a.setNbBedrooms(i % 4);
+			a.setNbSleeping(i * 1000);
+			a.setNbBathrooms(i % 2);
+			a.setTerrace(i % 3 == 0);
+			if (i % 3 == 0)
+				a.setFloorAreaTerrace(0.1 * i);
+			a.setWifi(i % 2 == 0);
+			a.setTele(i % 5 == 0);
+			a.setPricePerNight(Math.PI * i);
+			a.setNbMinNight(i % 9);
+			a.setDescription(i % 10 == 0 ? "Vue sur le lac, près des montagnes ⛰" : "");
+			apartments.add(a);
+		}
+		return apartments;
+	}
+
+	private static byte[] write(List<Apartment> apartments) throws Exception {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		try (ApartmentBinaryWriter writer = new ApartmentBinaryWriter(Channels.newChannel(output))) {
+			for (Apartment a : apartments) {
+				writer.write(a);
+			}
+		}
+		return output.toByteArray();
+	}
+
+	private static List<Apartment> read(byte[] bytes) throws Exception {
+		List<Apartment> apartments = new ArrayList<>();
+		try (ApartmentBinaryReader reader = new ApartmentBinaryReader(Channels.newChannel(new ByteArrayInputStream(bytes)))) {
+			reader.forEachRemaining(apartments::add);
+		}
+		return apartments;
+	}
+
+	@Test
+	void roundTripTest() throws Exception {
+		List<Apartment> apartments = generate(5000);
+		apartments.get(42).setDescription(Strings.repeat("Un très grand appartement. ", 10000));
+		byte[] bytes = write(apartments);
+		Assert.assertEquals(apartments, read(bytes));
+		Assert.assertEquals(0, read(write(new ArrayList<>())).size());
+	}
+
+	@Test
+	void addedFieldsTest() throws Exception {
+		Apartment a = new Apartment(30, "Annecy", "Studio");
+		a.setWifi(true);
+		byte[] bytes = write(Arrays.asList(a, a));
+		ByteBuffer original = ByteBuffer.wrap(bytes);
+		original.getInt();
+		BinaryFormat.getVarint(original);
+		int header = original.position();
+		int length = BinaryFormat.getVarint(original);
+		int body = original.position();
+
+		byte[] extra = { 1, 2, 3, 4, 5, 6, 7 };
+		ByteBuffer future = ByteBuffer.allocate(bytes.length * 2 + 2 * extra.length);
+		future.put(bytes, 0, header);
+		for (int i = 0; i < 2; i++) {
+			BinaryFormat.putVarint(future, length + extra.length);
+			future.put(bytes, body, length);
+			future.put(extra);
+		}
+		Assert.assertEquals(Arrays.asList(a, a), read(Arrays.copyOf(future.array(), future.position())));
+	}
+
+	@Test
+	void invalidTest() throws Exception {
+		byte[] bytes = write(generate(10));
+		Assertions.assertThrows(UncheckedIOException.class, () -> read(Arrays.copyOf(bytes, bytes.length - 3)));
+		byte[] otherVersion = bytes.clone();
+		otherVersion[4] = 2;
+		Assertions.assertThrows(IOException.class, () -> read(otherVersion));
+		Assertions.assertThrows(IOException.class, () -> read("<properties/>".getBytes("UTF-8")));
+	}
+
+	@Test
+	void converterTest() throws Exception {
+		List<Apartment> apartments = generate(300);
+		Path directory = Files.createTempDirectory("apartments");
+		Path xml = directory.resolve("apartments.xml");
+		Path binary = directory.resolve("apartments.bin");
+		Path back = directory.resolve("back.xml");
+		try {
+			try (OutputStream output = Files.newOutputStream(xml)) {
+				new XMLProperties().toXML(apartments, output);
+			}
+			Assert.assertEquals(300, BinaryXMLConverter.toBinary(xml, binary));
+			Assert.assertTrue(Files.size(binary) < Files.size(xml) / 3);
+			Assert.assertEquals(300, BinaryXMLConverter.toXML(binary, back));
+			List<Apartment> read = new ArrayList<>();
+			try (ApartmentXMLStreamReader reader = new ApartmentXMLStreamReader(Files.newInputStream(back))) {
+				reader.forEachRemaining(read::add);
+			}
+			Assert.assertEquals(apartments, read);
+		}
+		finally {
+			Files.deleteIfExists(back);
+			Files.deleteIfExists(binary);
+			Files.deleteIfExists(xml);
+			Files.delete(directory);
+		}
+	}
+
+}
@@ -0,0 +1,134 @@
+package io.github.oliviercailloux.y2018.apartments.binary;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+
+class ApartmentJournalTest {
+
+	private static Apartment apartment(int i) {
+		Apartment a = new Apartment(20 + i, "Rue " + i + ", Annecy", "Appartement n°" + i);
+		a.setNbBedrooms(i % 4);
+		a.setWifi(i % 2 == 0);
+		a.setPricePerNight(30 + i * 0.5);
+		return a;
+	}
+
+	private static void delete(Path directory) throws IOException {
+		try (Stream<Path> walk = Files.walk(directory)) {
+			for (Path file : walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+				Files.delete(file);
+			}
+		}
+	}
+
+	@Test
+	void groupCommitTest() throws Exception {
+		Path directory = Files.createTempDirectory("journal");
+		try {
+			List<CompletableFuture<Void>> futures = new ArrayList<>();
+			List<Runnable> paused = new ArrayList<>();
+			try (ApartmentJournal journal = ApartmentJournal.open(directory, ApartmentJournal.DEFAULT_COMPACTION_THRESHOLD, paused::add)) {
+				for (int i = 0; i < 1000; i++) {
+					futures.add(journal.put("apartment" + (i % 10), apartment(i)));
+				}
+				futures.add(journal.remove("apartment3"));
+				Assert.assertEquals(apartment(999), journal.get("apartment9").get());
+				Assert.assertFalse(journal.get("apartment3").isPresent());
+				Assert.assertFalse(futures.get(0).isDone());
+				Assert.assertEquals(1, paused.size());
+				new Thread(paused.get(0)).start();
+				CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get();
+				Assert.assertEquals(1, journal.getCommitCount());
+			}
+			Assertions.assertThrows(IllegalStateException.class, () -> {
+				ApartmentJournal closed = ApartmentJournal.open(directory);
+				closed.close();
+				closed.put("apartment0", apartment(0));
+			});
+
+			try (ApartmentJournal journal = ApartmentJournal.open(directory)) {
+				Assert.assertEquals(9, journal.keys().size());
+				Assert.assertEquals(apartment(990), journal.get("apartment0").get());
+				Assert.assertEquals(apartment(999), journal.get("apartment9").get());
+				Assert.assertFalse(journal.get("apartment3").isPresent());
+			}
+		}
+		finally {
+			delete(directory);
+		}
+	}
+
+	@Test
+	void recoveryTest() throws Exception {
+		Path directory = Files.createTempDirectory("journal");
+		try {
+			try (ApartmentJournal journal = ApartmentJournal.open(directory)) {
+				journal.put("a", apartment(1));
+				journal.put("b", apartment(2)).get();
+			}
+			Path file = directory.resolve(ApartmentJournal.JOURNAL);
+			long size = Files.size(file);
+			Files.write(file, new byte[] { 0, 0, 0, 50, 1, 2, 3, 4, 1, 0 }, StandardOpenOption.APPEND);
+
+			try (ApartmentJournal journal = ApartmentJournal.open(directory)) {
+				Assert.assertEquals(size, Files.size(file));
+				Assert.assertEquals(apartment(1), journal.get("a").get());
+				Assert.assertEquals(apartment(2), journal.get("b").get());
+				journal.put("c", apartment(3)).get();
+			}
+
+			byte[] bytes = Files.readAllBytes(file);
+			bytes[bytes.length - 1] ^= 1;
+			Files.write(file, bytes);
+			try (ApartmentJournal journal = ApartmentJournal.open(directory)) {
+				Assert.assertEquals(2, journal.keys().size());
+				Assert.assertFalse(journal.get("c").isPresent());
+			}
+
+			Files.write(file, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9 });
+			Assertions.assertThrows(IOException.class, () -> ApartmentJournal.open(directory));
+		}
+		finally {
+			delete(directory);
+		}
+	}
+
+	@Test
+	void compactionTest() throws Exception {
+		Path directory = Files.createTempDirectory("journal");
+		try {
+			try (ApartmentJournal journal = ApartmentJournal.open(directory, 2000)) {
+				for (int i = 0; i < 500; i++) {
+					journal.put("apartment" + (i % 7), apartment(i)).get();
+				}
+			}
+			Assert.assertTrue(Files.exists(directory.resolve(ApartmentJournal.SNAPSHOT)));
+			Assert.assertTrue(Files.size(directory.resolve(ApartmentJournal.JOURNAL)) <= 2000 + 200);
+
+			try (ApartmentJournal journal = ApartmentJournal.open(directory, 2000)) {
+				Assert.assertEquals(7, journal.keys().size());
+				for (int i = 493; i < 500; i++) {
+					Assert.assertEquals(apartment(i), journal.get("apartment" + (i % 7)).get());
+				}
+			}
+		}
+		finally {
+			delete(directory);
+		}
+	}
+
+}
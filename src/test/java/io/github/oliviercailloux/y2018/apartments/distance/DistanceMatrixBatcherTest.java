@@ -0,0 +1,92 @@
+package io.github.oliviercailloux.y2018.apartments.distance;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.google.maps.model.TravelMode;
+
+class DistanceMatrixBatcherTest {
+
+	/**
+	 * A local provider which returns 1000 × the index of the origin + the index of the destination, and checks the limits of the requests.
+	 */
+	private static class StubMatrixProvider implements TravelTimeMatrixProvider {
+		private final AtomicInteger requests = new AtomicInteger();
+
+		@Override
+		public double[][] getTravelTimes(List<String> origins, List<String> destinations, TravelMode mode) {
+			requests.incrementAndGet();
+			Assert.assertTrue(origins.size() <= DistanceMatrixBatcher.MAX_ORIGINS);
+			Assert.assertTrue(destinations.size() <= DistanceMatrixBatcher.MAX_DESTINATIONS);
+			Assert.assertTrue(origins.size() * destinations.size() <= DistanceMatrixBatcher.MAX_ELEMENTS);
+			double[][] result = new double[origins.size()][destinations.size()];
+			for (int i = 0; i < origins.size(); i++) {
+				for (int j = 0; j < destinations.size(); j++) {
+					result[i][j] = 1000 * Integer.parseInt(origins.get(i)) + Integer.parseInt(destinations.get(j));
+				}
+			}
+			return result;
+		}
+	}
+
+	private static List<String> places(int count) {
+		List<String> places = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			places.add(Integer.toString(i));
+		}
+		return places;
+	}
+
+	@Test
+	void getTravelTimesTest() throws Exception {
+		StubMatrixProvider provider = new StubMatrixProvider();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			DistanceMatrixBatcher batcher = new DistanceMatrixBatcher(provider, executor, 1000);
+			double[][] travelTimes = batcher.getTravelTimes(places(333), places(3), TravelMode.TRANSIT);
+			Assert.assertEquals(333, travelTimes.length);
+			for (int i = 0; i < 333; i++) {
+				for (int j = 0; j < 3; j++) {
+					Assert.assertEquals(1000 * i + j, travelTimes[i][j], 0);
+				}
+			}
+			Assert.assertEquals(14, provider.requests.get());
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void getTileSizeTest() {
+		DistanceMatrixBatcher batcher = new DistanceMatrixBatcher(new StubMatrixProvider(), Executors.newSingleThreadExecutor(), 1);
+		Assert.assertArrayEquals(new int[] { 4, 25 }, batcher.getTileSize(100, 100));
+		Assert.assertArrayEquals(new int[] { 25, 3 }, batcher.getTileSize(1000, 3));
+		Assert.assertArrayEquals(new int[] { 2, 25 }, batcher.getTileSize(2, 300));
+		Assert.assertArrayEquals(new int[] { 1, 1 }, batcher.getTileSize(1, 1));
+		Assert.assertArrayEquals(new int[] { 10, 10 }, batcher.getTileSize(30, 30));
+		Assert.assertArrayEquals(new int[] { 10, 10 }, batcher.getTileSize(50, 50));
+	}
+
+	@Test
+	void exceptionIsPropagated() {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			DistanceMatrixBatcher batcher = new DistanceMatrixBatcher((origins, destinations, mode) -> {
+				throw new IllegalStateException("No route");
+			}, executor, 1000);
+			Assertions.assertThrows(IllegalStateException.class, () -> batcher.getTravelTimes(places(30), places(30), TravelMode.TRANSIT));
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+}
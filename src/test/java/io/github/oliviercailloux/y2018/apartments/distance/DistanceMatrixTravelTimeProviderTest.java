@@ -0,0 +1,82 @@
+package io.github.oliviercailloux.y2018.apartments.distance;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import com.google.maps.GeoApiContext;
+import com.google.maps.PendingResult;
+import com.google.maps.model.DistanceMatrix;
+import com.google.maps.model.DistanceMatrixElement;
+import com.google.maps.model.DistanceMatrixElementStatus;
+import com.google.maps.model.DistanceMatrixRow;
+import com.google.maps.model.Duration;
+import com.google.maps.model.TravelMode;
+
+import io.github.oliviercailloux.y2018.apartments.utils.GeoApiClient;
+
+class DistanceMatrixTravelTimeProviderTest {
+
+	/**
+	 * A client which answers every request with the same matrix, without reaching Google Maps.
+	 */
+	private static class StubGeoApiClient extends GeoApiClient {
+		private final DistanceMatrix result;
+
+		private StubGeoApiClient(DistanceMatrix result) {
+			super("AIzaFakeKeyForTheTests", 1);
+			this.result = result;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public <T> T execute(Function<GeoApiContext, PendingResult<T>> request) {
+			return (T) result;
+		}
+	}
+
+	private static DistanceMatrixElement element(DistanceMatrixElementStatus status, long seconds) {
+		DistanceMatrixElement element = new DistanceMatrixElement();
+		element.status = status;
+		if (status == DistanceMatrixElementStatus.OK) {
+			element.duration = new Duration();
+			element.duration.inSeconds = seconds;
+		}
+		return element;
+	}
+
+	private static DistanceMatrix matrix(DistanceMatrixElement... elements) {
+		DistanceMatrixRow row = new DistanceMatrixRow();
+		row.elements = elements;
+		return new DistanceMatrix(new String[] { "Paris" }, new String[elements.length], new DistanceMatrixRow[] { row });
+	}
+
+	@Test
+	void travelTimeTest() throws Exception {
+		try (GeoApiClient client = new StubGeoApiClient(matrix(element(DistanceMatrixElementStatus.OK, 1200)))) {
+			Assert.assertEquals(1200, new DistanceMatrixTravelTimeProvider(client).getTravelTime("Paris", "Chaville", TravelMode.TRANSIT), 0);
+		}
+	}
+
+	@Test
+	void noPathTest() throws Exception {
+		try (GeoApiClient client = new StubGeoApiClient(matrix(element(DistanceMatrixElementStatus.NOT_FOUND, 0)))) {
+			Assert.assertTrue(Double.isNaN(new DistanceMatrixTravelTimeProvider(client).getTravelTime("Paris", "Nowhere", TravelMode.TRANSIT)));
+		}
+		try (GeoApiClient client = new StubGeoApiClient(matrix(element(DistanceMatrixElementStatus.ZERO_RESULTS, 0)))) {
+			Assert.assertTrue(Double.isNaN(new DistanceMatrixTravelTimeProvider(client).getTravelTime("Paris", "New York", TravelMode.TRANSIT)));
+		}
+	}
+
+	@Test
+	void travelTimesTest() throws Exception {
+		try (GeoApiClient client = new StubGeoApiClient(matrix(element(DistanceMatrixElementStatus.OK, 1200), element(DistanceMatrixElementStatus.ZERO_RESULTS, 0)))) {
+			double[][] travelTimes = new DistanceMatrixTravelTimeProvider(client).getTravelTimes(Arrays.asList("Paris"), Arrays.asList("Chaville", "New York"), TravelMode.TRANSIT);
+			Assert.assertEquals(1200, travelTimes[0][0], 0);
+			Assert.assertTrue(Double.isNaN(travelTimes[0][1]));
+		}
+	}
+
+}
@@ -0,0 +1,196 @@
+package io.github.oliviercailloux.y2018.apartments.distance;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.google.maps.model.LatLng;
+import com.google.maps.model.TravelMode;
+
+class TravelTimeCacheTest {
+
+	/**
+	 * A local provider which returns the length of the origin and destination and counts the calls.
+	 */
+	private static class FakeTravelTimeProvider implements TravelTimeProvider {
+		private int calls = 0;
+
+		@Override
+		public double getTravelTime(String origin, String destination, TravelMode mode) {
+			calls++;
+			return origin.length() * 100 + destination.length();
+		}
+	}
+
+	private static class MutableClock extends Clock {
+		private long millis = 1000000;
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return Instant.ofEpochMilli(millis);
+		}
+	}
+
+	@Test
+	void hitAndMissTest() throws Exception {
+		Path file = Files.createTempFile("travel-times", ".tsv");
+		FakeTravelTimeProvider provider = new FakeTravelTimeProvider();
+		try (TravelTimeCache cache = new TravelTimeCache(provider, file, 1, TimeUnit.HOURS, 100)) {
+			Assert.assertEquals(508, cache.getTravelTime("Paris", "Chaville", TravelMode.TRANSIT), 0);
+			Assert.assertEquals(508, cache.getTravelTime("Paris", "Chaville", TravelMode.TRANSIT), 0);
+			Assert.assertEquals(805, cache.getTravelTime("Chaville", "Paris", TravelMode.TRANSIT), 0);
+			Assert.assertEquals(508, cache.getTravelTime("Paris", "Chaville", TravelMode.WALKING), 0);
+			Assert.assertEquals(3, provider.calls);
+			Assert.assertEquals(1, cache.stats().hitCount());
+			Assert.assertEquals(3, cache.stats().missCount());
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	void coordinatesTest() throws Exception {
+		Path file = Files.createTempFile("travel-times", ".tsv");
+		FakeTravelTimeProvider provider = new FakeTravelTimeProvider();
+		try (TravelTimeCache cache = new TravelTimeCache(provider, file, 1, TimeUnit.HOURS, 100)) {
+			cache.getTravelTime(new LatLng(48.8, 2.2), new LatLng(48.85, 2.35), TravelMode.TRANSIT);
+			cache.getTravelTime(new LatLng(48.8, 2.2), new LatLng(48.85, 2.35), TravelMode.TRANSIT);
+			Assert.assertEquals(1, provider.calls);
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	void persistenceTest() throws Exception {
+		Path file = Files.createTempFile("travel-times", ".tsv");
+		MutableClock clock = new MutableClock();
+		FakeTravelTimeProvider provider = new FakeTravelTimeProvider();
+		try {
+			try (TravelTimeCache cache = new TravelTimeCache(provider, file, 1, TimeUnit.HOURS, 100, clock)) {
+				cache.getTravelTime("Paris", "Chaville", TravelMode.TRANSIT);
+				cache.getTravelTime("Paris\tNord", "Chaville", TravelMode.TRANSIT);
+			}
+			clock.millis += TimeUnit.MINUTES.toMillis(30);
+			try (TravelTimeCache cache = new TravelTimeCache(provider, file, 1, TimeUnit.HOURS, 100, clock)) {
+				Assert.assertEquals(2, cache.size());
+				Assert.assertEquals(508, cache.getTravelTime("Paris", "Chaville", TravelMode.TRANSIT), 0);
+				Assert.assertEquals(1008, cache.getTravelTime("Paris\tNord", "Chaville", TravelMode.TRANSIT), 0);
+				Assert.assertEquals(2, provider.calls);
+				Assert.assertEquals(2, cache.stats().hitCount());
+			}
+			clock.millis += TimeUnit.MINUTES.toMillis(31);
+			try (TravelTimeCache cache = new TravelTimeCache(provider, file, 1, TimeUnit.HOURS, 100, clock)) {
+				Assert.assertEquals(0, cache.size());
+				Assert.assertEquals(0, Files.size(file));
+			}
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	void expirationTest() throws Exception {
+		Path file = Files.createTempFile("travel-times", ".tsv");
+		MutableClock clock = new MutableClock();
+		FakeTravelTimeProvider provider = new FakeTravelTimeProvider();
+		try (TravelTimeCache cache = new TravelTimeCache(provider, file, 10, TimeUnit.SECONDS, 100, clock)) {
+			cache.getTravelTime("Paris", "Chaville", TravelMode.TRANSIT);
+			clock.millis += 11000;
+			cache.getTravelTime("Paris", "Chaville", TravelMode.TRANSIT);
+			Assert.assertEquals(2, provider.calls);
+			Assert.assertEquals(1, cache.stats().evictionCount());
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	void sizeEvictionTest() throws Exception {
+		Path file = Files.createTempFile("travel-times", ".tsv");
+		FakeTravelTimeProvider provider = new FakeTravelTimeProvider();
+		try (TravelTimeCache cache = new TravelTimeCache(provider, file, 1, TimeUnit.HOURS, 2)) {
+			cache.getTravelTime("A", "B", TravelMode.TRANSIT);
+			cache.getTravelTime("A", "C", TravelMode.TRANSIT);
+			cache.getTravelTime("A", "D", TravelMode.TRANSIT);
+			Assert.assertEquals(2, cache.size());
+			Assert.assertEquals(1, cache.stats().evictionCount());
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	void evictedReadFromFileTest() throws Exception {
+		Path file = Files.createTempFile("travel-times", ".tsv");
+		FakeTravelTimeProvider provider = new FakeTravelTimeProvider();
+		try (TravelTimeCache cache = new TravelTimeCache(provider, file, 1, TimeUnit.HOURS, 2)) {
+			cache.getTravelTime("A", "B", TravelMode.TRANSIT);
+			cache.getTravelTime("A", "C", TravelMode.TRANSIT);
+			cache.getTravelTime("A", "D", TravelMode.TRANSIT);
+			Assert.assertEquals(101, cache.getTravelTime("A", "B", TravelMode.TRANSIT), 0);
+			Assert.assertEquals(3, provider.calls);
+			Assert.assertEquals(1, cache.stats().hitCount());
+			Assert.assertEquals(3, cache.stats().missCount());
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	void compactionTest() throws Exception {
+		Path file = Files.createTempFile("travel-times", ".tsv");
+		MutableClock clock = new MutableClock();
+		FakeTravelTimeProvider provider = new FakeTravelTimeProvider();
+		try (TravelTimeCache cache = new TravelTimeCache(provider, file, 10, TimeUnit.SECONDS, 100, clock)) {
+			for (int i = 0; i < 3000; i++) {
+				cache.getTravelTime("Paris", "Chaville", TravelMode.TRANSIT);
+				clock.millis += 11000;
+			}
+			Assert.assertEquals(3000, provider.calls);
+			Assert.assertTrue(Files.readAllLines(file).size() < 1024);
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	void exceptionIllegalArgTimeToLive() throws IOException {
+		Path file = Files.createTempFile("travel-times", ".tsv");
+		try {
+			Assertions.assertThrows(IllegalArgumentException.class, () -> {
+				new TravelTimeCache(new FakeTravelTimeProvider(), file, 0, TimeUnit.HOURS, 2);
+			});
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
+}
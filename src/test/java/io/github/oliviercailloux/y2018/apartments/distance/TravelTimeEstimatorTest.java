@@ -0,0 +1,55 @@
+package io.github.oliviercailloux.y2018.apartments.distance;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.google.maps.model.LatLng;
+import com.google.maps.model.TravelMode;
+
+class TravelTimeEstimatorTest {
+
+	private static final LatLng DAUPHINE = new LatLng(48.8707, 2.2739);
+	private static final LatLng CHATELET = new LatLng(48.8584, 2.3470);
+
+	@Test
+	void haversineTest() {
+		Assert.assertEquals(5527, TravelTimeEstimator.haversine(DAUPHINE.lat, DAUPHINE.lng, CHATELET.lat, CHATELET.lng), 10);
+		Assert.assertEquals(0, TravelTimeEstimator.haversine(1, 2, 1, 2), 0);
+	}
+
+	@Test
+	void estimateTest() {
+		TravelTimeEstimator estimator = new TravelTimeEstimator();
+		double walking = estimator.getTravelTime(DAUPHINE, CHATELET, TravelMode.WALKING);
+		Assert.assertEquals(5527 * 1.3 / (5 / 3.6), walking, 10);
+		Assert.assertEquals(estimator.getTravelTime(DAUPHINE, CHATELET, TravelMode.TRANSIT), estimator.getTravelTime(DAUPHINE.toUrlValue(), CHATELET.toUrlValue(), TravelMode.TRANSIT), 1e-6);
+		Assertions.assertThrows(IllegalArgumentException.class, () -> estimator.getTravelTime("Paris", "Chaville", TravelMode.TRANSIT));
+	}
+
+	@Test
+	void gridTest() throws Exception {
+		Path file = Files.createTempFile("grid", ".txt");
+		try {
+			Files.write(file, Arrays.asList("# Paris", "48.8 2.2 0.1 2 2", "0 1 600"), StandardCharsets.UTF_8);
+			TravelTimeGrid grid = TravelTimeGrid.load(file);
+			Assert.assertEquals(0, grid.getCell(48.85, 2.25));
+			Assert.assertEquals(1, grid.getCell(48.85, 2.35));
+			Assert.assertEquals(-1, grid.getCell(49.5, 2.25));
+			TravelTimeEstimator estimator = new TravelTimeEstimator(TravelTimeEstimator.getDefaultSpeedModels(), grid);
+			LatLng center0 = new LatLng(48.85, 2.25);
+			LatLng center1 = new LatLng(48.85, 2.35);
+			Assert.assertEquals(600, estimator.getTravelTime(center0, center1, TravelMode.TRANSIT), 1e-6);
+			Assert.assertEquals(new TravelTimeEstimator().getTravelTime(center1, center0, TravelMode.TRANSIT), estimator.getTravelTime(center1, center0, TravelMode.TRANSIT), 1e-6);
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
+}
@@ -0,0 +1,39 @@
+package io.github.oliviercailloux.y2018.apartments.distance;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TravelTimeGridTest {
+
+	/**
+	 * A grid of 300 × 300 cells of about 100 m over Paris and its suburbs, with travel times from a thousand cells to a hundred each: as dense, it would need 8.1 × 10⁹ doubles.
+	 */
+	@Test
+	void sparseGridTest() {
+		TravelTimeGrid grid = new TravelTimeGrid(48.7, 2.2, 0.001, 300, 300);
+		int nbCells = 300 * 300;
+		Random random = new Random(2018);
+		int[] origins = new int[1000];
+		for (int i = 0; i < origins.length; i++) {
+			origins[i] = random.nextInt(nbCells);
+			for (int j = 0; j < 100; j++) {
+				grid.setTravelTime(origins[i], (origins[i] + j * 997) % nbCells, i + j);
+			}
+		}
+		Assert.assertTrue(grid.getNbTravelTimes() <= 100_000);
+		Assert.assertTrue(grid.getNbTravelTimes() > 90_000);
+		int last = origins.length - 1;
+		Assert.assertEquals(last + 5, grid.getTravelTime(origins[last], (origins[last] + 5 * 997) % nbCells), 0);
+		Assert.assertTrue(Double.isNaN(grid.getTravelTime(origins[last], (origins[last] + 1) % nbCells)));
+		Assert.assertTrue(Double.isNaN(grid.getTravelTime(-1, 0)));
+
+		grid.setTravelTime(0, nbCells - 1, 42);
+		grid.setTravelTime(0, nbCells - 1, 43);
+		Assert.assertEquals(43, grid.getTravelTime(0, nbCells - 1), 0);
+		Assertions.assertThrows(IllegalArgumentException.class, () -> grid.setTravelTime(0, nbCells, 1));
+	}
+
+}
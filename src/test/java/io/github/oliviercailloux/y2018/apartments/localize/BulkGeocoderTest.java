@@ -0,0 +1,80 @@
+package io.github.oliviercailloux.y2018.apartments.localize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.google.maps.errors.ZeroResultsException;
+import com.google.maps.model.LatLng;
+
+class BulkGeocoderTest {
+
+	/**
+	 * A local geocoder which returns the length of the address as latitude, counts the calls and keeps the addresses received.
+	 */
+	private static class FakeGeocoder implements Geocoder {
+		private final AtomicInteger calls = new AtomicInteger();
+		private final Set<String> received = ConcurrentHashMap.newKeySet();
+
+		@Override
+		public LatLng geocode(String address) throws ZeroResultsException {
+			calls.incrementAndGet();
+			received.add(address);
+			if (address.trim().isEmpty())
+				throw new ZeroResultsException("No location found");
+			return new LatLng(address.length(), 2.5);
+		}
+	}
+
+	@Test
+	void normalizeTest() {
+		Assert.assertEquals("place de l'eglise, chaville", BulkGeocoder.normalize("  Place de  l'Église ,Chaville "));
+	}
+
+	@Test
+	void geocodeAllTest() throws Exception {
+		Path file = Files.createTempFile("geocodes", ".txt");
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		FakeGeocoder fake = new FakeGeocoder();
+		List<String> addresses = Arrays.asList("Paris", "Chaville", "paris", "Versailles", "CHAVILLE ");
+		try (BulkGeocoder geocoder = new BulkGeocoder(fake, file, 1, executor, 2)) {
+			List<LatLng> locations = geocoder.geocodeAll(addresses);
+			Assert.assertEquals(3, fake.calls.get());
+			Assert.assertEquals(new HashSet<>(Arrays.asList("Paris", "Chaville", "Versailles")), fake.received);
+			Assert.assertEquals(5, locations.size());
+			Assert.assertEquals(5, locations.get(0).lat, 0);
+			Assert.assertEquals(8, locations.get(1).lat, 0);
+			Assert.assertEquals(5, locations.get(2).lat, 0);
+			Assert.assertEquals(10, locations.get(3).lat, 0);
+			Assert.assertEquals(8, locations.get(4).lat, 0);
+			Assert.assertEquals(2, geocoder.stats().hitCount());
+			Assert.assertEquals(3, geocoder.latencyStats().count());
+			Assertions.assertThrows(ZeroResultsException.class, () -> geocoder.geocode(" "));
+			Assert.assertEquals(1, geocoder.size());
+			Assert.assertEquals(5, geocoder.geocode("PARIS").lat, 0);
+			Assert.assertEquals(4, fake.calls.get());
+		}
+		try (BulkGeocoder geocoder = new BulkGeocoder(fake, file, 10, executor, 2)) {
+			Assert.assertEquals(3, geocoder.size());
+			Assert.assertEquals(8, geocoder.geocode("Chaville").lat, 0);
+			Assert.assertEquals(4, fake.calls.get());
+			Assert.assertEquals(1, geocoder.stats().hitRate(), 0);
+		}
+		finally {
+			executor.shutdown();
+			Files.delete(file);
+		}
+	}
+
+}
@@ -5,6 +5,8 @@ import java.io.IOException;
 import org.junit.Assert;
 import org.junit.jupiter.api.Test;
 
+import com.google.common.collect.Range;
+
 import io.github.oliviercailloux.y2018.apartments.piecewise.PiecewiseLinearValueFunction;
 
 public class PiecewiseTest{
@@ -30,6 +32,50 @@ public class PiecewiseTest{
 
 	}
 
+	@Test
+	void getUtilityOnBreakPoint() throws IOException {
+		PiecewiseLinearValueFunction p = initializePieceWise();
+		Assert.assertEquals(0.3, p.getUtility(30), 0);
+		Assert.assertEquals(0.6, p.getUtility(60), 0);
+	}
+
+	@Test
+	void getUtilityAfterSetUtility() throws IOException {
+		PiecewiseLinearValueFunction p = initializePieceWise();
+		Assert.assertEquals(0.4, p.getUtility(40), 1e-12);
+		p.setUtility(40, 0.45);
+		Assert.assertEquals(0.45, p.getUtility(40), 0);
+		Assert.assertEquals(0.375, p.getUtility(35), 1e-12);
+	}
+
+	@Test
+	void getUtilityWithManyBreakPoints() throws IOException {
+		PiecewiseLinearValueFunction p = new PiecewiseLinearValueFunction("Price");
+		for (int i = 0; i <= 50000; i++) {
+			p.setUtility(i * 2, i / 50000d);
+		}
+		Assert.assertEquals(0, p.getMinKey());
+		Assert.assertEquals(100000, p.getMaxKey());
+		Assert.assertEquals(12345 / 100000d, p.getUtility(12345), 1e-12);
+		Assert.assertEquals(Range.closed(12344, 12346), p.getInterval(12345));
+	}
+
+	@Test
+	void compileTest() throws IOException {
+		PiecewiseLinearValueFunction p = initializePieceWise();
+		CompiledPiecewiseLinearValueFunction c = p.compile();
+		for (int key = 0; key <= 80; key++) {
+			Assert.assertEquals(p.getUtility(key), c.getUtility(key), 0);
+		}
+		Assert.assertEquals(0.55, c.applyAsDouble(55), 1e-12);
+		Assert.assertEquals(0.305, c.applyAsDouble(30.5), 1e-12);
+
+		p.setUtility(40, 0.45);
+		Assert.assertEquals(0.4, c.getUtility(40), 1e-12);
+		Assert.assertEquals(0.45, p.compile().getUtility(40), 0);
+		Assert.assertEquals(0.4, c.toBuilder().compile().getUtility(40), 1e-12);
+	}
+
 	private PiecewiseLinearValueFunction initializePieceWise()
 	{
 		PiecewiseLinearValueFunction p = new PiecewiseLinearValueFunction("Surface");
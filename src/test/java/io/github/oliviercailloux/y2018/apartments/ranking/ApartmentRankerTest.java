@@ -0,0 +1,128 @@
+package io.github.oliviercailloux.y2018.apartments.ranking;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.ApartmentValueFunction;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.Criterion;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.ScoreExplanation;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.BooleanValueFunction;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.LinearValueFunction;
+
+class ApartmentRankerTest {
+
+	private static List<Apartment> generate(int size) {
+		Random random = new Random(2018);
+		List<Apartment> apartments = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			Apartment a = new Apartment(10 + random.nextInt(20), "Address " + i, "Apartment " + i);
+			a.setNbBedrooms(random.nextInt(3));
+			a.setWifi(random.nextBoolean());
+			apartments.add(a);
+		}
+		return apartments;
+	}
+
+	private static ApartmentValueFunction valueFunction() {
+		ApartmentValueFunction valueFunction = new ApartmentValueFunction();
+		valueFunction.setFloorAreaValueFunction(new LinearValueFunction(10, 30));
+		valueFunction.setNbBedroomsValueFunction(new LinearValueFunction(0, 2));
+		valueFunction.setWifiValueFunction(new BooleanValueFunction(true));
+		return valueFunction;
+	}
+
+	@Test
+	void topKTest() {
+		List<Apartment> apartments = generate(1000);
+		ApartmentValueFunction valueFunction = valueFunction();
+		ApartmentRanker ranker = new ApartmentRanker(valueFunction);
+
+		List<ScoredApartment> expected = new ArrayList<>();
+		for (int i = 0; i < apartments.size(); i++) {
+			expected.add(new ScoredApartment(apartments.get(i), valueFunction.getSubjectiveValue(apartments.get(i)), i));
+		}
+		expected.sort(Comparator.comparingDouble(ScoredApartment::getScore).reversed().thenComparingInt(ScoredApartment::getIndex));
+
+		List<ScoredApartment> best = ranker.topK(apartments, 20);
+		Assert.assertEquals(20, best.size());
+		for (int i = 0; i < best.size(); i++) {
+			Assert.assertEquals(expected.get(i).getIndex(), best.get(i).getIndex());
+			Assert.assertEquals(expected.get(i).getScore(), best.get(i).getScore(), 0);
+			Assert.assertSame(apartments.get(best.get(i).getIndex()), best.get(i).getApartment());
+		}
+
+		List<ScoredApartment> parallel = ranker.topKParallel(apartments, 20);
+		for (int i = 0; i < best.size(); i++) {
+			Assert.assertEquals(best.get(i).getIndex(), parallel.get(i).getIndex());
+		}
+	}
+
+	@Test
+	void topKPrunedTest() {
+		List<Apartment> apartments = generate(1000);
+		ApartmentValueFunction valueFunction = valueFunction();
+		valueFunction.setFloorAreaSubjectiveValueWeight(5);
+		valueFunction.setNbBedroomsSubjectiveValueWeight(2);
+		ApartmentRanker ranker = new ApartmentRanker(valueFunction);
+
+		List<ScoredApartment> expected = ranker.topK(apartments, 20);
+		List<ScoredApartment> pruned = ranker.topKPruned(apartments, 20);
+		Assert.assertEquals(expected.size(), pruned.size());
+		for (int i = 0; i < expected.size(); i++) {
+			Assert.assertEquals(expected.get(i).getIndex(), pruned.get(i).getIndex());
+			Assert.assertEquals(expected.get(i).getScore(), pruned.get(i).getScore(), 1e-12);
+		}
+
+		Apartment best = expected.get(0).getApartment();
+		Assert.assertEquals(Double.NEGATIVE_INFINITY, valueFunction.getSubjectiveValueAbove(best, 1.1), 0);
+		Assertions.assertThrows(IllegalStateException.class, () -> new ApartmentRanker((apartment) -> 0).topKPruned(apartments, 1));
+	}
+
+	@Test
+	void topKWithFewApartmentsTest() {
+		List<Apartment> apartments = generate(3);
+		ApartmentRanker ranker = new ApartmentRanker((apartment) -> 0.5);
+		List<ScoredApartment> best = ranker.topK(apartments, 10);
+		Assert.assertEquals(3, best.size());
+		for (int i = 0; i < best.size(); i++) {
+			Assert.assertEquals(i, best.get(i).getIndex());
+		}
+		Assertions.assertThrows(IllegalArgumentException.class, () -> ranker.topK(apartments, 0));
+	}
+
+	@Test
+	void explanationTest() {
+		List<Apartment> apartments = generate(1000);
+		ApartmentValueFunction valueFunction = valueFunction();
+		List<ScoredApartment> best = new ApartmentRanker(valueFunction).topK(apartments, 5);
+		valueFunction.setWifiSubjectiveValueWeight(100);
+		for (ScoredApartment scored : best) {
+			ScoreExplanation explanation = scored.getExplanation().get();
+			Assert.assertEquals(scored.getScore(), explanation.getScore(), 0);
+			Assert.assertEquals(scored.getApartment().getFloorArea(), explanation.getContribution(Criterion.FLOOR_AREA).getRawValue());
+		}
+
+		ApartmentRanker ranker = new ApartmentRanker(valueFunction);
+		valueFunction.setWifiSubjectiveValueWeight(0);
+		valueFunction.setFloorAreaSubjectiveValueWeight(100);
+		List<ScoredApartment> ranked = ranker.topK(apartments, 5);
+		List<ScoredApartment> pruned = ranker.topKPruned(apartments, 5);
+		for (int i = 0; i < ranked.size(); i++) {
+			Assert.assertEquals(ranked.get(i).getIndex(), pruned.get(i).getIndex());
+			Assert.assertEquals(ranked.get(i).getScore(), ranked.get(i).getExplanation().get().getScore(), 0);
+			Assert.assertEquals(ranked.get(i).getScore(), pruned.get(i).getScore(), 1e-12);
+			Assert.assertTrue(ranked.get(i).getApartment().getWifi());
+		}
+
+		List<ScoredApartment> unexplained = new ApartmentRanker((Apartment a) -> a.getFloorArea()).topK(apartments, 5);
+		Assert.assertFalse(unexplained.get(0).getExplanation().isPresent());
+	}
+
+}
@@ -0,0 +1,106 @@
+package io.github.oliviercailloux.y2018.apartments.ranking;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.ApartmentValueFunction;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.BooleanValueFunction;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.Criterion;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.LinearValueFunction;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.ReversedLinearValueFunction;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.ScoreExplanation;
+
+class ScoredCatalogueTest {
+
+	private static List<Apartment> generate(int size) {
+		Random random = new Random(2018);
+		List<Apartment> apartments = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			Apartment a = new Apartment(10 + random.nextInt(90), "Address " + i, "Apartment " + i);
+			a.setPricePerNight(20 + random.nextInt(80));
+			a.setWifi(random.nextBoolean());
+			apartments.add(a);
+		}
+		return apartments;
+	}
+
+	private static void assertScores(List<Apartment> apartments, ApartmentValueFunction valueFunction, ScoredCatalogue catalogue) {
+		for (int i = 0; i < apartments.size(); i++) {
+			Assert.assertEquals(valueFunction.getSubjectiveValue(apartments.get(i)), catalogue.getScore(i), 1e-12);
+		}
+	}
+
+	@Test
+	void updateTest() {
+		List<Apartment> apartments = generate(500);
+		ApartmentValueFunction valueFunction = new ApartmentValueFunction();
+		valueFunction.setFloorAreaValueFunction(new LinearValueFunction(10, 100));
+		valueFunction.setWifiValueFunction(new BooleanValueFunction(true));
+		ScoredCatalogue catalogue = new ScoredCatalogue(apartments, valueFunction);
+		assertScores(apartments, valueFunction, catalogue);
+
+		catalogue.setWeight(Criterion.PRICE_PER_NIGHT, 2);
+		assertScores(apartments, valueFunction, catalogue);
+
+		valueFunction.setPricePerNightValueFunction(new ReversedLinearValueFunction(20, 100));
+		catalogue.refreshCriterion(Criterion.PRICE_PER_NIGHT);
+		assertScores(apartments, valueFunction, catalogue);
+
+		valueFunction.setWifiSubjectiveValueWeight(0);
+		catalogue.refreshWeights();
+		assertScores(apartments, valueFunction, catalogue);
+
+		List<ScoredApartment> best = catalogue.topK(10);
+		List<ScoredApartment> expected = new ApartmentRanker(valueFunction).topK(apartments, 10);
+		for (int i = 0; i < expected.size(); i++) {
+			Assert.assertEquals(expected.get(i).getScore(), best.get(i).getScore(), 1e-12);
+			ScoreExplanation explanation = best.get(i).getExplanation().get();
+			Assert.assertEquals(best.get(i).getScore(), explanation.getScore(), 1e-12);
+			ScoreExplanation computed = valueFunction.explainScore(best.get(i).getApartment());
+			for (Criterion criterion : Criterion.values()) {
+				Assert.assertEquals(computed.getContribution(criterion).getRawValue(), explanation.getContribution(criterion).getRawValue());
+				Assert.assertEquals(computed.getContribution(criterion).getContribution(), explanation.getContribution(criterion).getContribution(), 1e-12);
+			}
+		}
+		catalogue.close();
+	}
+
+	@Test
+	void apartmentModifiedTest() {
+		List<Apartment> apartments = generate(100);
+		ApartmentValueFunction valueFunction = new ApartmentValueFunction();
+		valueFunction.setFloorAreaValueFunction(new LinearValueFunction(10, 100));
+		valueFunction.setPricePerNightValueFunction(new ReversedLinearValueFunction(20, 100));
+		ScoredCatalogue catalogue = new ScoredCatalogue(apartments, valueFunction);
+
+		apartments.get(42).setFloorArea(100);
+		apartments.get(42).setPricePerNight(20);
+		apartments.get(7).setDescription("Modified");
+		assertScores(apartments, valueFunction, catalogue);
+		Assert.assertEquals(42, catalogue.topK(1).get(0).getIndex());
+		catalogue.close();
+	}
+
+	@Test
+	void closeTest() {
+		List<Apartment> apartments = generate(100);
+		ApartmentValueFunction valueFunction = new ApartmentValueFunction();
+		valueFunction.setFloorAreaValueFunction(new LinearValueFunction(10, 100));
+		double score;
+		try (ScoredCatalogue catalogue = new ScoredCatalogue(apartments, valueFunction)) {
+			apartments.get(42).setFloorArea(100);
+			score = catalogue.getScore(42);
+			catalogue.close();
+			apartments.get(42).setFloorArea(10);
+			Assert.assertEquals(1, catalogue.getSubjectiveValue(Criterion.FLOOR_AREA, 42), 0);
+			Assert.assertEquals(score, catalogue.getScore(42), 0);
+			Assert.assertEquals(42, catalogue.topK(1).get(0).getIndex());
+		}
+	}
+
+}
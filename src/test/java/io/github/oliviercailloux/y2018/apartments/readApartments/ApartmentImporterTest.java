@@ -0,0 +1,82 @@
+package io.github.oliviercailloux.y2018.apartments.readApartments;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.readapartments.ApartmentImporter;
+import io.github.oliviercailloux.y2018.apartments.readapartments.ImportReport;
+import io.github.oliviercailloux.y2018.apartments.toxmlproperties.XMLProperties;
+
+class ApartmentImporterTest {
+
+	private static Path createDirectory() throws Exception {
+		Path root = Files.createTempDirectory("apartments");
+		Path sub = Files.createDirectory(root.resolve("sub"));
+		for (int i = 0; i < 40; i++) {
+			Apartment a = new Apartment(30 + i, "Rue " + i, "Appartement " + i);
+			try (OutputStream output = Files.newOutputStream((i % 2 == 0 ? root : sub).resolve("apartment" + i + ".xml"))) {
+				new XMLProperties().toXML(a, output);
+			}
+		}
+		Files.write(sub.resolve("number.xml"), "<properties><entry key=\"title\">T</entry><entry key=\"address\">A</entry><entry key=\"floorArea\">big</entry></properties>".getBytes(StandardCharsets.UTF_8));
+		Files.write(root.resolve("broken.xml"), "<properties><entry key=\"title\">".getBytes(StandardCharsets.UTF_8));
+		Files.write(root.resolve("notes.txt"), "not an apartment".getBytes(StandardCharsets.UTF_8));
+		return root;
+	}
+
+	private static void delete(Path root) throws Exception {
+		try (Stream<Path> walk = Files.walk(root)) {
+			for (Path file : walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+				Files.delete(file);
+			}
+		}
+	}
+
+	@Test
+	void importTest() throws Exception {
+		Path root = createDirectory();
+		try {
+			List<Apartment> apartments = new ArrayList<>();
+			ImportReport report = new ApartmentImporter(3, 4).importDirectory(root, apartments::add);
+			Assert.assertEquals(40, apartments.size());
+			Assert.assertEquals(2, report.getErrors().size());
+			Assert.assertEquals(42, report.getStage("walk").getCount());
+			Assert.assertEquals(42, report.getStage("read").getCount());
+			Assert.assertEquals(40, report.getStage("parse").getCount());
+			Assert.assertEquals(40, report.getStage("sink").getCount());
+			Assert.assertTrue(report.getBytesRead() > 0);
+			List<String> errorFiles = report.getErrors().stream().map((error) -> error.getFile().getFileName().toString()).sorted().collect(Collectors.toList());
+			Assert.assertEquals("broken.xml", errorFiles.get(0));
+			Assert.assertEquals("number.xml", errorFiles.get(1));
+		}
+		finally {
+			delete(root);
+		}
+	}
+
+	@Test
+	void sinkFailureTest() throws Exception {
+		Path root = createDirectory();
+		try {
+			Assertions.assertThrows(IllegalStateException.class, () -> new ApartmentImporter(2, 1).importDirectory(root, (a) -> {
+				throw new IllegalStateException("Full");
+			}));
+		}
+		finally {
+			delete(root);
+		}
+	}
+
+}
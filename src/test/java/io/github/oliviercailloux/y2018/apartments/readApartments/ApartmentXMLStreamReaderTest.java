@@ -0,0 +1,121 @@
+package io.github.oliviercailloux.y2018.apartments.readApartments;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.readapartments.ApartmentXMLStreamReader;
+import io.github.oliviercailloux.y2018.apartments.readapartments.ReadApartmentsXMLFormat;
+import io.github.oliviercailloux.y2018.apartments.toxmlproperties.XMLProperties;
+
+class ApartmentXMLStreamReaderTest {
+
+	private static final String DOCUMENT = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+			+ "<apartments>\n"
+			+ "<properties><entry key=\"title\">Studio</entry><entry key=\"address\">Annecy</entry><entry key=\"floorArea\">20.5</entry>"
+			+ "<entry key=\"terrace\">true</entry><entry key=\"floorAreaTerrace\">4</entry><entry key=\"nbMinNight\">2</entry></properties>\n"
+			+ "<properties><comment>Second</comment><entry key=\"floorArea\">80</entry><entry key=\"address\">Paris &amp; banlieue</entry>"
+			+ "<entry key=\"title\">Loft</entry><entry key=\"unknown\">ignored</entry></properties>\n"
+			+ "</apartments>";
+
+	private static InputStream input(String xml) {
+		return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void readDocumentTest() throws IOException {
+		List<Apartment> apartments;
+		try (Stream<Apartment> stream = ApartmentXMLStreamReader.stream(input(DOCUMENT))) {
+			apartments = stream.collect(Collectors.toList());
+		}
+		Assert.assertEquals(2, apartments.size());
+		Assert.assertEquals("Studio", apartments.get(0).getTitle());
+		Assert.assertEquals(20.5, apartments.get(0).getFloorArea(), 0);
+		Assert.assertEquals(4, apartments.get(0).getFloorAreaTerrace(), 0);
+		Assert.assertEquals(2, apartments.get(0).getNbMinNight());
+		Assert.assertEquals("Paris & banlieue", apartments.get(1).getAddress());
+		Assert.assertEquals("", apartments.get(1).getDescription());
+		Assert.assertFalse(apartments.get(1).getTerrace());
+	}
+
+	@Test
+	void sameAsPropertiesTest() throws IOException {
+		Apartment expected;
+		try (InputStream f = ReadApartmentsXMLFormatTest.class.getResourceAsStream("start-apartment-classpath.xml")) {
+			expected = new ReadApartmentsXMLFormat().readApartment(f);
+		}
+		try (ApartmentXMLStreamReader reader = new ApartmentXMLStreamReader(ReadApartmentsXMLFormatTest.class.getResourceAsStream("start-apartment-classpath.xml"))) {
+			Assert.assertEquals(expected, reader.next());
+			Assert.assertFalse(reader.hasNext());
+			Assert.assertEquals(1, reader.getCount());
+		}
+	}
+
+	@Test
+	void readDirectoryTest() throws Exception {
+		Path directory = Files.createTempDirectory("apartments");
+		try {
+			for (int i = 0; i < 20; i++) {
+				Apartment a = new Apartment(30 + i, "Rue " + i, "Appartement " + i);
+				a.setWifi(i % 2 == 0);
+				try (OutputStream output = Files.newOutputStream(directory.resolve("apartment" + i + ".xml"))) {
+					new XMLProperties().toXML(a, output);
+				}
+			}
+			Files.write(directory.resolve("notes.txt"), "not an apartment".getBytes(StandardCharsets.UTF_8));
+			List<Apartment> apartments;
+			try (Stream<Apartment> stream = ApartmentXMLStreamReader.stream(directory)) {
+				apartments = stream.sorted(Comparator.comparingDouble(Apartment::getFloorArea)).collect(Collectors.toList());
+			}
+			Assert.assertEquals(20, apartments.size());
+			Assert.assertEquals("Appartement 7", apartments.get(7).getTitle());
+			Assert.assertFalse(apartments.get(7).getWifi());
+		}
+		finally {
+			try (Stream<Path> files = Files.list(directory)) {
+				for (Path file : (Iterable<Path>) files::iterator) {
+					Files.delete(file);
+				}
+			}
+			Files.delete(directory);
+		}
+	}
+
+	@Test
+	void missingTitleTest() throws IOException {
+		String xml = "<properties><entry key=\"address\">Annecy</entry><entry key=\"floorArea\">20</entry></properties>";
+		try (ApartmentXMLStreamReader reader = new ApartmentXMLStreamReader(input(xml))) {
+			Assertions.assertThrows(UncheckedIOException.class, () -> reader.hasNext());
+		}
+		String invalidNumber = "<properties><entry key=\"title\">T</entry><entry key=\"address\">A</entry><entry key=\"floorArea\">twenty</entry></properties>";
+		try (ApartmentXMLStreamReader reader = new ApartmentXMLStreamReader(input(invalidNumber))) {
+			Assertions.assertThrows(NumberFormatException.class, () -> reader.next());
+		}
+	}
+
+	@Test
+	void noLeftoverTest() throws IOException {
+		ReadApartmentsXMLFormat r = new ReadApartmentsXMLFormat();
+		String full = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><!DOCTYPE properties SYSTEM \"http://java.sun.com/dtd/properties.dtd\">"
+				+ "<properties><entry key=\"title\">T</entry><entry key=\"address\">A</entry><entry key=\"floorArea\">20</entry><entry key=\"description\">Calme</entry></properties>";
+		String minimal = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><!DOCTYPE properties SYSTEM \"http://java.sun.com/dtd/properties.dtd\">"
+				+ "<properties><entry key=\"title\">U</entry><entry key=\"address\">B</entry><entry key=\"floorArea\">30</entry></properties>";
+		Assert.assertEquals("Calme", r.readApartment(input(full)).getDescription());
+		Assert.assertEquals("", r.readApartment(input(minimal)).getDescription());
+	}
+
+}
@@ -1,14 +1,21 @@
 package io.github.oliviercailloux.y2018.apartments.toxmlproperties;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
 import org.junit.Assert;
 import org.junit.jupiter.api.Test;
 
 import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
 import io.github.oliviercailloux.y2018.apartments.readApartments.ReadTwoApartmentsTest;
+import io.github.oliviercailloux.y2018.apartments.readapartments.ApartmentXMLStreamReader;
 import io.github.oliviercailloux.y2018.apartments.readapartments.ReadApartmentsXMLFormat;
 
 class ToXmlPropertiesTest {
@@ -65,4 +72,57 @@ class ToXmlPropertiesTest {
 			
 		}
 	}
-}
\ No newline at end of file
+
+	@Test
+	void propertiesFormatTest() throws IOException
+	{
+		Apartment a = new Apartment(42.5, "3 rue \"des Lilas\" & fils <74000>", "Studio\r\nlumineux");
+		a.setDescription("Près du lac");
+		a.setTerrace(true);
+		a.setFloorAreaTerrace(4.25);
+		a.setNbMinNight(3);
+		ByteArrayOutputStream output = new ByteArrayOutputStream() {
+			@Override
+			public void close() {
+				throw new IllegalStateException("The stream of the caller must not be closed");
+			}
+		};
+		new XMLProperties().toXML(a, output);
+
+		Properties properties = new Properties();
+		properties.loadFromXML(new ByteArrayInputStream(output.toByteArray()));
+		Assert.assertEquals(13, properties.size());
+		Assert.assertEquals("3 rue \"des Lilas\" & fils <74000>", properties.getProperty("address"));
+		Assert.assertEquals("Studio\r\nlumineux", properties.getProperty("title"));
+		Assert.assertEquals("Près du lac", properties.getProperty("description"));
+		Assert.assertEquals("42.5", properties.getProperty("floorArea"));
+		Assert.assertEquals("4.25", properties.getProperty("floorAreaTerrace"));
+		Assert.assertEquals("true", properties.getProperty("terrace"));
+		Assert.assertEquals("false", properties.getProperty("wifi"));
+		Assert.assertEquals("3", properties.getProperty("nbMinNight"));
+
+		Apartment read = new ReadApartmentsXMLFormat().readApartment(new ByteArrayInputStream(output.toByteArray()));
+		Assert.assertEquals(a, read);
+	}
+
+	@Test
+	void bulkTest() throws IOException
+	{
+		List<Apartment> apartments = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			Apartment a = new Apartment(20 + i, "Rue " + i + " <Annecy>", "Appartement n°" + i);
+			a.setNbBedrooms(i % 4);
+			a.setWifi(i % 3 == 0);
+			a.setPricePerNight(i * 0.1);
+			apartments.add(a);
+		}
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		Assert.assertEquals(500, new XMLProperties().toXML(apartments, output));
+
+		List<Apartment> read = new ArrayList<>();
+		try (ApartmentXMLStreamReader reader = new ApartmentXMLStreamReader(new ByteArrayInputStream(output.toByteArray()))) {
+			reader.forEachRemaining(read::add);
+		}
+		Assert.assertEquals(apartments, read);
+	}
+}
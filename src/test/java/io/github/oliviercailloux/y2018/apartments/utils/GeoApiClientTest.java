@@ -0,0 +1,35 @@
+package io.github.oliviercailloux.y2018.apartments.utils;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.google.maps.GeocodingApi;
+
+class GeoApiClientTest {
+
+	private static final String FAKE_KEY = "AIzaFakeKeyForTheTests";
+
+	@Test
+	void sharedTest() {
+		GeoApiClient client = GeoApiClient.shared(FAKE_KEY);
+		Assert.assertSame(client, GeoApiClient.shared(FAKE_KEY));
+		Assertions.assertThrows(IllegalStateException.class, () -> client.close());
+		Assert.assertSame(client, GeoApiClient.shared(FAKE_KEY));
+		GeoApiClient.closeShared();
+		Assertions.assertThrows(IllegalStateException.class, () -> client.execute((context) -> GeocodingApi.newRequest(context).address("Paris")));
+		GeoApiClient other = GeoApiClient.shared(FAKE_KEY);
+		Assert.assertNotSame(client, other);
+		GeoApiClient.closeShared();
+	}
+
+	@Test
+	void executeAfterCloseTest() {
+		GeoApiClient client = new GeoApiClient(FAKE_KEY, 2);
+		Assert.assertEquals(0, client.getInFlightRequests());
+		Assert.assertEquals(GeoApiClient.getLatencyBoundsMillis().length + 1, client.getLatencyHistogram().length);
+		client.close();
+		Assertions.assertThrows(IllegalStateException.class, () -> client.execute((context) -> GeocodingApi.newRequest(context).address("Paris")));
+	}
+
+}
@@ -1,6 +1,12 @@
 package io.github.oliviercailloux.y2018.apartments.valuefunction;
 
 
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
 import org.junit.Assert;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -66,6 +72,102 @@ class ApartmentValueFunctionTest {
 		Assert.assertEquals(0.04587, valueFunction.getSubjectiveValue(a),0.00001);
 	}
 
+	@Test
+	void constantSubclassTest() {
+		ConstantValueFunction<Double> doubled = new ConstantValueFunction<Double>() {
+			@Override
+			public double getSubjectiveValue(Double objectiveData) {
+				return objectiveData / 100;
+			}
+		};
+		ConstantValueFunction<Boolean> one = new ConstantValueFunction<Boolean>() {
+			@Override
+			public double getSubjectiveValue(Boolean objectiveData) {
+				return 1;
+			}
+		};
+		Assert.assertEquals(0.5, DoublePartialValueFunction.of(doubled).applyAsDouble(50), 0);
+		Assert.assertEquals(1, BooleanPartialValueFunction.of(one).applyAsDouble(false), 0);
+		Assert.assertEquals(0, DoublePartialValueFunction.of(new ConstantValueFunction<>()).applyAsDouble(50), 0);
+	}
+
+	@Test
+	void scoreAllTest() {
+		Apartment a = new Apartment(250, "108 rue de chat-ville Ville-d'Avray 92410", "Une ferme");
+		a.setNbSleeping(4);
+		a.setTerrace(true);
+		a.setFloorAreaTerrace(40);
+		a.setPricePerNight(25);
+		Apartment b = new Apartment(60, "6 rue des paquerette 74000 Annecy", "Petit Manoir de campagne");
+		b.setNbBedrooms(3);
+		b.setWifi(true);
+		b.setNbMinNight(10);
+		Apartment c = new Apartment(120, "5 avenue Roger Salengro 92370 Chaville France", "Villa à louer");
+		c.setTele(true);
+		c.setPricePerNight(45);
+		List<Apartment> aparts = Arrays.asList(a, b, c);
+
+		ApartmentValueFunction valueFunction = new ApartmentValueFunction();
+		valueFunction.setFloorAreaValueFunction(new LinearValueFunction(0, 200.00));
+		valueFunction.setNbSleepingValueFunction(new LinearValueFunction(3, 5));
+		valueFunction.setNbBedroomsValueFunction(new LinearValueFunction(1, 4));
+		valueFunction.setNbMinNightValueFunction(new ReversedLinearValueFunction(7, 30));
+		valueFunction.setPricePerNightValueFunction(new ReversedLinearValueFunction(20, 40));
+		valueFunction.setFloorAreaTerraceValueFunction(new LinearValueFunction(30, 50));
+		valueFunction.setTerraceValueFunction(new BooleanValueFunction(true));
+		valueFunction.setWifiValueFunction(new BooleanValueFunction(true));
+		valueFunction.setTeleValueFunction(new BooleanValueFunction(false));
+		valueFunction.setPricePerNightSubjectiveValueWeight(5);
+		valueFunction.setFloorAreaSubjectiveValueWeight(3);
+
+		double[] scores = valueFunction.scoreAll(aparts);
+
+		Assert.assertEquals(3, scores.length);
+		for (int i = 0; i < aparts.size(); i++) {
+			Assert.assertEquals(valueFunction.getSubjectiveValue(aparts.get(i)), scores[i], 1e-12);
+		}
+	}
+
+	/**
+	 * Checks, on a JVM which supports measuring the allocations of a thread, that scoring an apartment does not allocate once the value functions are set.
+	 */
+	@Test
+	void getSubjectiveValueDoesNotAllocate() {
+		if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean))
+			return;
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		if (!threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled())
+			return;
+
+		Apartment a = new Apartment(250, "108 rue de chat-ville Ville-d'Avray 92410", "Une ferme");
+		a.setNbSleeping(4);
+		a.setTerrace(true);
+		a.setPricePerNight(25);
+
+		ApartmentValueFunction valueFunction = new ApartmentValueFunction();
+		valueFunction.setFloorAreaValueFunction(new LinearValueFunction(0, 200.00));
+		valueFunction.setNbSleepingValueFunction(new LinearValueFunction(3, 5));
+		valueFunction.setPricePerNightValueFunction(new ReversedLinearValueFunction(20, 40));
+		valueFunction.setTerraceValueFunction(new BooleanValueFunction(true));
+		valueFunction.setWifiValueFunction(new BooleanValueFunction(true));
+
+		int iterations = 100000;
+		double sum = 0;
+		for (int i = 0; i < iterations; i++) {
+			sum += valueFunction.getSubjectiveValue(a);
+		}
+
+		long threadId = Thread.currentThread().getId();
+		long before = threads.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < iterations; i++) {
+			sum += valueFunction.getSubjectiveValue(a);
+		}
+		long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+		Assert.assertTrue(sum > 0);
+		Assert.assertTrue("Allocated " + allocated + " bytes for " + iterations + " scores", allocated < iterations);
+	}
+
 	@Test
 	void exceptionIllegalArgWeightSetter() {
 		Assertions.assertThrows(IllegalArgumentException.class, () -> {
@@ -76,4 +178,70 @@ class ApartmentValueFunctionTest {
 
 
 
+	@Test
+	void snapshotTest() {
+		ApartmentValueFunction valueFunction = new ApartmentValueFunction();
+		valueFunction.setFloorAreaValueFunction(new LinearValueFunction(0, 300));
+		valueFunction.setWifiValueFunction(new BooleanValueFunction(true));
+		valueFunction.setFloorAreaSubjectiveValueWeight(3);
+		List<Apartment> aparts = new ArrayList<>();
+		for (int i = 0; i < 5000; i++) {
+			Apartment a = new Apartment(i % 300, "Address " + i, "Apartment " + i);
+			a.setWifi(i % 3 == 0);
+			aparts.add(a);
+		}
+		ApartmentScorer scorer = valueFunction.snapshot();
+		Assert.assertSame(scorer, valueFunction.snapshot());
+		valueFunction.setWifiSubjectiveValueWeight(100);
+		Assert.assertNotSame(scorer, valueFunction.snapshot());
+		Assert.assertEquals((3 / 300d * 3 + 100) / 103.8, valueFunction.getSubjectiveValue(aparts.get(3)), 1e-12);
+
+		double[] scores = scorer.scoreParallel(aparts, new ForkJoinPool(4));
+		Assert.assertEquals(aparts.size(), scores.length);
+		for (int i = 0; i < aparts.size(); i++) {
+			Assert.assertEquals(scorer.score(aparts.get(i)), scores[i], 0);
+		}
+		Assert.assertEquals((3 / 300d * 3 + 0.1) / 3.9, scorer.score(aparts.get(3)), 1e-12);
+		Assert.assertEquals(3 / 3.9, scorer.getWeight(Criterion.FLOOR_AREA), 1e-12);
+	}
+
+	@Test
+	void setWeightsTest() {
+		ApartmentValueFunction valueFunction = new ApartmentValueFunction();
+		double[] weights = new double[Criterion.values().length];
+		weights[Criterion.PRICE_PER_NIGHT.ordinal()] = 3;
+		weights[Criterion.FLOOR_AREA.ordinal()] = 1;
+		valueFunction.setWeights(weights);
+		Assert.assertEquals(0.75, valueFunction.getNormalizedWeights()[Criterion.PRICE_PER_NIGHT.ordinal()], 1e-12);
+		Assert.assertEquals(3, valueFunction.getWeight(Criterion.PRICE_PER_NIGHT), 0);
+
+		weights[Criterion.WIFI.ordinal()] = -1;
+		Assertions.assertThrows(IllegalArgumentException.class, () -> valueFunction.setWeights(weights));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> valueFunction.setWeights(new double[Criterion.values().length]));
+		Assert.assertEquals(0, valueFunction.getWeight(Criterion.WIFI), 0);
+		Assert.assertEquals(0.25, valueFunction.getNormalizedWeights()[Criterion.FLOOR_AREA.ordinal()], 1e-12);
+	}
+
+	@Test
+	void explainScoreTest() {
+		ApartmentValueFunction valueFunction = new ApartmentValueFunction();
+		valueFunction.setFloorAreaValueFunction(new LinearValueFunction(0, 200));
+		valueFunction.setWifiValueFunction(new BooleanValueFunction(true));
+		valueFunction.setFloorAreaSubjectiveValueWeight(3);
+		Apartment a = new Apartment(50, "Address", "Apartment");
+		a.setWifi(true);
+
+		ScoreExplanation explanation = valueFunction.explainScore(a);
+		Assert.assertEquals(valueFunction.getSubjectiveValue(a), explanation.getScore(), 0);
+		Assert.assertEquals(Criterion.values().length, explanation.getContributions().size());
+		Assert.assertEquals(valueFunction.snapshot().score(a), explanation.getScore(), 0);
+		ScoreExplanation.Contribution floorArea = explanation.getContribution(Criterion.FLOOR_AREA);
+		Assert.assertEquals(50d, floorArea.getRawValue());
+		Assert.assertEquals(true, explanation.getContribution(Criterion.WIFI).getRawValue());
+		Assert.assertEquals(0.25, floorArea.getSubjectiveValue(), 1e-12);
+		Assert.assertEquals(3 / 3.9, floorArea.getWeight(), 1e-12);
+		Assert.assertEquals(0.25 * 3 / 3.9, floorArea.getContribution(), 1e-12);
+		Assert.assertEquals(0.1 / 3.9, explanation.getContribution(Criterion.WIFI).getContribution(), 1e-12);
+	}
+
 }